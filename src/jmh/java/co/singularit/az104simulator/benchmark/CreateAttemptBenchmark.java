@@ -0,0 +1,75 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.Az104SimulatorApplication;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.dto.ExamConfigDto;
+import co.singularit.az104simulator.service.AttemptService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of AttemptService.createAttempt against an in-memory H2 database
+ * seeded with the question bank: session row, session questions, attempt and answer
+ * placeholders. The batch size parameter compares row-by-row inserts (1) with JDBC batching.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=CreateAttemptBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateAttemptBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"50", "100"})
+    private int numberOfQuestions;
+
+    private ConfigurableApplicationContext context;
+    private AttemptService attemptService;
+    private ExamConfigDto config;
+
+    @Setup
+    public void setUp() {
+        SpringApplication application = new SpringApplication(Az104SimulatorApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+            "spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.hibernate.jdbc.batch_size", String.valueOf(batchSize),
+            "logging.level.co.singularit.az104simulator", "WARN"
+        ));
+        context = application.run();
+        attemptService = context.getBean(AttemptService.class);
+
+        config = new ExamConfigDto();
+        config.setMode(ExamMode.EXAM);
+        config.setNumberOfQuestions(numberOfQuestions);
+        config.setSelectedDomains(List.of(Domain.values()));
+        config.setIdentityPercentage(20);
+        config.setStoragePercentage(20);
+        config.setComputePercentage(20);
+        config.setNetworkingPercentage(20);
+        config.setMonitorPercentage(20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String createAttempt() {
+        return attemptService.createAttempt(config, "bench").getId();
+    }
+}
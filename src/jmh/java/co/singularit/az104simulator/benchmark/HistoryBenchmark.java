@@ -0,0 +1,139 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.dto.AttemptHistoryDto;
+import co.singularit.az104simulator.dto.QuestionReviewDto;
+import co.singularit.az104simulator.repository.AttemptAnswerRepository;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.AnswerKeyIndex;
+import co.singularit.az104simulator.service.ExamMetrics;
+import co.singularit.az104simulator.service.HistoryService;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer-correctness checks of HistoryService: the history page for attempts without
+ * stored summary counters (every answer is rescored) and the detail page of one attempt.
+ * Repositories are in-memory stubs over synthetic attempts.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=HistoryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    private static final String STUDENT_ID = "bench-student";
+
+    @Param({"20"})
+    private int attemptCount;
+
+    @Param({"50"})
+    private int questionsPerAttempt;
+
+    private HistoryService historyService;
+    private String detailAttemptId;
+
+    @Setup
+    public void setUp() {
+        List<Question> questions = SyntheticBank.questions(1000);
+        QuestionRepository questionRepository = SyntheticBank.questionRepository(questions);
+        QuestionBankSnapshot snapshot = SyntheticBank.snapshot(questionRepository);
+        AnswerKeyIndex keys = snapshot.answerKeys();
+
+        Random random = new Random(42);
+        List<Attempt> attempts = new ArrayList<>();
+        List<AttemptAnswerRepository.AnswerStateView> answerStates = new ArrayList<>();
+        for (int a = 0; a < attemptCount; a++) {
+            Attempt attempt = new Attempt();
+            attempt.setMode(ExamMode.EXAM);
+            attempt.setStudentId(STUDENT_ID);
+            attempt.setTotalQuestions(questionsPerAttempt);
+            attempt.setStartedAt(LocalDateTime.now().minusDays(a + 1));
+            attempt.setEndedAt(attempt.getStartedAt().plusMinutes(90));
+            attempt.setDurationSeconds(90 * 60);
+            attempt.setIsCompleted(true);
+            attempt.setLocale("es");
+
+            for (int position = 0; position < questionsPerAttempt; position++) {
+                Question question = questions.get(random.nextInt(questions.size()));
+                AttemptAnswer answer = new AttemptAnswer();
+                answer.setQuestionId(question.getId());
+                answer.setPosition(position);
+                answer.setMarked(position % 7 == 0);
+                if (position % 5 != 4) {
+                    List<Long> selection = SyntheticBank.selection(question, random.nextBoolean());
+                    answer.setSelectedOptionMask(keys.selectionMask(keys.indexOf(question.getId()), selection));
+                }
+                attempt.addAnswer(answer);
+                answerStates.add(new AnswerState(attempt.getId(), answer.getQuestionId(),
+                    answer.isAnswered() ? answer.getSelectedOptionMask() : null, answer.getMarked()));
+            }
+            attempts.add(attempt);
+        }
+
+        Map<String, Attempt> attemptsById = new HashMap<>();
+        attempts.forEach(attempt -> attemptsById.put(attempt.getId(), attempt));
+        detailAttemptId = attempts.get(0).getId();
+
+        AttemptRepository attemptRepository = SyntheticBank.stub(AttemptRepository.class, Map.of(
+            "findByStudentIdAndIsCompletedTrue", args -> attempts,
+            "findById", args -> Optional.ofNullable(attemptsById.get((String) args[0]))
+        ));
+        AttemptAnswerRepository attemptAnswerRepository = SyntheticBank.stub(AttemptAnswerRepository.class, Map.of(
+            "findAnswerStatesByAttemptIdIn", args -> answerStates,
+            "findByAttemptOrderByPositionAsc", args -> ((Attempt) args[0]).getAnswers()
+        ));
+
+        historyService = new HistoryService(
+            attemptRepository, attemptAnswerRepository, questionRepository, snapshot, new ObjectMapper(),
+            new ExamMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public List<AttemptHistoryDto> historyPage() {
+        return historyService.getAttemptHistory(STUDENT_ID, null, attemptCount);
+    }
+
+    @Benchmark
+    public Map<Integer, QuestionReviewDto> attemptDetail() {
+        return historyService.getAttemptDetail(detailAttemptId, STUDENT_ID, "es");
+    }
+
+    private record AnswerState(String attemptId, Long questionId, Long selectedOptionMask, Boolean marked)
+            implements AttemptAnswerRepository.AnswerStateView {
+
+        @Override
+        public String getAttemptId() {
+            return attemptId;
+        }
+
+        @Override
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        @Override
+        public Long getSelectedOptionMask() {
+            return selectedOptionMask;
+        }
+
+        @Override
+        public Boolean getMarked() {
+            return marked;
+        }
+    }
+}
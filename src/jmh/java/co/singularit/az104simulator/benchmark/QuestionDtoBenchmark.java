@@ -0,0 +1,64 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.dto.QuestionDto;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionDtoCache;
+import co.singularit.az104simulator.service.QuestionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuestionService.convertToDto in both languages: a full rendering (localized texts, tag
+ * parsing, option DTOs) against a copy served by the question DTO cache.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=QuestionDtoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionDtoBenchmark {
+
+    @Param({"es", "en"})
+    private String lang;
+
+    @Param({"false", "true"})
+    private boolean includeCorrectAnswers;
+
+    private QuestionService questionService;
+    private Question unsaved;
+    private Question saved;
+
+    @Setup
+    public void setUp() {
+        List<Question> questions = SyntheticBank.questions(100);
+        QuestionRepository questionRepository = SyntheticBank.questionRepository(questions);
+        questionService = new QuestionService(
+            questionRepository,
+            new ObjectMapper(),
+            SyntheticBank.snapshot(questionRepository),
+            new QuestionDtoCache(5000)
+        );
+
+        saved = questions.get(42);
+        // Questions without an id bypass the cache and are rendered every time
+        unsaved = SyntheticBank.question(42);
+        unsaved.setId(null);
+    }
+
+    @Benchmark
+    public QuestionDto render() {
+        return questionService.convertToDto(unsaved, includeCorrectAnswers, lang);
+    }
+
+    @Benchmark
+    public QuestionDto cached() {
+        return questionService.convertToDto(saved, includeCorrectAnswers, lang);
+    }
+}
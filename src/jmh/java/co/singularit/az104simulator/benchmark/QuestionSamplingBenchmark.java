@@ -0,0 +1,60 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.service.QuestionSampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares the previous selection path (copy the candidate list, shuffle it, keep the head)
+ * with sampling k ids directly from the snapshot id array.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=QuestionSamplingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionSamplingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int bankSize;
+
+    @Param({"50"})
+    private int sampleSize;
+
+    private long[] ids;
+    private List<Question> questions;
+
+    @Setup
+    public void setUp() {
+        ids = LongStream.rangeClosed(1, bankSize).toArray();
+        questions = new ArrayList<>(bankSize);
+        for (long id : ids) {
+            Question question = new Question();
+            question.setId(id);
+            questions.add(question);
+        }
+    }
+
+    @Benchmark
+    public List<Question> shuffleWholeList() {
+        // What getRandomQuestions did with the list returned by findByDomainIn
+        List<Question> candidates = new ArrayList<>(questions);
+        Collections.shuffle(candidates);
+        return candidates.subList(0, sampleSize);
+    }
+
+    @Benchmark
+    public long[] floydSample() {
+        return QuestionSampler.sample(ids, sampleSize, ThreadLocalRandom.current());
+    }
+}
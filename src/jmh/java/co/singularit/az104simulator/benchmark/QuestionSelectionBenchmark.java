@@ -0,0 +1,70 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionDtoCache;
+import co.singularit.az104simulator.service.QuestionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question selection for a new session through QuestionService, with and without a domain
+ * distribution. The repository is an in-memory stub, so this measures sampling and loading
+ * the picked questions, not database time.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=QuestionSelectionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionSelectionBenchmark {
+
+    @Param({"1000", "10000"})
+    private int bankSize;
+
+    @Param({"50"})
+    private int numberOfQuestions;
+
+    private QuestionService questionService;
+    private List<Domain> domains;
+    private Map<Domain, Integer> distribution;
+
+    @Setup
+    public void setUp() {
+        List<Question> questions = SyntheticBank.questions(bankSize);
+        QuestionRepository questionRepository = SyntheticBank.questionRepository(questions);
+        questionService = new QuestionService(
+            questionRepository,
+            new ObjectMapper(),
+            SyntheticBank.snapshot(questionRepository),
+            new QuestionDtoCache(5000)
+        );
+
+        domains = List.of(Domain.values());
+        distribution = new EnumMap<>(Domain.class);
+        distribution.put(Domain.IDENTITY_GOVERNANCE, 23);
+        distribution.put(Domain.STORAGE, 18);
+        distribution.put(Domain.COMPUTE, 23);
+        distribution.put(Domain.NETWORKING, 18);
+        distribution.put(Domain.MONITOR_MAINTAIN, 18);
+    }
+
+    @Benchmark
+    public List<Question> withoutDistribution() {
+        return questionService.getRandomQuestions(domains, numberOfQuestions);
+    }
+
+    @Benchmark
+    public List<Question> withDistribution() {
+        return questionService.getRandomQuestionsWithDistribution(domains, numberOfQuestions, distribution);
+    }
+}
@@ -0,0 +1,81 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.dto.ResultDto;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScoringService on attempts of different sizes: calculateResults builds the per-question
+ * results of the results page, score only counts (what completeAttempt runs).
+ * Answers alternate correct and incorrect, every fifth question is left unanswered.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=ScoringBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int answerCount;
+
+    private ScoringService scoringService;
+    private Attempt attempt;
+    private List<AttemptAnswer> answers;
+
+    @Setup
+    public void setUp() {
+        List<Question> questions = SyntheticBank.questions(answerCount);
+        QuestionRepository questionRepository = SyntheticBank.questionRepository(questions);
+        QuestionBankSnapshot snapshot = SyntheticBank.snapshot(questionRepository);
+        QuestionService questionService = new QuestionService(
+            questionRepository, new ObjectMapper(), snapshot, new QuestionDtoCache(5000));
+        scoringService = new ScoringService(questionRepository, questionService, snapshot);
+
+        attempt = new Attempt();
+        attempt.setMode(ExamMode.EXAM);
+        attempt.setTotalQuestions(answerCount);
+        attempt.setStartedAt(LocalDateTime.now().minusMinutes(90));
+        attempt.setEndedAt(LocalDateTime.now());
+
+        AnswerKeyIndex keys = snapshot.answerKeys();
+        answers = new ArrayList<>(answerCount);
+        for (int position = 0; position < answerCount; position++) {
+            Question question = questions.get(position);
+            AttemptAnswer answer = new AttemptAnswer();
+            answer.setQuestionId(question.getId());
+            answer.setPosition(position);
+            answer.setMarked(position % 7 == 0);
+            if (position % 5 != 4) {
+                List<Long> selection = SyntheticBank.selection(question, position % 2 == 0);
+                answer.setSelectedOptionMask(keys.selectionMask(keys.indexOf(question.getId()), selection));
+            }
+            attempt.addAnswer(answer);
+            answers.add(answer);
+        }
+    }
+
+    @Benchmark
+    public ResultDto calculateResults() {
+        return scoringService.calculateResults(attempt, answers);
+    }
+
+    @Benchmark
+    public AttemptScore score() {
+        return scoringService.score(answers);
+    }
+}
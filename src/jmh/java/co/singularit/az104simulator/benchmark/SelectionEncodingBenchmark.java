@@ -0,0 +1,67 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.service.AnswerKeyIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of an answer's selected options: the JSON text that used to be
+ * stored in attempt_answer.selected_option_ids_json against the bitmask stored today.
+ *
+ * Run with: ./gradlew jmh -Pjmh.includes=SelectionEncodingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionEncodingBenchmark {
+
+    private static final TypeReference<List<Long>> ID_LIST = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AnswerKeyIndex keys;
+    private int index;
+    private List<Long> selection;
+    private String json;
+    private long mask;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // Question 3 is MULTI, so the selection has two options
+        Question question = SyntheticBank.question(3);
+        keys = AnswerKeyIndex.ofQuestions(List.of(question));
+        index = keys.indexOf(question.getId());
+        selection = SyntheticBank.selection(question, true);
+        json = objectMapper.writeValueAsString(selection);
+        mask = keys.selectionMask(index, selection);
+    }
+
+    @Benchmark
+    public String encodeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(selection);
+    }
+
+    @Benchmark
+    public List<Long> decodeJson() throws JsonProcessingException {
+        return objectMapper.readValue(json, ID_LIST);
+    }
+
+    @Benchmark
+    public long encodeMask() {
+        return keys.selectionMask(index, selection);
+    }
+
+    @Benchmark
+    public List<Long> decodeMask() {
+        return keys.optionIds(index, mask);
+    }
+}
@@ -0,0 +1,139 @@
+package co.singularit.az104simulator.benchmark;
+
+import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Synthetic question bank and in-memory repository stubs for benchmarks.
+ *
+ * Every question has four options and bilingual texts; ids are deterministic so runs are
+ * reproducible without a database. Repository stubs answer only the methods they are given
+ * and throw for anything else, so a benchmark cannot silently hit an unexpected path.
+ */
+final class SyntheticBank {
+
+    static final int OPTIONS_PER_QUESTION = 4;
+
+    private static final Domain[] DOMAINS = Domain.values();
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    private SyntheticBank() {
+    }
+
+    /**
+     * Questions with ids 1..count; every third question is MULTI with two correct options
+     */
+    static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            questions.add(question(id));
+        }
+        return questions;
+    }
+
+    static Question question(long id) {
+        Question question = new Question();
+        question.setId(id);
+        question.setDomain(DOMAINS[(int) (id % DOMAINS.length)]);
+        question.setDifficulty(DIFFICULTIES[(int) (id % DIFFICULTIES.length)]);
+        question.setQtype(id % 3 == 0 ? QuestionType.MULTI : QuestionType.SINGLE);
+        question.setStem("Question " + id);
+        question.setStemEs("Pregunta " + id + ": ¿qué servicio de Azure debería usar para este escenario?");
+        question.setStemEn("Question " + id + ": which Azure service should you use for this scenario?");
+        question.setExplanation("Explanation " + id);
+        question.setExplanationEs("Explicación " + id + " con el detalle de por qué la opción correcta aplica.");
+        question.setExplanationEn("Explanation " + id + " with the details of why the correct option applies.");
+        question.setTagsJson("[\"Compute\",\"VMs\",\"Availability\"]");
+
+        for (int position = 0; position < OPTIONS_PER_QUESTION; position++) {
+            OptionItem option = new OptionItem();
+            option.setId(id * 10 + position);
+            option.setLabel(String.valueOf((char) ('A' + position)));
+            option.setText("Option " + position);
+            option.setTextEs("Opción " + position + " de la pregunta " + id);
+            option.setTextEn("Option " + position + " of question " + id);
+            option.setIsCorrect(position == 0 || (question.getQtype() == QuestionType.MULTI && position == 1));
+            question.addOption(option);
+        }
+        return question;
+    }
+
+    /**
+     * Option ids an answer to the question selects: the correct ones when correct is set, otherwise the last option
+     */
+    static List<Long> selection(Question question, boolean correct) {
+        List<Long> selected = new ArrayList<>();
+        for (OptionItem option : question.getOptions()) {
+            if (correct ? option.getIsCorrect() : option.getLabel().equals("D")) {
+                selected.add(option.getId());
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Question repository backed by the given questions
+     */
+    static QuestionRepository questionRepository(List<Question> questions) {
+        Map<Long, Question> byId = new HashMap<>();
+        for (Question question : questions) {
+            byId.put(question.getId(), question);
+        }
+        Function<Object[], Object> byIds = args -> {
+            List<Question> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) args[0]) {
+                Question question = byId.get((Long) id);
+                if (question != null) {
+                    found.add(question);
+                }
+            }
+            return found;
+        };
+
+        return stub(QuestionRepository.class, Map.of(
+            "findAllActiveWithOptions", args -> new ArrayList<>(questions),
+            "currentBankVersion", args -> 1L,
+            "findAllWithOptionsByIdIn", byIds,
+            "findAllByIdCached", byIds,
+            "findAllById", byIds,
+            "findById", args -> Optional.ofNullable(byId.get((Long) args[0]))
+        ));
+    }
+
+    /**
+     * Snapshot loaded from the given questions
+     */
+    static QuestionBankSnapshot snapshot(QuestionRepository questionRepository) {
+        QuestionBankSnapshot snapshot = new QuestionBankSnapshot(questionRepository);
+        snapshot.reload();
+        return snapshot;
+    }
+
+    /**
+     * Implementation of a repository interface that only answers the given methods (by name)
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return "Stub " + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    Function<Object[], Object> answer = methods.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package co.singularit.az104simulator.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One HdrHistogram per endpoint of the student flow, in microseconds.
+ *
+ * The endpoints are fixed up front, so the map is never modified while students record into it.
+ */
+final class EndpointLatencies {
+
+    static final String START = "POST /attempt/start";
+    static final String QUESTION = "GET /attempt/{id}/question/{i}";
+    static final String ANSWER = "POST /attempt/{id}/answer";
+    static final String REVIEW = "GET /attempt/{id}/review";
+    static final String SUBMIT = "POST /attempt/{id}/submit";
+    static final String RESULTS = "GET /attempt/{id}/results";
+    static final String HISTORY = "GET /history";
+
+    // Up to one minute with three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    EndpointLatencies() {
+        for (String endpoint : new String[]{START, QUESTION, ANSWER, REVIEW, SUBMIT, RESULTS, HISTORY}) {
+            histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+        }
+    }
+
+    void record(String endpoint, long elapsedNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS);
+        histograms.get(endpoint).recordValue(micros);
+    }
+
+    /**
+     * Histograms by endpoint, in flow order
+     */
+    Map<String, Histogram> histograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+}
@@ -0,0 +1,134 @@
+package co.singularit.az104simulator.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of one load run: throughput and latency percentiles per endpoint and SQL statement counts.
+ */
+final class LoadReport {
+
+    private static final int TOP_STATEMENTS = 15;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final int run;
+    private final Duration elapsed;
+    private final int completed;
+    private final int failed;
+    private final EndpointLatencies latencies;
+    private final Map<String, Long> statements;
+
+    LoadReport(int run, Duration elapsed, int completed, int failed,
+               EndpointLatencies latencies, Map<String, Long> statements) {
+        this.run = run;
+        this.elapsed = elapsed;
+        this.completed = completed;
+        this.failed = failed;
+        this.latencies = latencies;
+        this.statements = statements;
+    }
+
+    void print(PrintStream out) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        long totalRequests = 0;
+
+        out.printf("%nRun %d: %d students completed, %d failed in %.1f s (%.2f exams/s)%n",
+            run, completed, failed, seconds, completed / seconds);
+        out.printf("%-32s %8s %9s %9s %9s %9s %9s%n", "endpoint", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : latencies.histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getTotalCount();
+            totalRequests += count;
+            out.printf("%-32s %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                entry.getKey(),
+                count,
+                count / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(95)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getMaxValue()));
+        }
+        out.printf("%-32s %8d %9.1f%n", "all", totalRequests, totalRequests / seconds);
+
+        long totalStatements = statements.values().stream().mapToLong(Long::longValue).sum();
+        out.printf("%nSQL statements: %d total, %.1f per exam, %.2f per request, %d distinct%n",
+            totalStatements,
+            completed > 0 ? (double) totalStatements / completed : 0.0,
+            totalRequests > 0 ? (double) totalStatements / totalRequests : 0.0,
+            statements.size());
+        statements.entrySet().stream()
+            .limit(TOP_STATEMENTS)
+            .forEach(entry -> out.printf("%8d  %s%n", entry.getValue(), abbreviate(entry.getKey())));
+    }
+
+    double examsPerSecond() {
+        return completed / (elapsed.toMillis() / 1000.0);
+    }
+
+    int failed() {
+        return failed;
+    }
+
+    /**
+     * p95 of one endpoint, 0 if it recorded no requests (e.g. every student failed before it)
+     */
+    double p95Millis(String endpoint) {
+        Histogram histogram = latencies.histograms().get(endpoint);
+        return histogram != null ? millis(histogram.getValueAtPercentile(95)) : 0.0;
+    }
+
+    /**
+     * p95 over the requests of every endpoint
+     */
+    double p95Millis() {
+        Histogram all = null;
+        for (Histogram histogram : latencies.histograms().values()) {
+            if (all == null) {
+                all = histogram.copy();
+            } else {
+                all.add(histogram);
+            }
+        }
+        return all != null ? millis(all.getValueAtPercentile(95)) : 0.0;
+    }
+
+    /**
+     * Write one HdrHistogram percentile distribution (.hgrm, values in ms) per endpoint
+     */
+    void writeHistograms(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, Histogram> entry : latencies.histograms().entrySet()) {
+                Path file = directory.resolve(fileName(entry.getKey()) + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+                    entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write histograms to " + directory, e);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+    private static String fileName(String endpoint) {
+        return endpoint.toLowerCase()
+            .replaceAll("[{}]", "")
+            .replaceAll("[^a-z0-9]+", "-")
+            .replaceAll("(^-|-$)", "");
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ");
+        return singleLine.length() > 140 ? singleLine.substring(0, 137) + "..." : singleLine;
+    }
+}
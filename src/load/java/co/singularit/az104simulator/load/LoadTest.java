@@ -0,0 +1,151 @@
+package co.singularit.az104simulator.load;
+
+import co.singularit.az104simulator.Az104SimulatorApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load harness: boots the application on an in-memory H2 database and drives
+ * concurrent students, one virtual thread each, through the browser flow.
+ *
+ * Run with ./gradlew loadTest; settings are system properties passed as -Pload.*:
+ * students, questions, thinkMs (mean think time between question pages), runs, mode and
+ * threads (platform, virtual, or platform,virtual to boot once per mode and compare them).
+ * pinningDiagnostics turns on the application's pinning diagnostics for every mode, so a
+ * comparison never measures their overhead on one side only.
+ * Every run prints throughput and p50/p95/p99 per endpoint plus the SQL statements H2
+ * executed during the run, and writes the HdrHistogram percentile distributions to
+ * build/reports/load (or load.reportDir). The boot time, which includes migrations and the
+ * seed of a fresh database, is printed before the first run.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = Integer.getInteger("load.students", 50);
+        int questions = Integer.getInteger("load.questions", 20);
+        long thinkMs = Long.getLong("load.thinkMs", 500);
+        int runs = Math.max(1, Integer.getInteger("load.runs", 1));
+        String mode = System.getProperty("load.mode", "PRACTICE");
+        List<String> threadModes = List.of(System.getProperty("load.threads", "platform").split(","));
+        boolean pinningDiagnostics = Boolean.getBoolean("load.pinningDiagnostics");
+        Path reportDir = Path.of(System.getProperty("load.reportDir", "build/reports/load"));
+
+        Map<String, LoadReport> lastRuns = new LinkedHashMap<>();
+        for (String threads : threadModes) {
+            boolean virtual = switch (threads.trim()) {
+                case "platform" -> false;
+                case "virtual" -> true;
+                default -> throw new IllegalArgumentException("load.threads takes platform and/or virtual: " + threads);
+            };
+            // Each mode gets its own application and database
+            Path modeReportDir = threadModes.size() > 1 ? reportDir.resolve(threads.trim()) : reportDir;
+            lastRuns.put(threads.trim(),
+                runMode(virtual, pinningDiagnostics, students, questions, thinkMs, runs, mode, modeReportDir));
+        }
+
+        if (lastRuns.size() > 1) {
+            System.out.printf("%nRequest threads, last run of each mode:%n");
+            System.out.printf("%-10s %9s %9s %12s %12s%n", "threads", "exams/s", "failed", "start p95", "all p95");
+            lastRuns.forEach((threads, report) -> System.out.printf("%-10s %9.2f %9d %12.2f %12.2f%n",
+                threads, report.examsPerSecond(), report.failed(),
+                report.p95Millis(EndpointLatencies.START), report.p95Millis()));
+        }
+    }
+
+    private static LoadReport runMode(boolean virtualThreads, boolean pinningDiagnostics, int students,
+                                      int questions, long thinkMs, int runs, String mode, Path reportDir) {
+        // A fresh database each time, so this includes migrations and the seed
+        long bootStart = System.nanoTime();
+        ConfigurableApplicationContext context = startApplication(virtualThreads, pinningDiagnostics);
+        System.out.printf("Cold start on a fresh database: %d ms%n", (System.nanoTime() - bootStart) / 1_000_000);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            SqlStatementCounter sqlCounter = new SqlStatementCounter(
+                new JdbcTemplate(context.getBean(DataSource.class)));
+
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+            System.out.printf("Load test against %s: %d students, %d questions, %d ms think time, mode %s, %s threads%n",
+                baseUrl, students, questions, thinkMs, mode, virtualThreads ? "virtual" : "platform");
+
+            LoadReport report = null;
+            for (int run = 1; run <= runs; run++) {
+                EndpointLatencies latencies = new EndpointLatencies();
+                sqlCounter.reset();
+
+                RunResult result = runStudents(client, baseUrl, latencies, students, questions, thinkMs, mode);
+                Map<String, Long> statements = sqlCounter.statementCounts();
+
+                report = new LoadReport(run, result.elapsed(), result.completed(), result.failed(),
+                    latencies, statements);
+                report.print(System.out);
+                report.writeHistograms(reportDir.resolve("run-" + run));
+            }
+            return report;
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(boolean virtualThreads, boolean pinningDiagnostics) {
+        // Command line arguments take precedence over application.yml
+        return SpringApplication.run(Az104SimulatorApplication.class,
+            "--server.port=0",
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            // Same setting in every mode: the JFR stream has a cost of its own
+            "--app.virtual-threads.pinning-diagnostics=" + pinningDiagnostics,
+            "--spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "--spring.thymeleaf.cache=true",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.co.singularit=WARN");
+    }
+
+    private static RunResult runStudents(HttpClient client, String baseUrl, EndpointLatencies latencies,
+                                         int students, int questions, long thinkMs, String mode) {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < students; i++) {
+                StudentFlow student = new StudentFlow(client, baseUrl, latencies, questions, thinkMs, mode);
+                executor.submit(() -> {
+                    try {
+                        student.run();
+                        completed.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        System.err.println("Student failed: " + e);
+                    }
+                });
+            }
+            // close() waits for every student
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new RunResult(elapsed, completed.get(), failed.get());
+    }
+
+    private record RunResult(Duration elapsed, int completed, int failed) {
+    }
+}
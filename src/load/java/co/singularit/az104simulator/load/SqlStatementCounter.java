@@ -0,0 +1,48 @@
+package co.singularit.az104simulator.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements H2 executes, using its built-in query statistics.
+ *
+ * Unlike Hibernate statistics this also covers plain JDBC writes (e.g. the answer
+ * write-behind buffer). Statistics are per database and are switched off and on again to
+ * start a new run from zero.
+ */
+final class SqlStatementCounter {
+
+    private static final int MAX_DISTINCT_STATEMENTS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SqlStatementCounter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute("SET QUERY_STATISTICS_MAX_ENTRIES " + MAX_DISTINCT_STATEMENTS);
+    }
+
+    /**
+     * Forget the counts so far and keep counting
+     */
+    void reset() {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    /**
+     * Executions per distinct SQL text since the last reset, most frequent first
+     */
+    Map<String, Long> statementCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(
+            "SELECT SQL_STATEMENT, EXECUTION_COUNT FROM INFORMATION_SCHEMA.QUERY_STATISTICS "
+                + "WHERE SQL_STATEMENT NOT LIKE '%INFORMATION_SCHEMA.QUERY_STATISTICS%' "
+                + "ORDER BY EXECUTION_COUNT DESC",
+            rs -> {
+                counts.put(rs.getString(1), rs.getLong(2));
+            });
+        return counts;
+    }
+}
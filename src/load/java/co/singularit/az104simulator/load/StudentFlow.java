@@ -0,0 +1,130 @@
+package co.singularit.az104simulator.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated student going through the same requests the browser makes:
+ * start, every question page with an autosaved answer, review, submit, results and history.
+ *
+ * The student id cookie is set up front so every student shows up as its own history.
+ * Answers pick a random option (two for multiple-choice questions) from the rendered page.
+ */
+final class StudentFlow {
+
+    private static final Pattern QUESTION_ID = Pattern.compile("id=\"questionId\"\\s+value=\"(\\d+)\"");
+    private static final Pattern OPTION = Pattern.compile("name=\"(selectedOptions?)\"\\s+value=\"(\\d+)\"");
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final EndpointLatencies latencies;
+    private final int questions;
+    private final long thinkMs;
+    private final String mode;
+    private final String cookie = "studentId=" + UUID.randomUUID() + "; APP_LOCALE=en";
+
+    StudentFlow(HttpClient client, String baseUrl, EndpointLatencies latencies,
+                int questions, long thinkMs, String mode) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.latencies = latencies;
+        this.questions = questions;
+        this.thinkMs = thinkMs;
+        this.mode = mode;
+    }
+
+    void run() throws IOException, InterruptedException {
+        HttpResponse<String> started = send(EndpointLatencies.START, post("/attempt/start",
+            "application/x-www-form-urlencoded",
+            "mode=" + mode + "&numberOfQuestions=" + questions + "&timeLimitMinutes=100"), 302);
+        String location = started.headers().firstValue("Location")
+            .orElseThrow(() -> new IllegalStateException("No redirect after start"));
+        String attemptPath = URI.create(baseUrl).resolve(location).getPath().replaceFirst("/question/\\d+$", "");
+
+        for (int index = 0; index < questions; index++) {
+            String page = send(EndpointLatencies.QUESTION, get(attemptPath + "/question/" + index), 200).body();
+            think();
+            answer(attemptPath, page);
+        }
+
+        send(EndpointLatencies.REVIEW, get(attemptPath + "/review"), 200);
+        send(EndpointLatencies.SUBMIT, post(attemptPath + "/submit", "application/x-www-form-urlencoded", ""), 302);
+        send(EndpointLatencies.RESULTS, get(attemptPath + "/results"), 200);
+        send(EndpointLatencies.HISTORY, get("/history"), 200);
+    }
+
+    private void answer(String attemptPath, String page) throws IOException, InterruptedException {
+        Matcher questionId = QUESTION_ID.matcher(page);
+        if (!questionId.find()) {
+            throw new IllegalStateException("No question id on " + attemptPath);
+        }
+
+        List<String> options = new ArrayList<>();
+        boolean multi = false;
+        Matcher option = OPTION.matcher(page);
+        while (option.find()) {
+            multi = option.group(1).equals("selectedOptions");
+            options.add(option.group(2));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> selected = new ArrayList<>();
+        if (!options.isEmpty()) {
+            selected.add(options.remove(random.nextInt(options.size())));
+            if (multi && !options.isEmpty()) {
+                selected.add(options.get(random.nextInt(options.size())));
+            }
+        }
+
+        String body = "{\"questionId\":" + questionId.group(1)
+            + ",\"selectedOptionIds\":[" + String.join(",", selected)
+            + "],\"marked\":false}";
+        send(EndpointLatencies.ANSWER, post(attemptPath + "/answer", "application/json", body), 200);
+    }
+
+    /**
+     * Think time, uniformly distributed between half and one and a half times the mean
+     */
+    private void think() throws InterruptedException {
+        if (thinkMs > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(thinkMs / 2, thinkMs + thinkMs / 2 + 1));
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String contentType, String body) {
+        return request(path)
+            .header("Content-Type", contentType)
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Cookie", cookie);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int expectedStatus)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        latencies.record(endpoint, System.nanoTime() - start);
+
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode()
+                + " (expected " + expectedStatus + ")");
+        }
+        return response;
+    }
+}
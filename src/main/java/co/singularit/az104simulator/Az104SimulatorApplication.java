@@ -2,8 +2,10 @@ package co.singularit.az104simulator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Az104SimulatorApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,50 @@
+package co.singularit.az104simulator.config;
+
+import co.singularit.az104simulator.repository.AttemptRepository;
+import co.singularit.az104simulator.service.AttemptStateStore;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Gauges that are not owned by a single service.
+ *
+ * Connection pool gauges (hikaricp.connections.active/idle/pending/max) are bound by
+ * Spring Boot's DataSourcePoolMetricsAutoConfiguration and need nothing here.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * exam.attempts.active: incomplete attempts started within the window (older ones are
+     * abandoned) plus the practice attempts held in memory, which are not in the database yet.
+     * Evaluated on every scrape with one indexed count query.
+     */
+    @Bean
+    public MeterBinder activeAttemptsMetrics(AttemptRepository attemptRepository,
+                                             AttemptStateStore attemptStateStore,
+                                             @Value("${app.metrics.active-attempt-window-minutes:180}") long windowMinutes) {
+        Duration window = Duration.ofMinutes(windowMinutes);
+        return registry -> Gauge.builder("exam.attempts.active", () ->
+                        attemptRepository.countByIsCompletedFalseAndStartedAtAfter(LocalDateTime.now().minus(window))
+                                + attemptStateStore.size())
+                .description("Attempts started within the active window and not completed yet")
+                .register(registry);
+    }
+
+    /**
+     * exam.bank.version: bank version new sessions start on
+     */
+    @Bean
+    public MeterBinder questionBankMetrics(QuestionBankSnapshot questionBankSnapshot) {
+        return registry -> Gauge.builder("exam.bank.version", questionBankSnapshot, QuestionBankSnapshot::bankVersion)
+                .description("Current question bank version")
+                .register(registry);
+    }
+}
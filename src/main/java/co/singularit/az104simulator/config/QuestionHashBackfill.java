@@ -0,0 +1,87 @@
+package co.singularit.az104simulator.config;
+
+import co.singularit.az104simulator.service.QuestionContentHash;
+import co.singularit.az104simulator.service.QuestionContentHash.OptionText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the content hash of questions stored before V13 added the column, so imports can
+ * match them. Rows without a hash are read and updated over JDBC a page at a time, each page
+ * in its own transaction; it does nothing once every question has a hash.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionHashBackfill implements CommandLineRunner {
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final String QUESTION_PAGE_SQL =
+            "SELECT id, qtype, stem, stem_es, stem_en FROM question " +
+            "WHERE content_hash IS NULL ORDER BY id LIMIT ?";
+
+    private static final String OPTION_RANGE_SQL =
+            "SELECT question_id, label, text, text_es, text_en, is_correct " +
+            "FROM option_item WHERE question_id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long hashed = 0;
+        Integer page;
+        while ((page = transaction.execute(status -> backfillPage())) != null && page > 0) {
+            hashed += page;
+        }
+        if (hashed > 0) {
+            log.info("Computed content hashes of {} questions", hashed);
+        }
+    }
+
+    /**
+     * Hash the first page of questions without a hash
+     *
+     * @return number of questions hashed, 0 once there are none left
+     */
+    private int backfillPage() {
+        List<Object[]> questions = jdbcTemplate.query(QUESTION_PAGE_SQL, (rs, rowNum) -> new Object[]{
+                rs.getLong("id"), rs.getString("qtype"), rs.getString("stem"),
+                rs.getString("stem_es"), rs.getString("stem_en")
+        }, PAGE_SIZE);
+        if (questions.isEmpty()) {
+            return 0;
+        }
+
+        long firstId = (Long) questions.get(0)[0];
+        long lastId = (Long) questions.get(questions.size() - 1)[0];
+        Map<Long, List<OptionText>> options = new HashMap<>();
+        jdbcTemplate.query(OPTION_RANGE_SQL, (ResultSet rs) -> {
+            options.computeIfAbsent(rs.getLong("question_id"), id -> new ArrayList<>())
+                    .add(new OptionText(rs.getString("label"), rs.getString("text"),
+                            rs.getString("text_es"), rs.getString("text_en"), rs.getBoolean("is_correct")));
+        }, firstId, lastId);
+
+        List<Object[]> hashes = new ArrayList<>(questions.size());
+        for (Object[] question : questions) {
+            String hash = QuestionContentHash.of((String) question[1], (String) question[2],
+                    (String) question[3], (String) question[4], options.getOrDefault((Long) question[0], List.of()));
+            hashes.add(new Object[]{hash, question[0]});
+        }
+        jdbcTemplate.batchUpdate("UPDATE question SET content_hash = ? WHERE id = ?", hashes);
+        return questions.size();
+    }
+}
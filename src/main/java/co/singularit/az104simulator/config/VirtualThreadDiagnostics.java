@@ -0,0 +1,148 @@
+package co.singularit.az104simulator.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup checks and pinning diagnostics for the virtual-thread mode (spring.threads.virtual.enabled).
+ *
+ * In that mode Tomcat runs every request on its own virtual thread, and so does the
+ * applicationTaskExecutor behind @Async and async MVC. A virtual thread that blocks inside a
+ * synchronized block or method stays mounted on its carrier (pinned), and enough of them stall
+ * every request. With app.virtual-threads.pinning-diagnostics enabled a JFR stream records
+ * jdk.VirtualThreadPinned events above the threshold. Each event is counted in the
+ * jvm.threads.virtual.pinned timer, tagged with whether the stack was in the JDBC path
+ * (java.sql, H2, Hikari, Hibernate) and the first application frame. The first event at each
+ * site is logged with its stack.
+ */
+@Component
+@Slf4j
+public class VirtualThreadDiagnostics {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final List<String> JDBC_PACKAGES = List.of(
+            "java.sql.", "javax.sql.", "org.h2.", "com.zaxxer.hikari.", "org.hibernate.", "org.springframework.jdbc.");
+
+    private static final String APPLICATION_PACKAGE = "co.singularit.az104simulator.";
+
+    private final boolean virtualThreads;
+    private final boolean pinningDiagnostics;
+    private final Duration threshold;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recording;
+
+    public VirtualThreadDiagnostics(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                    @Value("${app.virtual-threads.pinning-diagnostics:false}") boolean pinningDiagnostics,
+                                    @Value("${app.virtual-threads.pinning-threshold-ms:20}") long thresholdMs,
+                                    DataSource dataSource,
+                                    MeterRegistry meterRegistry) {
+        this.virtualThreads = virtualThreads;
+        this.pinningDiagnostics = pinningDiagnostics;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        checkMode();
+        if (pinningDiagnostics) {
+            startRecording();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void checkMode() {
+        if (!virtualThreads) {
+            log.info("Request threads: platform (Tomcat pool)");
+            return;
+        }
+        log.info("Request threads: virtual (Tomcat, @Async and async MVC on virtual threads)");
+
+        // Requests are no longer capped by the Tomcat pool; the connection pool caps JDBC work instead
+        if (dataSource instanceof HikariDataSource hikari) {
+            log.info("Virtual threads share {} pooled connections; requests beyond that wait up to {} ms for one",
+                     hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+        }
+        if (!pinningDiagnostics) {
+            log.info("Set app.virtual-threads.pinning-diagnostics=true to report carrier pinning");
+        }
+    }
+
+    private void startRecording() {
+        try {
+            recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            log.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR may be unavailable (e.g. a JVM built without it); the application runs regardless
+            log.warn("Pinning diagnostics unavailable: {}", e.getMessage());
+            recording = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+
+        boolean jdbc = false;
+        String site = "unknown";
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            jdbc |= JDBC_PACKAGES.stream().anyMatch(type::startsWith);
+            if ("unknown".equals(site) && type.startsWith(APPLICATION_PACKAGE)) {
+                site = type.substring(APPLICATION_PACKAGE.length()) + "." + frame.getMethod().getName();
+            }
+        }
+
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .tag("path", jdbc ? "jdbc" : "other")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (reportedSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(15).forEach(frame -> stack.append("\n\tat ")
+                    .append(frame.getMethod() != null
+                            ? frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            : "?")
+                    .append(':').append(frame.getLineNumber()));
+            log.warn("Virtual thread pinned for {} ms at {} ({} path); further pins here are only counted{}",
+                     event.getDuration().toMillis(), site, jdbc ? "JDBC" : "non-JDBC", stack);
+        }
+    }
+}
@@ -1,23 +1,23 @@
 package co.singularit.az104simulator.controller;
 
-import co.singularit.az104simulator.domain.OptionItem;
-import co.singularit.az104simulator.domain.Question;
-import co.singularit.az104simulator.repository.QuestionRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import co.singularit.az104simulator.dto.ImportProgressDto;
+import co.singularit.az104simulator.service.QuestionExportService;
+import co.singularit.az104simulator.service.QuestionImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Map;
 
 @Controller
@@ -26,110 +26,73 @@ import java.util.Map;
 @Slf4j
 public class AdminController {
 
-    private final QuestionRepository questionRepository;
-    private final ObjectMapper objectMapper;
+    private final QuestionExportService questionExportService;
+    private final QuestionImportService questionImportService;
 
+    /**
+     * Download the question bank, streamed page by page; ?gzip=true compresses it on the fly
+     */
     @GetMapping("/export")
-    public ResponseEntity<String> exportQuestions() {
-        try {
-            List<Question> questions = questionRepository.findAll();
-            List<Map<String, Object>> exportData = new ArrayList<>();
-
-            for (Question q : questions) {
-                Map<String, Object> questionData = new HashMap<>();
-                questionData.put("domain", q.getDomain().name());
-                questionData.put("difficulty", q.getDifficulty().name());
-                questionData.put("qtype", q.getQtype().name());
-                questionData.put("stem", q.getStem());
-                questionData.put("explanation", q.getExplanation());
-
-                // Parse tags
-                if (q.getTagsJson() != null) {
-                    List<String> tags = objectMapper.readValue(q.getTagsJson(), new TypeReference<List<String>>() {});
-                    questionData.put("tags", tags);
-                } else {
-                    questionData.put("tags", new ArrayList<>());
-                }
-
-                // Convert options
-                List<Map<String, Object>> optionsData = new ArrayList<>();
-                for (OptionItem opt : q.getOptions()) {
-                    Map<String, Object> optionData = new HashMap<>();
-                    optionData.put("label", opt.getLabel());
-                    optionData.put("text", opt.getText());
-                    optionData.put("isCorrect", opt.getIsCorrect());
-                    optionsData.add(optionData);
-                }
-                questionData.put("options", optionsData);
-
-                exportData.add(questionData);
-            }
-
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(exportData);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=questions.json")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(json);
-
-        } catch (Exception e) {
-            log.error("Error exporting questions", e);
-            return ResponseEntity.internalServerError().body("{\"error\": \"Failed to export questions\"}");
-        }
+    public ResponseEntity<StreamingResponseBody> exportQuestions(
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> questionExportService.export(out, gzip);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=" + (gzip ? "questions.json.gz" : "questions.json"))
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
+    /**
+     * Start a background import of a question file (JSON array, optionally gzip-compressed).
+     * The file is diffed against the bank by content hash: ?mode=sync (default) treats it as the
+     * whole bank and soft-deletes questions it no longer has, ?mode=append only inserts and updates.
+     * ?staged=true loads the file into shadow tables first and swaps it in at the end.
+     * Poll the returned statusUrl for progress.
+     */
     @PostMapping("/import")
-    @Transactional
-    public ResponseEntity<Map<String, Object>> importQuestions(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> importQuestions(@RequestParam("file") MultipartFile file,
+                                                               @RequestParam(defaultValue = "sync") String mode,
+                                                               @RequestParam(defaultValue = "false") boolean staged) {
         try {
-            // Delete existing questions
-            questionRepository.deleteAll();
-
-            // Parse JSON
-            List<Map<String, Object>> questionsData = objectMapper.readValue(
-                    file.getInputStream(),
-                    new TypeReference<List<Map<String, Object>>>() {}
-            );
-
-            // Import questions
-            for (Map<String, Object> questionData : questionsData) {
-                Question question = new Question();
-                question.setDomain(co.singularit.az104simulator.domain.Domain.valueOf((String) questionData.get("domain")));
-                question.setDifficulty(co.singularit.az104simulator.domain.Difficulty.valueOf((String) questionData.get("difficulty")));
-                question.setQtype(co.singularit.az104simulator.domain.QuestionType.valueOf((String) questionData.get("qtype")));
-                question.setStem((String) questionData.get("stem"));
-                question.setExplanation((String) questionData.get("explanation"));
+            QuestionImportService.Mode importMode = QuestionImportService.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
 
-                @SuppressWarnings("unchecked")
-                List<String> tags = (List<String>) questionData.get("tags");
-                question.setTagsJson(objectMapper.writeValueAsString(tags));
+            // The multipart upload is gone once this request ends; the import works on its own copy
+            Path upload = Files.createTempFile("question-import-", ".json");
+            file.transferTo(upload);
 
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> optionsData = (List<Map<String, Object>>) questionData.get("options");
+            ImportProgressDto progress = questionImportService.start(upload, file.getOriginalFilename(), importMode, staged);
+            String statusUrl = "/admin/import/" + progress.getJobId();
 
-                for (Map<String, Object> optionData : optionsData) {
-                    OptionItem option = new OptionItem();
-                    option.setLabel((String) optionData.get("label"));
-                    option.setText((String) optionData.get("text"));
-                    option.setIsCorrect((Boolean) optionData.get("isCorrect"));
-                    question.addOption(option);
-                }
+            return ResponseEntity.accepted()
+                    .location(URI.create(statusUrl))
+                    .body(Map.of(
+                            "success", true,
+                            "jobId", progress.getJobId(),
+                            "statusUrl", statusUrl
+                    ));
 
-                questionRepository.save(question);
-            }
-
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Imported " + questionsData.size() + " questions",
-                    "count", questionsData.size()
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "error", e.getMessage()
             ));
-
         } catch (Exception e) {
-            log.error("Error importing questions", e);
+            log.error("Error starting question import", e);
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "error", e.getMessage()
             ));
         }
     }
+
+    /**
+     * Progress of an import: bytes read, questions imported and rejected, final state
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportProgressDto> importProgress(@PathVariable String jobId) {
+        ImportProgressDto progress = questionImportService.progress(jobId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
 }
@@ -5,6 +5,7 @@ import co.singularit.az104simulator.domain.Domain;
 import co.singularit.az104simulator.domain.ExamMode;
 import co.singularit.az104simulator.dto.*;
 import co.singularit.az104simulator.service.AttemptService;
+import co.singularit.az104simulator.service.AttemptViewService;
 import co.singularit.az104simulator.service.StudentIdentityService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/attempt")
@@ -26,6 +28,7 @@ import java.util.Map;
 public class ExamController {
 
     private final AttemptService attemptService;
+    private final AttemptViewService attemptViewService;
     private final StudentIdentityService studentIdentityService;
 
     @PostMapping("/start")
@@ -57,41 +60,24 @@ public class ExamController {
             @PathVariable int index,
             Model model) {
 
-        Attempt attempt = attemptService.getAttempt(attemptId);
-        ExamConfigDto config = attemptService.getAttemptConfig(attemptId);
-
-        if (index < 0 || index >= attempt.getTotalQuestions()) {
-            return "redirect:/attempt/" + attemptId + "/question/0";
-        }
-
         // Get current locale for i18n
         Locale locale = LocaleContextHolder.getLocale();
         String lang = locale.getLanguage();
 
-        QuestionDto question = attemptService.getQuestionForAttempt(attemptId, index, attempt.getMode(), lang);
-        Map<String, Object> status = attemptService.getAttemptStatus(attemptId);
-        List<String> questionStates = attemptService.getQuestionStates(attemptId);
-
-        // Calculate remaining time for EXAM mode
-        if (attempt.getMode() == ExamMode.EXAM && config.getTimeLimitMinutes() != null) {
-            long elapsedSeconds = java.time.Duration.between(
-                attempt.getStartedAt(),
-                java.time.LocalDateTime.now()
-            ).getSeconds();
-
-            long totalSeconds = config.getTimeLimitMinutes() * 60L;
-            long remainingSeconds = Math.max(0, totalSeconds - elapsedSeconds);
+        Optional<AttemptView> view = attemptViewService.getView(attemptId, index, lang);
+        if (view.isEmpty()) {
+            return "redirect:/attempt/" + attemptId + "/question/0";
+        }
 
-            model.addAttribute("remainingSeconds", remainingSeconds);
-            log.debug("Attempt {} - Elapsed: {}s, Remaining: {}s", attemptId, elapsedSeconds, remainingSeconds);
+        AttemptView attempt = view.get();
+        if (attempt.getRemainingSeconds() != null) {
+            model.addAttribute("remainingSeconds", attempt.getRemainingSeconds());
         }
 
         model.addAttribute("attempt", attempt);
-        model.addAttribute("question", question);
+        model.addAttribute("question", attempt.getQuestion());
         model.addAttribute("currentIndex", index);
-        model.addAttribute("status", status);
-        model.addAttribute("config", config);
-        model.addAttribute("questionStates", questionStates);
+        model.addAttribute("questionStates", attempt.getQuestionStates());
 
         return "exam";
     }
@@ -131,6 +117,9 @@ public class ExamController {
         log.info("REVIEW PAGE ACCESSED - attemptId={}, timestamp={}",
             attemptId, java.time.LocalDateTime.now());
 
+        // The review counts are read from the database
+        attemptService.flushPendingAnswers(attemptId);
+
         Attempt attempt = attemptService.getAttempt(attemptId);
         Map<String, Object> status = attemptService.getAttemptStatus(attemptId);
         List<Long> questionIds = attemptService.getQuestionIds(attemptId);
@@ -0,0 +1,165 @@
+package co.singularit.az104simulator.controller;
+
+import co.singularit.az104simulator.dto.*;
+import co.singularit.az104simulator.service.PracticeSessionService;
+import co.singularit.az104simulator.service.PracticeTokenCodec;
+import co.singularit.az104simulator.service.StudentIdentityService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for stateless practice runs
+ * The run lives in a signed token held by the client; nothing is stored until it is finished with save=true
+ */
+@RestController
+@RequestMapping("/api/practice")
+@RequiredArgsConstructor
+@Slf4j
+public class PracticeController {
+
+    private static final String TOKEN_HEADER = "X-Practice-Token";
+
+    private final PracticeSessionService practiceSessionService;
+    private final StudentIdentityService studentIdentityService;
+
+    /**
+     * Start a stateless practice run
+     *
+     * POST /api/practice/start
+     *
+     * Request body: same as POST /api/exams/start (mode is ignored)
+     *
+     * Response:
+     * {
+     *   "token": "AQAAAAB...",
+     *   "totalQuestions": 20,
+     *   "locale": "es"
+     * }
+     *
+     * Error responses:
+     * - 409 CONFLICT: Not enough unique questions available
+     * - 400 BAD_REQUEST: Invalid request parameters (locale other than es/en, more than 1000 questions)
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestBody SessionStartRequestDto request) {
+        if (request.getTotalQuestions() == null || request.getTotalQuestions() <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Total questions must be positive"));
+        }
+        if (request.getTotalQuestions() > PracticeTokenCodec.MAX_QUESTIONS) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                "Total questions must be at most " + PracticeTokenCodec.MAX_QUESTIONS));
+        }
+        if (request.getSelectedDomains() == null || request.getSelectedDomains().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At least one domain must be selected"));
+        }
+
+        String locale = request.getLocale() != null ? request.getLocale() : "es";
+        if (!PracticeSessionService.isSupportedLocale(locale)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Locale must be es or en"));
+        }
+
+        try {
+            String token = practiceSessionService.start(
+                request.getTotalQuestions(),
+                locale,
+                request.getSelectedDomains(),
+                request.getDomainPercentages()
+            );
+
+            return ResponseEntity.ok(PracticeStartResponseDto.builder()
+                .token(token)
+                .totalQuestions(request.getTotalQuestions())
+                .locale(locale)
+                .build());
+
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to start practice run: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get a question of the run, including its correct answers
+     *
+     * GET /api/practice/questions/{position}
+     * Header: X-Practice-Token
+     *
+     * Error responses:
+     * - 400 BAD_REQUEST: Invalid or expired token
+     * - 404 NOT_FOUND: Position outside the run
+     * - 409 CONFLICT: A question of the run changed since it started
+     */
+    @GetMapping("/questions/{position}")
+    public ResponseEntity<?> getQuestion(
+        @RequestHeader(TOKEN_HEADER) String token,
+        @PathVariable Integer position
+    ) {
+        try {
+            String lang = LocaleContextHolder.getLocale().getLanguage();
+            QuestionDto question = practiceSessionService.getQuestion(token, position, lang);
+
+            if (question == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Question not found at position " + position));
+            }
+            return ResponseEntity.ok(question);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Score the run and optionally save it to the student's history
+     *
+     * POST /api/practice/finish
+     *
+     * Request body:
+     * {
+     *   "token": "AQAAAAB...",
+     *   "answers": [{ "questionId": 123, "selectedOptionIds": [1, 2], "marked": false }],
+     *   "save": true
+     * }
+     *
+     * Error responses:
+     * - 400 BAD_REQUEST: Invalid token or answers
+     * - 409 CONFLICT: A question of the run changed since it started, or the run was already saved
+     */
+    @PostMapping("/finish")
+    public ResponseEntity<?> finish(
+        @RequestBody PracticeFinishRequestDto request,
+        HttpServletRequest httpRequest,
+        HttpServletResponse httpResponse
+    ) {
+        try {
+            // Only a saved run needs a student id; anonymous runs do not get a cookie
+            String studentId = request.isSave()
+                ? studentIdentityService.getOrCreateStudentId(httpRequest, httpResponse)
+                : null;
+
+            ResultDto result = practiceSessionService.finish(
+                request.getToken(),
+                request.getAnswers(),
+                request.isSave(),
+                studentId
+            );
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package co.singularit.az104simulator.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,7 +15,7 @@ import java.util.UUID;
 @Table(name = "attempt")
 @Getter
 @Setter
-public class Attempt {
+public class Attempt implements Persistable<String> {
 
     @Id
     @Column(length = 36)
@@ -47,6 +49,24 @@ public class Attempt {
     @Column(name = "score_percentage")
     private Integer scorePercentage;
 
+    @Column(name = "correct_count")
+    private Integer correctCount;
+
+    @Column(name = "incorrect_count")
+    private Integer incorrectCount;
+
+    @Column(name = "unanswered_count")
+    private Integer unansweredCount;
+
+    @Column(name = "marked_count")
+    private Integer markedCount;
+
+    @Column(length = 10)
+    private String locale;
+
+    @Column(name = "domain_summary_json", columnDefinition = "TEXT")
+    private String domainSummaryJson;
+
     @OneToMany(mappedBy = "attempt", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("position ASC")
     private List<AttemptAnswer> answers = new ArrayList<>();
@@ -57,6 +77,14 @@ public class Attempt {
     @Column(name = "is_completed")
     private Boolean isCompleted = false;
 
+    /**
+     * The id is assigned up front, so without this flag save() would merge (SELECT, then INSERT)
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
     @PrePersist
     public void prePersist() {
         if (startedAt == null) {
@@ -64,6 +92,25 @@ public class Attempt {
         }
     }
 
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        newEntity = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    /**
+     * Whether the summary counters were stored at completion time
+     */
+    public boolean hasSummaryCounters() {
+        return correctCount != null && incorrectCount != null
+                && unansweredCount != null && markedCount != null;
+    }
+
     public void addAnswer(AttemptAnswer answer) {
         answers.add(answer);
         answer.setAttempt(this);
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class AttemptAnswer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attempt_answer_seq")
+    @SequenceGenerator(name = "attempt_answer_seq", sequenceName = "attempt_answer_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,12 +29,21 @@ public class AttemptAnswer {
     @Column(nullable = false)
     private Integer position;
 
-    @Column(name = "selected_option_ids_json", columnDefinition = "TEXT")
-    private String selectedOptionIdsJson;
+    /**
+     * Selected options as a bitmask over the question's options in ascending id order.
+     * 0 means unanswered and is stored as NULL.
+     */
+    @Column(name = "selected_option_mask")
+    @Convert(converter = SelectionMaskConverter.class)
+    private long selectedOptionMask;
 
     @Column(nullable = false)
     private Boolean marked = false;
 
     @Column(name = "answered_at")
     private LocalDateTime answeredAt;
+
+    public boolean isAnswered() {
+        return selectedOptionMask != 0L;
+    }
 }
@@ -2,6 +2,7 @@ package co.singularit.az104simulator.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,7 +15,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class ExamSession {
+public class ExamSession implements Persistable<String> {
 
     @Id
     @Column(length = 36)
@@ -39,15 +40,48 @@ public class ExamSession {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    /**
+     * Question bank version the session's questions were sampled from
+     */
+    @Column(name = "bank_version")
+    private Long bankVersion;
+
+    /**
+     * Ordered question ids packed as 8-byte big-endian values (app.session.storage=packed);
+     * null when the questions are stored as exam_session_question rows
+     */
+    @Column(name = "question_ids")
+    private byte[] questionIds;
+
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("position ASC")
     @Builder.Default
     private List<ExamSessionQuestion> questions = new ArrayList<>();
 
+    /**
+     * The id is assigned up front, so without this flag save() would merge (SELECT, then INSERT)
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private boolean newEntity = true;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
     }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        newEntity = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
 }
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class ExamSessionQuestion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_session_question_seq")
+    @SequenceGenerator(name = "exam_session_question_seq", sequenceName = "exam_session_question_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -3,18 +3,30 @@ package co.singularit.az104simulator.domain;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "question")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = Question.CACHE_REGION)
 @Getter
 @Setter
 public class Question {
 
+    /**
+     * Second-level cache region shared by questions, options and the options collection.
+     * The bank only changes on admin import, which evicts the whole region.
+     */
+    public static final String CACHE_REGION = "question-bank";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -50,7 +62,20 @@ public class Question {
     @Column(name = "tags_json", columnDefinition = "TEXT")
     private String tagsJson;
 
+    /**
+     * SHA-256 of the normalized stem, options and answer key, see QuestionContentHash
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /**
+     * Set when a sync import dropped the question; it is then kept only for existing sessions and attempts
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = Question.CACHE_REGION)
     private List<OptionItem> options = new ArrayList<>();
 
     public void addOption(OptionItem option) {
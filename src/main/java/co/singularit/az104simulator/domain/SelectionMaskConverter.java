@@ -0,0 +1,22 @@
+package co.singularit.az104simulator.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps an empty selection (mask 0) to NULL so unanswered rows keep a NULL column,
+ * while the entity works with a primitive long.
+ */
+@Converter
+public class SelectionMaskConverter implements AttributeConverter<Long, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Long mask) {
+        return mask == null || mask == 0L ? null : mask;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(Long column) {
+        return column == null ? 0L : column;
+    }
+}
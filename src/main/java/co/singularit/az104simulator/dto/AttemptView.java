@@ -0,0 +1,36 @@
+package co.singularit.az104simulator.dto;
+
+import co.singularit.az104simulator.domain.ExamMode;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the exam page renders for one question of an attempt.
+ * Built by AttemptViewService from one attempt read and one answers read.
+ */
+@Value
+@Builder
+public class AttemptView {
+    String id;
+    ExamMode mode;
+    int totalQuestions;
+    LocalDateTime startedAt;
+    Integer timeLimitMinutes;
+    boolean showExplanationsImmediately;
+
+    int currentIndex;
+    /** Fresh copy owned by this view, with the student's selection applied */
+    QuestionDto question;
+
+    long answeredCount;
+    long markedCount;
+    long unansweredCount;
+    /** CSS state per position, see AttemptService#getQuestionStates */
+    List<String> questionStates;
+
+    /** Seconds left in EXAM mode with a time limit, otherwise null */
+    Long remainingSeconds;
+}
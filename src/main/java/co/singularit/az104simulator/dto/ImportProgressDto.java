@@ -0,0 +1,103 @@
+package co.singularit.az104simulator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportProgressDto {
+
+    private String jobId;
+
+    /**
+     * RUNNING, COMPLETED or FAILED
+     */
+    private String state;
+
+    private String fileName;
+
+    /**
+     * SYNC or APPEND
+     */
+    private String mode;
+
+    /**
+     * Whether the file is loaded into the staging tables and swapped in at the end
+     */
+    private Boolean staged;
+
+    /**
+     * Step of a staged import: LOADING, INDEXING, SWAPPING, SWAPPED
+     */
+    private String phase;
+
+    /**
+     * Bytes of the uploaded file read so far, and its size
+     */
+    private Long bytesRead;
+
+    private Long totalBytes;
+
+    private Integer percent;
+
+    private Long questionsRead;
+
+    /**
+     * New questions inserted, with their options
+     */
+    private Long questionsImported;
+
+    private Long optionsImported;
+
+    /**
+     * Questions matched by content hash whose metadata changed or that were restored
+     */
+    private Long questionsUpdated;
+
+    private Long questionsUnchanged;
+
+    /**
+     * Questions skipped because an earlier question of the file has the same content
+     */
+    private Long questionsDuplicate;
+
+    /**
+     * Active questions soft-deleted because a SYNC file no longer contains them
+     */
+    private Long questionsDeleted;
+
+    /**
+     * True when a SYNC import rejected questions and therefore deleted nothing
+     */
+    private Boolean deletesSkipped;
+
+    /**
+     * Rows written to the staging tables so far (staged imports only)
+     */
+    private Long questionsStaged;
+
+    /**
+     * Bank version published by this import, once its changes are committed
+     */
+    private Long bankVersion;
+
+    private Long questionsRejected;
+
+    /**
+     * First rejections, as "#position: reason"
+     */
+    private List<String> rejections;
+
+    private String error;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
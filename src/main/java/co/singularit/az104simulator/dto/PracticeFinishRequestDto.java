@@ -0,0 +1,26 @@
+package co.singularit.az104simulator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PracticeFinishRequestDto {
+
+    private String token;
+
+    @Builder.Default
+    private List<AnswerSubmissionDto> answers = new ArrayList<>();
+
+    /**
+     * Store the run in the student's history
+     */
+    private boolean save;
+}
@@ -0,0 +1,22 @@
+package co.singularit.az104simulator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PracticeStartResponseDto {
+
+    /**
+     * Signed token carrying the run; sent back with every practice request
+     */
+    private String token;
+
+    private Integer totalQuestions;
+
+    private String locale;
+}
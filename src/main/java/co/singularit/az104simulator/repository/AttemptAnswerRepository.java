@@ -2,9 +2,12 @@ package co.singularit.az104simulator.repository;
 
 import co.singularit.az104simulator.domain.Attempt;
 import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.domain.ExamMode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +18,48 @@ public interface AttemptAnswerRepository extends JpaRepository<AttemptAnswer, Lo
 
     List<AttemptAnswer> findByAttemptOrderByPositionAsc(Attempt attempt);
 
+    /**
+     * Ordered answers of an attempt by its id, so they can be read without loading the attempt first
+     */
+    List<AttemptAnswer> findByAttemptIdOrderByPositionAsc(String attemptId);
+
+    /**
+     * Question at a position of an attempt and the attempt's mode, from the (attempt_id, position) index
+     */
+    @Query("SELECT a.questionId AS questionId, a.attempt.mode AS mode " +
+           "FROM AttemptAnswer a WHERE a.attempt.id = :attemptId AND a.position = :position")
+    Optional<QuestionSlotView> findQuestionSlot(String attemptId, int position);
+
     Optional<AttemptAnswer> findByAttemptAndQuestionId(Attempt attempt, Long questionId);
 
-    long countByAttemptAndSelectedOptionIdsJsonIsNotNull(Attempt attempt);
+    long countByAttemptAndSelectedOptionMaskIsNotNull(Attempt attempt);
 
     long countByAttemptAndMarkedTrue(Attempt attempt);
+
+    /**
+     * Answer state of several attempts in one query, without loading the entities
+     */
+    @Query("SELECT a.attempt.id AS attemptId, a.questionId AS questionId, " +
+           "a.selectedOptionMask AS selectedOptionMask, a.marked AS marked " +
+           "FROM AttemptAnswer a WHERE a.attempt.id IN :attemptIds")
+    List<AnswerStateView> findAnswerStatesByAttemptIdIn(Collection<String> attemptIds);
+
+    interface AnswerStateView {
+        String getAttemptId();
+
+        Long getQuestionId();
+
+        /**
+         * Selection bitmask; 0 or null when unanswered
+         */
+        Long getSelectedOptionMask();
+
+        Boolean getMarked();
+    }
+
+    interface QuestionSlotView {
+        Long getQuestionId();
+
+        ExamMode getMode();
+    }
 }
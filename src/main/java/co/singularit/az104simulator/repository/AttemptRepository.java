@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,4 +19,6 @@ public interface AttemptRepository extends JpaRepository<Attempt, String> {
     List<Attempt> findByStudentIdAndIsCompletedTrue(String studentId, Pageable pageable);
 
     List<Attempt> findByStudentIdAndModeAndIsCompletedTrue(String studentId, ExamMode mode, Pageable pageable);
+
+    long countByIsCompletedFalseAndStartedAtAfter(LocalDateTime startedAfter);
 }
@@ -3,14 +3,18 @@ package co.singularit.az104simulator.repository;
 import co.singularit.az104simulator.domain.Difficulty;
 import co.singularit.az104simulator.domain.Domain;
 import co.singularit.az104simulator.domain.Question;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface QuestionRepository extends JpaRepository<Question, Long> {
+public interface QuestionRepository extends JpaRepository<Question, Long>, QuestionRepositoryCustom {
 
     List<Question> findByDomain(Domain domain);
 
@@ -24,9 +28,22 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT q FROM Question q WHERE q.domain IN :domains AND q.difficulty = :difficulty")
     List<Question> findByDomainInAndDifficulty(List<Domain> domains, Difficulty difficulty);
 
-    @Query("SELECT COUNT(q) FROM Question q")
+    // Questions a new exam may use: soft-deleted ones are only kept for existing sessions
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.deletedAt IS NULL")
+    List<Question> findAllActiveWithOptions();
+
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.id IN :ids")
+    List<Question> findAllWithOptionsByIdIn(Collection<Long> ids);
+
+    @Query(value = "SELECT version FROM question_bank_state WHERE id = 1", nativeQuery = true)
+    long currentBankVersion();
+
+    // Counts are served from the query cache until the question table changes
+    @Query("SELECT COUNT(q) FROM Question q WHERE q.deletedAt IS NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countAll();
 
-    @Query("SELECT COUNT(q) FROM Question q WHERE q.domain = :domain")
+    @Query("SELECT COUNT(q) FROM Question q WHERE q.domain = :domain AND q.deletedAt IS NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countByDomain(Domain domain);
 }
@@ -0,0 +1,17 @@
+package co.singularit.az104simulator.repository;
+
+import co.singularit.az104simulator.domain.Question;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface QuestionRepositoryCustom {
+
+    /**
+     * Load questions by id, taking those in the second-level cache from memory and only
+     * querying the rest. Unlike findAllById, which always runs an IN query.
+     *
+     * @return the existing questions, in the order of the ids
+     */
+    List<Question> findAllByIdCached(Collection<Long> ids);
+}
@@ -0,0 +1,245 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.Question;
+
+import java.util.*;
+
+/**
+ * Compact, immutable answer keys for a set of questions.
+ *
+ * Each question's options are numbered by ascending option id, and both the answer key
+ * and a submission are expressed as a bitmask over those positions. Scoring an answer is
+ * then a single long comparison, with no boxing, sorting or per-answer collections.
+ *
+ * Questions are addressed by their index, found with a binary search over the sorted ids.
+ */
+public final class AnswerKeyIndex {
+
+    /**
+     * Selection mask of a submission that contains an option not belonging to the question
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * Bit 63 is reserved for {@link #INVALID}
+     */
+    public static final int MAX_OPTIONS = 63;
+
+    private static final Domain[] DOMAINS = Domain.values();
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private final long[] questionIds;
+    private final int[] optionOffsets;
+    private final long[] optionIds;
+    private final long[] correctMasks;
+    private final byte[] domains;
+    private final long fingerprint;
+
+    private AnswerKeyIndex(List<QuestionBankSnapshot.QuestionEntry> entries) {
+        int size = entries.size();
+        int optionCount = 0;
+        for (QuestionBankSnapshot.QuestionEntry entry : entries) {
+            if (entry.options().size() > MAX_OPTIONS) {
+                throw new IllegalArgumentException("Question " + entry.id() + " has more than " + MAX_OPTIONS + " options");
+            }
+            optionCount += entry.options().size();
+        }
+
+        questionIds = new long[size];
+        optionOffsets = new int[size + 1];
+        optionIds = new long[optionCount];
+        correctMasks = new long[size];
+        domains = new byte[size];
+
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            QuestionBankSnapshot.QuestionEntry entry = entries.get(i);
+            questionIds[i] = entry.id();
+            domains[i] = (byte) entry.domain().ordinal();
+            optionOffsets[i] = offset;
+
+            // Options are already ordered by id
+            long mask = 0L;
+            List<QuestionBankSnapshot.OptionEntry> options = entry.options();
+            for (int position = 0; position < options.size(); position++) {
+                QuestionBankSnapshot.OptionEntry option = options.get(position);
+                optionIds[offset + position] = option.id();
+                if (option.correct()) {
+                    mask |= 1L << position;
+                }
+            }
+            correctMasks[i] = mask;
+            offset += options.size();
+        }
+        optionOffsets[size] = offset;
+        fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Build the index for snapshot entries
+     */
+    public static AnswerKeyIndex of(Collection<QuestionBankSnapshot.QuestionEntry> entries) {
+        List<QuestionBankSnapshot.QuestionEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(QuestionBankSnapshot.QuestionEntry::id));
+        return new AnswerKeyIndex(sorted);
+    }
+
+    /**
+     * Build the index for loaded question entities; options must be initialized
+     */
+    public static AnswerKeyIndex ofQuestions(Collection<Question> questions) {
+        return of(questions.stream().map(QuestionBankSnapshot.QuestionEntry::of).toList());
+    }
+
+    /**
+     * 64-bit hash of every question id, option id and answer key. Two indexes with the same
+     * fingerprint score identically, so it serves as a version of the bank across restarts.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 64-bit hash of the answer keys of the given questions, in the given order. Unlike
+     * {@link #fingerprint()} it only changes when one of these questions changes or is not
+     * in this index any more, not when other questions of the bank do.
+     */
+    public long fingerprint(long[] questionIds) {
+        long hash = FNV_OFFSET_BASIS;
+        for (long questionId : questionIds) {
+            hash = mix(hash, questionId);
+            int index = indexOf(questionId);
+            if (index < 0) {
+                // No answer key has bit 63 set
+                hash = mix(hash, INVALID);
+                continue;
+            }
+            hash = mix(hash, correctMasks[index]);
+            hash = mix(hash, optionCount(index));
+            for (int i = optionOffsets[index], end = optionOffsets[index + 1]; i < end; i++) {
+                hash = mix(hash, optionIds[i]);
+            }
+        }
+        return hash;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    /**
+     * @return index of the question, or -1 if it is not part of this index
+     */
+    public int indexOf(long questionId) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index >= 0 ? index : -1;
+    }
+
+    public boolean contains(long questionId) {
+        return indexOf(questionId) >= 0;
+    }
+
+    public long questionId(int index) {
+        return questionIds[index];
+    }
+
+    public Domain domain(int index) {
+        return DOMAINS[domains[index]];
+    }
+
+    public int optionCount(int index) {
+        return optionOffsets[index + 1] - optionOffsets[index];
+    }
+
+    public long optionId(int index, int position) {
+        return optionIds[optionOffsets[index] + position];
+    }
+
+    /**
+     * @return position of the option within its question, or -1 if it does not belong to it
+     */
+    public int positionOf(int index, long optionId) {
+        for (int i = optionOffsets[index], end = optionOffsets[index + 1]; i < end; i++) {
+            if (optionIds[i] == optionId) {
+                return i - optionOffsets[index];
+            }
+        }
+        return -1;
+    }
+
+    public long correctMask(int index) {
+        return correctMasks[index];
+    }
+
+    /**
+     * Convert selected option ids to a mask over the question's option positions
+     *
+     * @return the mask, 0 for no selection, or {@link #INVALID} if an id is not an option of the question
+     */
+    public long selectionMask(int index, List<Long> selectedOptionIds) {
+        long mask = 0L;
+        if (selectedOptionIds == null) {
+            return mask;
+        }
+        for (int i = 0, n = selectedOptionIds.size(); i < n; i++) {
+            Long optionId = selectedOptionIds.get(i);
+            int position = optionId != null ? positionOf(index, optionId) : -1;
+            if (position < 0) {
+                return INVALID;
+            }
+            mask |= 1L << position;
+        }
+        return mask;
+    }
+
+    /**
+     * An answer is correct when exactly the correct options are selected
+     */
+    public boolean isCorrect(int index, long selectionMask) {
+        return selectionMask != INVALID && selectionMask == correctMasks[index];
+    }
+
+    /**
+     * Option ids set in the mask, in position order
+     */
+    public List<Long> optionIds(int index, long mask) {
+        List<Long> ids = new ArrayList<>(Long.bitCount(mask & ~INVALID));
+        for (int position = 0, n = optionCount(index); position < n; position++) {
+            if ((mask & (1L << position)) != 0) {
+                ids.add(optionId(index, position));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Correct option ids of the question, ascending
+     */
+    public List<Long> correctOptionIds(int index) {
+        return optionIds(index, correctMasks[index]);
+    }
+
+    private long computeFingerprint() {
+        // FNV-1a over the longs, good enough to tell bank imports apart
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < questionIds.length; i++) {
+            hash = mix(hash, questionIds[i]);
+            hash = mix(hash, correctMasks[i]);
+            hash = mix(hash, optionOffsets[i + 1] - optionOffsets[i]);
+        }
+        for (long optionId : optionIds) {
+            hash = mix(hash, optionId);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,287 @@
+package co.singularit.az104simulator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind buffer for answer submissions (app.answer-buffer.enabled).
+ *
+ * Autosave submits an answer on every click. In buffered mode a submission only replaces
+ * the pending value for its (attempt, question) in memory; a scheduler writes all pending
+ * answers in one JDBC batch and one commit every app.answer-buffer.flush-interval-ms.
+ * An attempt's answers are flushed before it is completed or reviewed, and everything is
+ * flushed on graceful shutdown. Pages that read answers in between overlay pendingFor().
+ * Only attempts that exist and are not completed accept answers, and only for their own
+ * questions; an attempt's question ids are looked up once and remembered while it is open,
+ * and {@link #close} ends it when the attempt is completed.
+ */
+@Component
+@Slf4j
+public class AnswerWriteBuffer {
+
+    private static final String UPDATE_ANSWER_SQL =
+            "UPDATE attempt_answer SET selected_option_mask = ?, answered_at = ?, marked = COALESCE(?, marked) " +
+            "WHERE attempt_id = ? AND question_id = ?";
+
+    private static final int[] UPDATE_ANSWER_TYPES = {
+            Types.BIGINT, Types.TIMESTAMP, Types.BOOLEAN, Types.VARCHAR, Types.BIGINT
+    };
+
+    private static final String ATTEMPT_COMPLETED_SQL = "SELECT is_completed FROM attempt WHERE id = ?";
+
+    private static final String ATTEMPT_QUESTIONS_SQL =
+            "SELECT question_id FROM attempt_answer WHERE attempt_id = ? ORDER BY question_id";
+
+    /** Question ids of an attempt that does not accept answers */
+    private static final long[] CLOSED = new long[0];
+
+    private static final long MAX_KNOWN_ATTEMPTS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /** Pending answers per attempt; an inner map is only touched inside compute() on its key */
+    private final ConcurrentHashMap<String, Map<Long, PendingAnswer>> buffers = new ConcurrentHashMap<>();
+    /** Answers drained by the running flush and not committed yet */
+    private final ConcurrentHashMap<String, Map<Long, PendingAnswer>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    /** A lock rather than a monitor: a virtual thread holding a monitor through JDBC pins its carrier */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushTimer;
+    /** Sorted question ids of recently seen attempts while they accept answers, empty once missing or completed */
+    private final Cache<String, long[]> openAttempts = Caffeine.newBuilder()
+            .maximumSize(MAX_KNOWN_ATTEMPTS)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public AnswerWriteBuffer(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.answer-buffer.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+
+        // Flushes commit on their own, even when triggered from inside another transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("exam.answer.buffer.depth", depth, AtomicInteger::get)
+                .description("Answers waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("exam.answer.buffer.flush")
+                .description("Time to write one batch of buffered answers")
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info("Answer write-behind buffer enabled");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record the latest answer for a question, replacing any pending one
+     *
+     * @param selectionMask Selected options as a bitmask, 0 when cleared
+     * @param marked New marked flag, or null to keep the current one
+     * @throws IllegalArgumentException if the attempt does not exist or is completed, or the
+     *         question is not part of it
+     */
+    public void submit(String attemptId, long questionId, long selectionMask, Boolean marked) {
+        long[] questionIds = openAttempts.get(attemptId, this::openQuestionIds);
+        if (questionIds.length == 0) {
+            throw new IllegalArgumentException("Attempt not found or already completed: " + attemptId);
+        }
+        if (Arrays.binarySearch(questionIds, questionId) < 0) {
+            throw new IllegalArgumentException("Answer not found for question: " + questionId);
+        }
+        LocalDateTime answeredAt = selectionMask != 0L ? LocalDateTime.now() : null;
+        buffers.compute(attemptId, (id, pending) -> {
+            // Checked again on the attempt's key, so nothing is buffered once close() has removed its answers
+            if (openAttempts.getIfPresent(id) == CLOSED) {
+                throw new IllegalArgumentException("Attempt already completed: " + id);
+            }
+            Map<Long, PendingAnswer> answers = pending != null ? pending : new HashMap<>();
+            PendingAnswer previous = answers.get(questionId);
+            Boolean effectiveMarked = marked != null ? marked : (previous != null ? previous.marked() : null);
+            answers.put(questionId, new PendingAnswer(selectionMask, answeredAt, effectiveMarked));
+            if (previous == null) {
+                depth.incrementAndGet();
+            }
+            return answers;
+        });
+    }
+
+    /**
+     * Stop accepting answers for a completed attempt. Answers that arrived after its last flush
+     * were not scored, so they are discarded rather than written.
+     */
+    public void close(String attemptId) {
+        openAttempts.put(attemptId, CLOSED);
+        Map<Long, PendingAnswer> late = buffers.remove(attemptId);
+        if (late != null) {
+            depth.addAndGet(-late.size());
+            log.warn("Discarded {} answers submitted while attempt {} was being completed", late.size(), attemptId);
+        }
+    }
+
+    /**
+     * Answers of an attempt that are not in the database yet, by question id
+     */
+    public Map<Long, PendingAnswer> pendingFor(String attemptId) {
+        Map<Long, PendingAnswer> pending = new HashMap<>();
+        Map<Long, PendingAnswer> flushing = inFlight.get(attemptId);
+        if (flushing != null) {
+            pending.putAll(flushing);
+        }
+        buffers.computeIfPresent(attemptId, (id, answers) -> {
+            pending.putAll(answers);
+            return answers;
+        });
+        return pending;
+    }
+
+    /**
+     * Write the pending answers of one attempt now
+     */
+    public void flush(String attemptId) {
+        flushLock.lock();
+        try {
+            Map<Long, PendingAnswer> answers = buffers.remove(attemptId);
+            if (answers != null) {
+                write(Map.of(attemptId, answers));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write every pending answer in one batch
+     */
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            Map<String, Map<Long, PendingAnswer>> batch = new HashMap<>();
+            for (String attemptId : buffers.keySet()) {
+                Map<Long, PendingAnswer> answers = buffers.remove(attemptId);
+                if (answers != null) {
+                    batch.put(attemptId, answers);
+                }
+            }
+            write(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.answer-buffer.flush-interval-ms:250}")
+    public void scheduledFlush() {
+        if (enabled && !buffers.isEmpty()) {
+            flushAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!buffers.isEmpty()) {
+            log.info("Flushing {} buffered answers before shutdown", depth.get());
+            flushAll();
+        }
+    }
+
+    private void write(Map<String, Map<Long, PendingAnswer>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        batch.forEach((attemptId, answers) -> answers.forEach((questionId, answer) -> rows.add(new Object[]{
+                answer.selectionMask() != 0L ? answer.selectionMask() : null,
+                answer.answeredAt() != null ? Timestamp.valueOf(answer.answeredAt()) : null,
+                answer.marked(),
+                attemptId,
+                questionId
+        })));
+        depth.addAndGet(-rows.size());
+
+        inFlight.putAll(batch);
+        try {
+            int[] counts = flushTimer.record(() -> transactionTemplate.execute(
+                    status -> jdbcTemplate.batchUpdate(UPDATE_ANSWER_SQL, rows, UPDATE_ANSWER_TYPES)));
+            for (int i = 0; i < counts.length; i++) {
+                // The answer row is gone, e.g. its attempt was deleted after the answer was buffered
+                if (counts[i] == 0) {
+                    log.warn("Buffered answer for question {} of attempt {} matched no row and was dropped",
+                             rows.get(i)[4], rows.get(i)[3]);
+                }
+            }
+            log.debug("Flushed {} buffered answers for {} attempts", rows.size(), batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} buffered answers, keeping them for the next flush", rows.size(), e);
+            requeue(batch);
+        } finally {
+            inFlight.keySet().removeAll(batch.keySet());
+        }
+    }
+
+    /**
+     * Question ids of the attempt in ascending order, or {@link #CLOSED} if it is missing or completed
+     */
+    private long[] openQuestionIds(String attemptId) {
+        List<Boolean> completed = jdbcTemplate.queryForList(ATTEMPT_COMPLETED_SQL, Boolean.class, attemptId);
+        if (completed.isEmpty() || Boolean.TRUE.equals(completed.get(0))) {
+            return CLOSED;
+        }
+        return jdbcTemplate.queryForList(ATTEMPT_QUESTIONS_SQL, Long.class, attemptId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    /**
+     * Put answers of a failed flush back, unless a newer submission replaced them meanwhile
+     */
+    private void requeue(Map<String, Map<Long, PendingAnswer>> batch) {
+        batch.forEach((attemptId, failed) -> buffers.compute(attemptId, (id, pending) -> {
+            Map<Long, PendingAnswer> answers = pending != null ? pending : new HashMap<>();
+            failed.forEach((questionId, answer) -> {
+                if (answers.putIfAbsent(questionId, answer) == null) {
+                    depth.incrementAndGet();
+                }
+            });
+            return answers;
+        }));
+    }
+
+    /**
+     * Latest submitted state of one answer
+     *
+     * @param marked null when the submission did not change the flag
+     */
+    public record PendingAnswer(long selectionMask, LocalDateTime answeredAt, Boolean marked) {
+    }
+}
@@ -0,0 +1,27 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Domain;
+
+/**
+ * Counts of a scored attempt.
+ *
+ * Per-domain arrays are indexed by {@link Domain#ordinal()} and owned by this record;
+ * callers must not modify them.
+ */
+public record AttemptScore(
+    int correct,
+    int incorrect,
+    int unanswered,
+    int marked,
+    int[] domainCorrect,
+    int[] domainTotal
+) {
+
+    public int correctIn(Domain domain) {
+        return domainCorrect[domain.ordinal()];
+    }
+
+    public int totalIn(Domain domain) {
+        return domainTotal[domain.ordinal()];
+    }
+}
@@ -7,13 +7,15 @@ import co.singularit.az104simulator.dto.QuestionDto;
 import co.singularit.az104simulator.dto.ResultDto;
 import co.singularit.az104simulator.repository.AttemptAnswerRepository;
 import co.singularit.az104simulator.repository.AttemptRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
+import co.singularit.az104simulator.service.ExamMetrics.AnswerPath;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -31,6 +33,11 @@ public class AttemptService {
     private final ObjectMapper objectMapper;
     private final co.singularit.az104simulator.repository.QuestionRepository questionRepository;
     private final ExamSessionService examSessionService;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final AttemptStateStore attemptStateStore;
+    private final ExamMetrics examMetrics;
 
     @Transactional
     public Attempt createAttempt(ExamConfigDto config, String studentId) {
@@ -70,6 +77,7 @@ public class AttemptService {
 
         attempt.setTotalQuestions(questionIds.size());
         attempt.setSessionId(sessionId);
+        attempt.setLocale(locale);
 
         try {
             String configJson = objectMapper.writeValueAsString(config);
@@ -78,9 +86,30 @@ public class AttemptService {
             log.error("Failed to serialize config", e);
         }
 
+        if (attempt.getMode() == ExamMode.PRACTICE && attemptStateStore.isEnabled()) {
+            // Written on completion, or on eviction if it has answers by then
+            addAnswerPlaceholders(attempt, questionIds);
+            attemptStateStore.put(attempt);
+            log.info("Created in-memory practice attempt {} with session {} and {} unique questions",
+                     attempt.getId(), sessionId, questionIds.size());
+            return attempt;
+        }
+
         attempt = attemptRepository.save(attempt);
 
-        // Create answer placeholders with stable position field using session questions
+        addAnswerPlaceholders(attempt, questionIds);
+
+        attemptRepository.save(attempt);
+
+        log.info("Created attempt {} with session {} and {} unique questions (positions 0-{})",
+                 attempt.getId(), sessionId, questionIds.size(), questionIds.size() - 1);
+        return attempt;
+    }
+
+    /**
+     * Create answer placeholders with stable position field using session questions
+     */
+    private static void addAnswerPlaceholders(Attempt attempt, List<Long> questionIds) {
         int position = 0;
         for (Long questionId : questionIds) {
             AttemptAnswer answer = new AttemptAnswer();
@@ -89,25 +118,44 @@ public class AttemptService {
             answer.setMarked(false);
             attempt.addAnswer(answer);
         }
-
-        attemptRepository.save(attempt);
-
-        log.info("Created attempt {} with session {} and {} unique questions (positions 0-{})",
-                 attempt.getId(), sessionId, questionIds.size(), questionIds.size() - 1);
-        return attempt;
     }
 
+    /**
+     * Get an attempt, either held in the in-memory practice store or from the database
+     */
     @Transactional(readOnly = true)
     public Attempt getAttempt(String attemptId) {
+        Attempt inMemory = attemptStateStore.get(attemptId);
+        if (inMemory != null) {
+            return inMemory;
+        }
+        return attemptRepository.findById(attemptId)
+                .orElseThrow(() -> new IllegalArgumentException("Attempt not found: " + attemptId));
+    }
+
+    /**
+     * Get an attempt from the database, ignoring the in-memory practice store
+     */
+    private Attempt persistedAttempt(String attemptId) {
         return attemptRepository.findById(attemptId)
                 .orElseThrow(() -> new IllegalArgumentException("Attempt not found: " + attemptId));
     }
 
+    /**
+     * Answers of an attempt in position order
+     */
+    private List<AttemptAnswer> orderedAnswers(Attempt attempt) {
+        if (attemptStateStore.get(attempt.getId()) == attempt) {
+            return attemptStateStore.answersOf(attempt);
+        }
+        // Use ordered retrieval to guarantee stable order
+        return attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
+    }
+
     @Transactional(readOnly = true)
     public List<Long> getQuestionIds(String attemptId) {
         Attempt attempt = getAttempt(attemptId);
-        // Use ordered retrieval to guarantee stable order
-        return attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt).stream()
+        return orderedAnswers(attempt).stream()
                 .map(AttemptAnswer::getQuestionId)
                 .collect(Collectors.toList());
     }
@@ -121,7 +169,7 @@ public class AttemptService {
     public QuestionDto getQuestionForAttempt(String attemptId, int index, ExamMode mode, String lang) {
         Attempt attempt = getAttempt(attemptId);
         // Use ordered retrieval to guarantee stable index -> question mapping
-        List<AttemptAnswer> answers = attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
+        List<AttemptAnswer> answers = orderedAnswers(attempt);
 
         if (index < 0 || index >= answers.size()) {
             throw new IllegalArgumentException("Invalid question index: " + index);
@@ -138,19 +186,9 @@ public class AttemptService {
         QuestionDto dto = questionService.convertToDto(question, includeCorrectAnswers, lang);
 
         // Add user's previous selection
-        if (answer.getSelectedOptionIdsJson() != null && !answer.getSelectedOptionIdsJson().isEmpty()) {
-            try {
-                List<Long> selectedIds = objectMapper.readValue(
-                        answer.getSelectedOptionIdsJson(),
-                        new TypeReference<List<Long>>() {}
-                );
-                dto.setSelectedOptionIds(selectedIds);
-                dto.setAnswered(true);
-            } catch (Exception e) {
-                log.error("Failed to parse selected options", e);
-                dto.setSelectedOptionIds(new ArrayList<>());
-                dto.setAnswered(false);
-            }
+        if (answer.isAnswered()) {
+            dto.setSelectedOptionIds(questionBankSnapshot.selectedOptionIds(questionId, answer.getSelectedOptionMask()));
+            dto.setAnswered(true);
         } else {
             dto.setSelectedOptionIds(new ArrayList<>());
             dto.setAnswered(false);
@@ -161,37 +199,92 @@ public class AttemptService {
         return dto;
     }
 
-    @Transactional
+    /**
+     * Save an answer, or queue it in the write-behind buffer when that is enabled.
+     * Not annotated @Transactional so a buffered submission never opens a transaction.
+     */
     public void submitAnswer(String attemptId, AnswerSubmissionDto submission) {
-        Attempt attempt = getAttempt(attemptId);
+        Timer.Sample sample = Timer.start();
+        AnswerPath path = storeAnswer(attemptId, submission);
+        sample.stop(examMetrics.answerSubmit(path));
+    }
 
-        AttemptAnswer answer = attemptAnswerRepository
-                .findByAttemptAndQuestionId(attempt, submission.getQuestionId())
-                .orElseThrow(() -> new IllegalArgumentException("Answer not found for question: " + submission.getQuestionId()));
+    private AnswerPath storeAnswer(String attemptId, AnswerSubmissionDto submission) {
+        Long questionId = submission.getQuestionId();
+        long mask = submission.getSelectedOptionIds() != null && !submission.getSelectedOptionIds().isEmpty()
+                ? selectionMask(questionId, submission.getSelectedOptionIds())
+                : 0L;
+
+        // False once the attempt is written on eviction or taken for completion; it is then in the database
+        boolean inMemory = attemptStateStore.update(attemptId, attempt -> {
+            AttemptAnswer answer = attempt.getAnswers().stream()
+                    .filter(a -> a.getQuestionId().equals(questionId))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Answer not found for question: " + questionId));
+            applySubmission(answer, mask, submission.getMarked());
+        });
+        if (inMemory) {
+            return AnswerPath.MEMORY;
+        }
 
-        try {
-            if (submission.getSelectedOptionIds() != null && !submission.getSelectedOptionIds().isEmpty()) {
-                String json = objectMapper.writeValueAsString(submission.getSelectedOptionIds());
-                answer.setSelectedOptionIdsJson(json);
-                answer.setAnsweredAt(LocalDateTime.now());
-            } else {
-                answer.setSelectedOptionIdsJson(null);
-                answer.setAnsweredAt(null);
-            }
-        } catch (Exception e) {
-            log.error("Failed to serialize selected options", e);
+        if (answerWriteBuffer.isEnabled()) {
+            answerWriteBuffer.submit(attemptId, questionId, mask, submission.getMarked());
+            return AnswerPath.BUFFERED;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Attempt attempt = persistedAttempt(attemptId);
+
+            AttemptAnswer answer = attemptAnswerRepository
+                    .findByAttemptAndQuestionId(attempt, questionId)
+                    .orElseThrow(() -> new IllegalArgumentException("Answer not found for question: " + questionId));
+
+            applySubmission(answer, mask, submission.getMarked());
+
+            attemptAnswerRepository.save(answer);
+        });
+        return AnswerPath.DIRECT;
+    }
+
+    private static void applySubmission(AttemptAnswer answer, long mask, Boolean marked) {
+        answer.setSelectedOptionMask(mask);
+        answer.setAnsweredAt(mask != 0L ? LocalDateTime.now() : null);
+
+        if (marked != null) {
+            answer.setMarked(marked);
         }
+    }
 
-        if (submission.getMarked() != null) {
-            answer.setMarked(submission.getMarked());
+    /**
+     * Write buffered answers of an attempt before reading them from the database
+     */
+    public void flushPendingAnswers(String attemptId) {
+        if (answerWriteBuffer.isEnabled()) {
+            answerWriteBuffer.flush(attemptId);
         }
+    }
 
-        attemptAnswerRepository.save(answer);
+    /**
+     * Encode selected option ids as a bitmask over the question's options
+     *
+     * @throws IllegalArgumentException if an id is not an option of the question
+     */
+    private long selectionMask(Long questionId, List<Long> selectedOptionIds) {
+        AnswerKeyIndex keys = questionBankSnapshot.answerKeysCovering(List.of(questionId));
+        int index = keys.indexOf(questionId);
+        long mask = index >= 0 ? keys.selectionMask(index, selectedOptionIds) : AnswerKeyIndex.INVALID;
+        if (mask == AnswerKeyIndex.INVALID) {
+            throw new IllegalArgumentException("Invalid options " + selectedOptionIds + " for question: " + questionId);
+        }
+        return mask;
     }
 
     @Transactional
     public void updateCurrentIndex(String attemptId, int index) {
-        Attempt attempt = getAttempt(attemptId);
+        if (attemptStateStore.update(attemptId, attempt -> attempt.setCurrentQuestionIndex(index))) {
+            return;
+        }
+        Attempt attempt = persistedAttempt(attemptId);
         attempt.setCurrentQuestionIndex(index);
         attemptRepository.save(attempt);
     }
@@ -199,8 +292,16 @@ public class AttemptService {
     @Transactional(readOnly = true)
     public Map<String, Object> getAttemptStatus(String attemptId) {
         Attempt attempt = getAttempt(attemptId);
-        long answeredCount = attemptAnswerRepository.countByAttemptAndSelectedOptionIdsJsonIsNotNull(attempt);
-        long markedCount = attemptAnswerRepository.countByAttemptAndMarkedTrue(attempt);
+        long answeredCount;
+        long markedCount;
+        if (attemptStateStore.get(attemptId) == attempt) {
+            List<AttemptAnswer> answers = attemptStateStore.answersOf(attempt);
+            answeredCount = answers.stream().filter(AttemptAnswer::isAnswered).count();
+            markedCount = answers.stream().filter(answer -> Boolean.TRUE.equals(answer.getMarked())).count();
+        } else {
+            answeredCount = attemptAnswerRepository.countByAttemptAndSelectedOptionMaskIsNotNull(attempt);
+            markedCount = attemptAnswerRepository.countByAttemptAndMarkedTrue(attempt);
+        }
 
         Map<String, Object> status = new HashMap<>();
         status.put("totalQuestions", attempt.getTotalQuestions());
@@ -216,29 +317,46 @@ public class AttemptService {
     public List<String> getQuestionStates(String attemptId) {
         Attempt attempt = getAttempt(attemptId);
         // Use ordered retrieval to guarantee states match question positions
-        List<AttemptAnswer> answers = attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
+        List<AttemptAnswer> answers = orderedAnswers(attempt);
 
         return answers.stream()
-                .map(answer -> {
-                    boolean isAnswered = answer.getSelectedOptionIdsJson() != null && !answer.getSelectedOptionIdsJson().isEmpty();
-                    boolean isMarked = answer.getMarked() != null && answer.getMarked();
-
-                    if (isAnswered && isMarked) {
-                        return "q-answered q-marked";
-                    } else if (isAnswered) {
-                        return "q-answered";
-                    } else if (isMarked) {
-                        return "q-marked";
-                    } else {
-                        return "q-unanswered";
-                    }
-                })
+                .map(answer -> questionState(answer.isAnswered(), answer.getMarked() != null && answer.getMarked()))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    /**
+     * CSS state of a question in the navigation grid
+     */
+    static String questionState(boolean isAnswered, boolean isMarked) {
+        if (isAnswered && isMarked) {
+            return "q-answered q-marked";
+        } else if (isAnswered) {
+            return "q-answered";
+        } else if (isMarked) {
+            return "q-marked";
+        } else {
+            return "q-unanswered";
+        }
+    }
+
+    /**
+     * Complete and score an attempt. Not annotated @Transactional: buffered answers are committed
+     * first, in their own transaction, so a completion never holds two pooled connections.
+     */
     public ResultDto completeAttempt(String attemptId) {
-        Attempt attempt = getAttempt(attemptId);
+        Timer.Sample sample = Timer.start();
+
+        // Committed before the completing transaction opens, so the scoring query below sees them
+        flushPendingAnswers(attemptId);
+
+        return transactionTemplate.execute(status -> complete(attemptId, sample));
+    }
+
+    private ResultDto complete(String attemptId, Timer.Sample sample) {
+        // An in-memory practice attempt is completed as a copy, inserted with its answers below; it
+        // leaves the store when this transaction commits and stays there if it rolls back
+        Attempt inMemory = attemptStateStore.beginCompletion(attemptId);
+        Attempt attempt = inMemory != null ? inMemory : persistedAttempt(attemptId);
         attempt.setEndedAt(LocalDateTime.now());
         attempt.setIsCompleted(true);
 
@@ -248,16 +366,65 @@ public class AttemptService {
         }
 
         // Use ordered retrieval for consistent results
-        List<AttemptAnswer> answers = attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
-        ResultDto results = scoringService.calculateResults(attempt, answers);
+        List<AttemptAnswer> answers = inMemory != null
+                ? inMemory.getAnswers()
+                : attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
+        AttemptScore score = examMetrics.scoring().record(() -> scoringService.score(answers));
 
         // Calculate and store score percentage
-        int scorePercentage = Math.round((results.getCorrectAnswers() * 100.0f) / attempt.getTotalQuestions());
+        int scorePercentage = Math.round((score.correct() * 100.0f) / attempt.getTotalQuestions());
         attempt.setScorePercentage(scorePercentage);
 
+        // Store summary counters so history never has to rescore this attempt
+        storeSummary(attempt, score);
+
         attemptRepository.save(attempt);
 
-        return results;
+        if (attempt.getSessionId() != null) {
+            // Ends the session too, which releases the bank version it was built from
+            examSessionService.completeSession(attempt.getSessionId());
+        }
+
+        if (answerWriteBuffer.isEnabled()) {
+            AfterCommit.run(() -> answerWriteBuffer.close(attemptId));
+        }
+
+        sample.stop(examMetrics.attemptComplete());
+        examMetrics.attemptCompleted(attempt.getMode());
+
+        // Per-question results are built by getResults for the results page
+        return scoringService.toResultDto(attempt, score);
+    }
+
+    /**
+     * Fill the denormalized summary columns of a completed attempt
+     */
+    void storeSummary(Attempt attempt, AttemptScore score) {
+        attempt.setCorrectCount(score.correct());
+        attempt.setIncorrectCount(score.incorrect());
+        attempt.setUnansweredCount(score.unanswered());
+        attempt.setMarkedCount(score.marked());
+
+        if (attempt.getLocale() == null) {
+            // Attempts started before the locale was stored
+            attempt.setLocale("es");
+        }
+
+        // Only domains that were part of the attempt
+        Map<Domain, Map<String, Integer>> domainSummary = new EnumMap<>(Domain.class);
+        for (Domain domain : Domain.values()) {
+            if (score.totalIn(domain) > 0) {
+                Map<String, Integer> domainScore = new LinkedHashMap<>();
+                domainScore.put("correct", score.correctIn(domain));
+                domainScore.put("total", score.totalIn(domain));
+                domainSummary.put(domain, domainScore);
+            }
+        }
+        try {
+            attempt.setDomainSummaryJson(objectMapper.writeValueAsString(domainSummary));
+        } catch (Exception e) {
+            log.error("Failed to serialize domain summary", e);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -274,7 +441,13 @@ public class AttemptService {
 
     @Transactional(readOnly = true)
     public ExamConfigDto getAttemptConfig(String attemptId) {
-        Attempt attempt = getAttempt(attemptId);
+        return parseConfig(getAttempt(attemptId));
+    }
+
+    /**
+     * Parse the stored config of an attempt, falling back to defaults
+     */
+    public ExamConfigDto parseConfig(Attempt attempt) {
         if (attempt.getConfigJson() == null) {
             ExamConfigDto defaultConfig = new ExamConfigDto();
             defaultConfig.setMode(attempt.getMode());
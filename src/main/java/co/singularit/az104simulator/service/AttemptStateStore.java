@@ -0,0 +1,321 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory store for PRACTICE attempts that are not persisted yet (app.attempt-store.enabled).
+ *
+ * A stored attempt is a new, unsaved entity holding its answer placeholders. Answer
+ * submissions and navigation only change it in memory. It is written to attempt and
+ * attempt_answer in one batch when it is completed, or when it is evicted (size or idle
+ * TTL) with at least one answer; unanswered attempts are dropped on eviction.
+ *
+ * Stored attempts are changed and read while holding their entry's lock, which also
+ * guards the entry's state. Writes go through copies, so the stored attempt is never
+ * attached to a persistence context:
+ * - eviction and shutdown close an open entry and write it while holding the lock,
+ *   so an entry is written once and a submission waiting for the lock sees it closed
+ *   and goes to the database instead
+ * - completion takes an open entry, which is removed once the completing transaction
+ *   commits and reopened untouched if it rolls back
+ */
+@Component
+@Slf4j
+public class AttemptStateStore {
+
+    private final AttemptRepository attemptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Cache<String, Entry> attempts;
+    private final Counter persistedOnEviction;
+    private final Counter droppedOnEviction;
+
+    public AttemptStateStore(AttemptRepository attemptRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.attempt-store.enabled:false}") boolean enabled,
+                             @Value("${app.attempt-store.max-size:10000}") long maxSize,
+                             @Value("${app.attempt-store.ttl-minutes:30}") long ttlMinutes) {
+        this.attemptRepository = attemptRepository;
+        this.enabled = enabled;
+
+        // Evictions are written on their own, outside any request transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                // Expire idle attempts on time even when the store sees no traffic
+                .scheduler(Scheduler.systemScheduler())
+                // Runs while the entry is being removed, so get() keeps returning it until it is written
+                .evictionListener(this::onEviction)
+                .build();
+
+        Gauge.builder("exam.attempt.store.size", attempts, Cache::estimatedSize)
+                .description("Practice attempts held in memory")
+                .register(meterRegistry);
+        this.persistedOnEviction = Counter.builder("exam.attempt.store.evictions")
+                .tag("outcome", "persisted")
+                .description("Evicted practice attempts")
+                .register(meterRegistry);
+        this.droppedOnEviction = Counter.builder("exam.attempt.store.evictions")
+                .tag("outcome", "dropped")
+                .description("Evicted practice attempts")
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info("In-memory practice attempt store enabled (max {} attempts, {} min idle TTL)", maxSize, ttlMinutes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keep a new attempt in memory instead of saving it
+     */
+    public void put(Attempt attempt) {
+        attempts.put(attempt.getId(), new Entry(attempt));
+    }
+
+    /**
+     * The in-memory attempt, for reading. Read its answers with {@link #answersOf} and change
+     * it only through {@link #update}.
+     *
+     * @return the attempt, or null if it is not (or no longer) held here
+     */
+    public Attempt get(String attemptId) {
+        Entry entry = enabled ? attempts.getIfPresent(attemptId) : null;
+        return entry != null ? entry.attempt : null;
+    }
+
+    /**
+     * Change an in-memory attempt that is still open
+     *
+     * @return false if the attempt is not held here or is being written or completed;
+     *         the change then belongs in the database
+     */
+    public boolean update(String attemptId, Consumer<Attempt> change) {
+        Entry entry = enabled ? attempts.getIfPresent(attemptId) : null;
+        if (entry == null) {
+            return false;
+        }
+        entry.lock.lock();
+        try {
+            if (entry.state != State.OPEN) {
+                return false;
+            }
+            change.accept(entry.attempt);
+            return true;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Take an open attempt for completion, in the completing transaction. The attempt stays
+     * readable here until the transaction commits and is reopened unchanged if it rolls back.
+     *
+     * @return a copy to complete and save, or null if the attempt is not held here or not open
+     */
+    public Attempt beginCompletion(String attemptId) {
+        Entry entry = enabled ? attempts.getIfPresent(attemptId) : null;
+        if (entry == null) {
+            return null;
+        }
+        Attempt copy;
+        entry.lock.lock();
+        try {
+            if (entry.state != State.OPEN) {
+                return null;
+            }
+            entry.state = State.COMPLETING;
+            copy = copyOf(entry.attempt);
+        } finally {
+            entry.lock.unlock();
+        }
+        AfterCommit.run(() -> {
+            entry.lock.lock();
+            try {
+                entry.state = State.CLOSED;
+            } finally {
+                entry.lock.unlock();
+            }
+            attempts.asMap().remove(attemptId, entry);
+        }, () -> {
+            entry.lock.lock();
+            try {
+                entry.state = State.OPEN;
+            } finally {
+                entry.lock.unlock();
+            }
+            // Evicted while completing: it was not written, so keep it
+            attempts.asMap().putIfAbsent(attemptId, entry);
+        });
+        return copy;
+    }
+
+    /**
+     * Approximate number of attempts held in memory
+     */
+    public long size() {
+        return attempts.estimatedSize();
+    }
+
+    /**
+     * Run pending evictions now instead of on the cache's executor
+     */
+    void cleanUp() {
+        attempts.cleanUp();
+    }
+
+    /**
+     * Answers of an in-memory attempt in position order, copied under the entry's lock
+     */
+    public List<AttemptAnswer> answersOf(Attempt attempt) {
+        Entry entry = attempts.getIfPresent(attempt.getId());
+        if (entry == null || entry.attempt != attempt) {
+            // No longer held, so nothing changes it any more
+            return new ArrayList<>(attempt.getAnswers());
+        }
+        entry.lock.lock();
+        try {
+            return new ArrayList<>(attempt.getAnswers());
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (attempts.estimatedSize() > 0) {
+            log.info("Writing {} in-memory practice attempts before shutdown", attempts.estimatedSize());
+            // invalidateAll reports EXPLICIT, so persist directly; an entry evicted meanwhile is written once
+            for (Entry entry : attempts.asMap().values()) {
+                persistIfAnswered(entry);
+            }
+            attempts.asMap().clear();
+        }
+    }
+
+    private void onEviction(String attemptId, Entry entry, RemovalCause cause) {
+        if (entry == null) {
+            return;
+        }
+        if (persistIfAnswered(entry)) {
+            persistedOnEviction.increment();
+        } else {
+            droppedOnEviction.increment();
+            log.debug("Dropped unanswered practice attempt {} ({})", attemptId, cause);
+        }
+    }
+
+    /**
+     * Close an open entry and write it if it has an answer
+     *
+     * @return whether it was written
+     */
+    private boolean persistIfAnswered(Entry entry) {
+        entry.lock.lock();
+        try {
+            if (entry.state != State.OPEN) {
+                return false;
+            }
+            entry.state = State.CLOSED;
+            Attempt attempt = entry.attempt;
+            if (attempt.getAnswers().stream().noneMatch(AttemptAnswer::isAnswered)) {
+                return false;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> attemptRepository.save(copyOf(attempt)));
+                log.debug("Persisted evicted practice attempt {}", attempt.getId());
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Failed to persist evicted practice attempt {}", attempt.getId(), e);
+                return false;
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * A new, unsaved copy of an attempt and its answers, so saving it never attaches the stored one
+     */
+    static Attempt copyOf(Attempt attempt) {
+        Attempt copy = new Attempt();
+        copy.setId(attempt.getId());
+        copy.setMode(attempt.getMode());
+        copy.setStartedAt(attempt.getStartedAt());
+        copy.setEndedAt(attempt.getEndedAt());
+        copy.setDurationSeconds(attempt.getDurationSeconds());
+        copy.setTotalQuestions(attempt.getTotalQuestions());
+        copy.setConfigJson(attempt.getConfigJson());
+        copy.setSessionId(attempt.getSessionId());
+        copy.setStudentId(attempt.getStudentId());
+        copy.setScorePercentage(attempt.getScorePercentage());
+        copy.setCorrectCount(attempt.getCorrectCount());
+        copy.setIncorrectCount(attempt.getIncorrectCount());
+        copy.setUnansweredCount(attempt.getUnansweredCount());
+        copy.setMarkedCount(attempt.getMarkedCount());
+        copy.setLocale(attempt.getLocale());
+        copy.setDomainSummaryJson(attempt.getDomainSummaryJson());
+        copy.setCurrentQuestionIndex(attempt.getCurrentQuestionIndex());
+        copy.setIsCompleted(attempt.getIsCompleted());
+        for (AttemptAnswer answer : attempt.getAnswers()) {
+            AttemptAnswer answerCopy = new AttemptAnswer();
+            answerCopy.setQuestionId(answer.getQuestionId());
+            answerCopy.setPosition(answer.getPosition());
+            answerCopy.setSelectedOptionMask(answer.getSelectedOptionMask());
+            answerCopy.setMarked(answer.getMarked());
+            answerCopy.setAnsweredAt(answer.getAnsweredAt());
+            copy.addAnswer(answerCopy);
+        }
+        return copy;
+    }
+
+    private enum State {
+        /** In memory and accepting changes */
+        OPEN,
+        /** Taken by a completing transaction */
+        COMPLETING,
+        /** Written or dropped */
+        CLOSED
+    }
+
+    private static final class Entry {
+        private final Attempt attempt;
+        /** A lock rather than a monitor: a virtual thread holding a monitor through JDBC pins its carrier */
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Guarded by lock */
+        private State state = State.OPEN;
+
+        private Entry(Attempt attempt) {
+            this.attempt = attempt;
+        }
+    }
+}
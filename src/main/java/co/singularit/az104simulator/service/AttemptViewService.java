@@ -0,0 +1,222 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.dto.AttemptView;
+import co.singularit.az104simulator.dto.ExamConfigDto;
+import co.singularit.az104simulator.dto.QuestionDto;
+import co.singularit.az104simulator.repository.AttemptAnswerRepository;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Builds the exam page view model.
+ *
+ * The page used to load the attempt four times, the ordered answer list twice and run two
+ * count queries. Here the attempt and its answers are read once and everything else
+ * (status counts, question states, the selection of the current question) is derived from
+ * them. The question itself comes from the DTO cache. Answers still waiting in the
+ * write-behind buffer take precedence over the stored ones. Practice attempts held in
+ * the in-memory store are read from there without touching the database.
+ *
+ * With app.exam-page.parallel-reads the attempt, its answers and the current question are
+ * read concurrently ({@link ParallelReads}), each in its own read-only transaction, so the
+ * page waits for the slowest read instead of all three in turn. This takes up to three
+ * pooled connections per page view instead of one.
+ */
+@Service
+@Slf4j
+public class AttemptViewService {
+
+    private final AttemptRepository attemptRepository;
+    private final AttemptAnswerRepository attemptAnswerRepository;
+    private final AttemptService attemptService;
+    private final QuestionService questionService;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final AttemptStateStore attemptStateStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean parallelReads;
+    private final ThreadFactory pageReadThreads = Thread.ofVirtual().name("exam-page-read-", 0).factory();
+
+    public AttemptViewService(AttemptRepository attemptRepository,
+                              AttemptAnswerRepository attemptAnswerRepository,
+                              AttemptService attemptService,
+                              QuestionService questionService,
+                              QuestionBankSnapshot questionBankSnapshot,
+                              AnswerWriteBuffer answerWriteBuffer,
+                              AttemptStateStore attemptStateStore,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.exam-page.parallel-reads:false}") boolean parallelReads) {
+        this.attemptRepository = attemptRepository;
+        this.attemptAnswerRepository = attemptAnswerRepository;
+        this.attemptService = attemptService;
+        this.questionService = questionService;
+        this.questionBankSnapshot = questionBankSnapshot;
+        this.answerWriteBuffer = answerWriteBuffer;
+        this.attemptStateStore = attemptStateStore;
+        this.parallelReads = parallelReads;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        if (parallelReads) {
+            log.info("Exam page reads run in parallel on virtual threads");
+        }
+    }
+
+    /**
+     * Get the view of one question of an attempt
+     *
+     * @param attemptId Attempt identifier
+     * @param index 0-based question index
+     * @param lang Language for content (en/es)
+     * @return The view, or empty if the index is outside the attempt
+     * @throws IllegalArgumentException if the attempt does not exist
+     */
+    public Optional<AttemptView> getView(String attemptId, int index, String lang) {
+        Attempt inMemory = attemptStateStore.get(attemptId);
+        if (inMemory != null) {
+            return readOnlyTransaction.execute(status ->
+                    view(inMemory, attemptStateStore.answersOf(inMemory), null, index, lang));
+        }
+        if (parallelReads) {
+            return readInParallel(attemptId, index, lang);
+        }
+        return readOnlyTransaction.execute(status -> {
+            Attempt attempt = attemptRepository.findById(attemptId)
+                    .orElseThrow(() -> new IllegalArgumentException("Attempt not found: " + attemptId));
+            if (index < 0 || index >= attempt.getTotalQuestions()) {
+                return Optional.empty();
+            }
+            // Use ordered retrieval to guarantee stable index -> question mapping
+            return view(attempt, attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt), null, index, lang);
+        });
+    }
+
+    /**
+     * Read the attempt, its answers and the question at the index at the same time. The
+     * question read finds its id and the attempt mode (which decides whether correct answers
+     * are shown) by position, so it does not wait for the other two.
+     */
+    private Optional<AttemptView> readInParallel(String attemptId, int index, String lang) {
+        try (ParallelReads reads = new ParallelReads(readOnlyTransaction, pageReadThreads)) {
+            Supplier<Optional<Attempt>> attempt = reads.fork(() -> attemptRepository.findById(attemptId));
+            Supplier<List<AttemptAnswer>> answers = reads.fork(() ->
+                    attemptAnswerRepository.findByAttemptIdOrderByPositionAsc(attemptId));
+            Supplier<Optional<QuestionDto>> question = reads.fork(() ->
+                    attemptAnswerRepository.findQuestionSlot(attemptId, index)
+                            .map(slot -> questionService.getQuestionDto(
+                                    slot.getQuestionId(), slot.getMode() == ExamMode.PRACTICE, lang)));
+            reads.join();
+
+            Attempt loaded = attempt.get()
+                    .orElseThrow(() -> new IllegalArgumentException("Attempt not found: " + attemptId));
+            return question.get().flatMap(dto -> view(loaded, answers.get(), dto, index, lang));
+        }
+    }
+
+    /**
+     * @param question The current question if already loaded, otherwise it is read here
+     */
+    private Optional<AttemptView> view(Attempt attempt, List<AttemptAnswer> answers, QuestionDto question,
+                                       int index, String lang) {
+        if (index < 0 || index >= attempt.getTotalQuestions() || index >= answers.size()) {
+            return Optional.empty();
+        }
+
+        Map<Long, AnswerWriteBuffer.PendingAnswer> pending = answerWriteBuffer.isEnabled()
+                ? answerWriteBuffer.pendingFor(attempt.getId())
+                : Map.of();
+
+        // Status counts and navigation states in one pass over the answers
+        long answeredCount = 0;
+        long markedCount = 0;
+        List<String> questionStates = new ArrayList<>(answers.size());
+        for (AttemptAnswer answer : answers) {
+            AnswerWriteBuffer.PendingAnswer pendingAnswer = pending.get(answer.getQuestionId());
+            boolean isAnswered = selectionMask(answer, pendingAnswer) != 0L;
+            boolean isMarked = isMarked(answer, pendingAnswer);
+            if (isAnswered) {
+                answeredCount++;
+            }
+            if (isMarked) {
+                markedCount++;
+            }
+            questionStates.add(AttemptService.questionState(isAnswered, isMarked));
+        }
+
+        ExamConfigDto config = attemptService.parseConfig(attempt);
+        AttemptAnswer current = answers.get(index);
+        QuestionDto dto = question != null
+                ? question
+                : questionService.getQuestionDto(current.getQuestionId(), attempt.getMode() == ExamMode.PRACTICE, lang);
+
+        return Optional.of(AttemptView.builder()
+                .id(attempt.getId())
+                .mode(attempt.getMode())
+                .totalQuestions(attempt.getTotalQuestions())
+                .startedAt(attempt.getStartedAt())
+                .timeLimitMinutes(config.getTimeLimitMinutes())
+                .showExplanationsImmediately(Boolean.TRUE.equals(config.getShowExplanationsImmediately()))
+                .currentIndex(index)
+                .question(withSelection(dto, current, pending))
+                .answeredCount(answeredCount)
+                .markedCount(markedCount)
+                .unansweredCount(attempt.getTotalQuestions() - answeredCount)
+                .questionStates(List.copyOf(questionStates))
+                .remainingSeconds(remainingSeconds(attempt, config))
+                .build());
+    }
+
+    private QuestionDto withSelection(QuestionDto dto, AttemptAnswer answer,
+                                      Map<Long, AnswerWriteBuffer.PendingAnswer> pending) {
+        // Add user's previous selection
+        AnswerWriteBuffer.PendingAnswer pendingAnswer = pending.get(answer.getQuestionId());
+        long mask = selectionMask(answer, pendingAnswer);
+        dto.setSelectedOptionIds(mask != 0L
+                ? questionBankSnapshot.selectedOptionIds(answer.getQuestionId(), mask)
+                : new ArrayList<>());
+        dto.setAnswered(mask != 0L);
+        dto.setMarked(isMarked(answer, pendingAnswer));
+        return dto;
+    }
+
+    private static long selectionMask(AttemptAnswer answer, AnswerWriteBuffer.PendingAnswer pending) {
+        return pending != null ? pending.selectionMask() : answer.getSelectedOptionMask();
+    }
+
+    private static boolean isMarked(AttemptAnswer answer, AnswerWriteBuffer.PendingAnswer pending) {
+        Boolean marked = pending != null && pending.marked() != null ? pending.marked() : answer.getMarked();
+        return Boolean.TRUE.equals(marked);
+    }
+
+    /**
+     * Remaining time for EXAM mode with a time limit
+     */
+    private Long remainingSeconds(Attempt attempt, ExamConfigDto config) {
+        if (attempt.getMode() != ExamMode.EXAM || config.getTimeLimitMinutes() == null) {
+            return null;
+        }
+
+        long elapsedSeconds = Duration.between(attempt.getStartedAt(), LocalDateTime.now()).getSeconds();
+        long totalSeconds = config.getTimeLimitMinutes() * 60L;
+        long remainingSeconds = Math.max(0, totalSeconds - elapsedSeconds);
+        log.debug("Attempt {} - Elapsed: {}s, Remaining: {}s", attempt.getId(), elapsedSeconds, remainingSeconds);
+        return remainingSeconds;
+    }
+}
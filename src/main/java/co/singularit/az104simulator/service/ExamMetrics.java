@@ -0,0 +1,113 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.ExamMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Timers and counters of the exam hot paths, published under exam.* (see /actuator/prometheus).
+ *
+ * Meters are registered once here so the services only record into them:
+ * exam.session.start{phase=selection|insert}, exam.answer.submit{path=direct|buffered|memory},
+ * exam.attempt.complete, exam.attempt.scoring, exam.history.build and the
+ * exam.sessions.started / exam.attempts.completed counters per mode.
+ */
+@Component
+public class ExamMetrics {
+
+    /** How a submitted answer was stored */
+    public enum AnswerPath {
+        /** Written in its own transaction */
+        DIRECT,
+        /** Queued in the write-behind buffer */
+        BUFFERED,
+        /** Applied to an in-memory practice attempt */
+        MEMORY
+    }
+
+    private final Timer sessionSelection;
+    private final Timer sessionInsert;
+    private final Map<AnswerPath, Timer> answerSubmit = new EnumMap<>(AnswerPath.class);
+    private final Timer attemptComplete;
+    private final Timer scoring;
+    private final Timer historyBuild;
+    private final Map<ExamMode, Counter> sessionsStarted = new EnumMap<>(ExamMode.class);
+    private final Map<ExamMode, Counter> attemptsCompleted = new EnumMap<>(ExamMode.class);
+
+    public ExamMetrics(MeterRegistry meterRegistry) {
+        this.sessionSelection = Timer.builder("exam.session.start")
+                .tag("phase", "selection")
+                .description("Time to pick the questions of a new exam session")
+                .register(meterRegistry);
+        this.sessionInsert = Timer.builder("exam.session.start")
+                .tag("phase", "insert")
+                .description("Time to store a new exam session and its question order")
+                .register(meterRegistry);
+        for (AnswerPath path : AnswerPath.values()) {
+            answerSubmit.put(path, Timer.builder("exam.answer.submit")
+                    .tag("path", path.name().toLowerCase())
+                    .description("Time to save one answer submission")
+                    .register(meterRegistry));
+        }
+        this.attemptComplete = Timer.builder("exam.attempt.complete")
+                .description("Time to complete and score an attempt")
+                .register(meterRegistry);
+        this.scoring = Timer.builder("exam.attempt.scoring")
+                .description("Time to score the answers of an attempt")
+                .register(meterRegistry);
+        this.historyBuild = Timer.builder("exam.history.build")
+                .description("Time to build the attempt history page of a student")
+                .register(meterRegistry);
+        for (ExamMode mode : ExamMode.values()) {
+            sessionsStarted.put(mode, Counter.builder("exam.sessions.started")
+                    .tag("mode", mode.name())
+                    .description("Exam sessions started")
+                    .register(meterRegistry));
+            attemptsCompleted.put(mode, Counter.builder("exam.attempts.completed")
+                    .tag("mode", mode.name())
+                    .description("Attempts completed")
+                    .register(meterRegistry));
+        }
+    }
+
+    public Timer sessionSelection() {
+        return sessionSelection;
+    }
+
+    public Timer sessionInsert() {
+        return sessionInsert;
+    }
+
+    public Timer answerSubmit(AnswerPath path) {
+        return answerSubmit.get(path);
+    }
+
+    public Timer attemptComplete() {
+        return attemptComplete;
+    }
+
+    public Timer scoring() {
+        return scoring;
+    }
+
+    public Timer historyBuild() {
+        return historyBuild;
+    }
+
+    public void sessionStarted(ExamMode mode) {
+        if (mode != null) {
+            sessionsStarted.get(mode).increment();
+        }
+    }
+
+    public void attemptCompleted(ExamMode mode) {
+        if (mode != null) {
+            attemptsCompleted.get(mode).increment();
+        }
+    }
+}
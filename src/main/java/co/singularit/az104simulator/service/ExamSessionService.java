@@ -5,8 +5,11 @@ import co.singularit.az104simulator.dto.QuestionDto;
 import co.singularit.az104simulator.repository.ExamSessionQuestionRepository;
 import co.singularit.az104simulator.repository.ExamSessionRepository;
 import co.singularit.az104simulator.repository.QuestionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +27,23 @@ public class ExamSessionService {
     private final ExamSessionQuestionRepository examSessionQuestionRepository;
     private final QuestionRepository questionRepository;
     private final QuestionService questionService;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final ExamMetrics examMetrics;
+
+    /** Marks sessions whose questions are stored as exam_session_question rows */
+    private static final long[] ROW_STORAGE = new long[0];
+
+    /** Question order per session; it never changes once the session is created */
+    private final Cache<String, long[]> sessionOrders = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build();
+
+    /**
+     * How new sessions store their questions: "rows" (one exam_session_question row each)
+     * or "packed" (ordered ids in exam_session.question_ids). Reads support both.
+     */
+    @Value("${app.session.storage:rows}")
+    private String sessionStorage;
 
     /**
      * Start a new exam session with guaranteed unique questions
@@ -60,12 +80,19 @@ public class ExamSessionService {
             .createdAt(LocalDateTime.now())
             .build();
 
-        // Select unique questions
-        List<Question> selectedQuestions = selectUniqueQuestions(
-            domains,
-            totalQuestions,
-            domainPercentages
-        );
+        // Select unique questions from one published bank version: an import that reloads the
+        // snapshot while they are sampled makes the selection start over on the new version
+        long bankVersion;
+        List<Question> selectedQuestions;
+        do {
+            bankVersion = questionBankSnapshot.bankVersion();
+            selectedQuestions = examMetrics.sessionSelection().record(() -> selectUniqueQuestions(
+                domains,
+                totalQuestions,
+                domainPercentages
+            ));
+        } while (bankVersion != questionBankSnapshot.bankVersion());
+        session.setBankVersion(bankVersion);
 
         // Verify we have enough questions
         if (selectedQuestions.size() < totalQuestions) {
@@ -78,6 +105,28 @@ public class ExamSessionService {
             throw new IllegalArgumentException(errorMsg);
         }
 
+        List<Question> questions = selectedQuestions;
+        examMetrics.sessionInsert().record(() -> storeSession(session, questions));
+        examMetrics.sessionStarted(mode);
+        return sessionId;
+    }
+
+    /**
+     * Insert a new session with its question order, as rows or packed depending on app.session.storage
+     */
+    private void storeSession(ExamSession session, List<Question> selectedQuestions) {
+        String sessionId = session.getId();
+
+        if ("packed".equalsIgnoreCase(sessionStorage)) {
+            // One row for the whole session; uniqueness is checked in memory by pack()
+            long[] questionIds = selectedQuestions.stream().mapToLong(Question::getId).toArray();
+            session.setQuestionIds(PackedQuestionIds.pack(questionIds));
+            examSessionRepository.save(session);
+            sessionOrders.put(sessionId, questionIds);
+            log.info("Created packed session {} with {} unique questions", sessionId, questionIds.length);
+            return;
+        }
+
         // Save session first
         examSessionRepository.save(session);
 
@@ -97,6 +146,8 @@ public class ExamSessionService {
         // Batch insert all session questions
         try {
             examSessionQuestionRepository.saveAll(sessionQuestions);
+            // Sequence ids defer the batched INSERTs to flush; flush here so constraint violations land in this catch
+            examSessionQuestionRepository.flush();
             log.info("Successfully created session {} with {} unique questions",
                      sessionId, sessionQuestions.size());
         } catch (Exception e) {
@@ -104,7 +155,26 @@ public class ExamSessionService {
             throw new RuntimeException("Failed to create session due to database constraint violation", e);
         }
 
-        return sessionId;
+        sessionOrders.put(sessionId, ROW_STORAGE);
+    }
+
+    /**
+     * Ordered question ids of a packed session
+     *
+     * @return the ids, or null if the session stores its questions as rows (or does not exist)
+     */
+    private long[] packedQuestionIds(String sessionId) {
+        long[] questionIds = sessionOrders.getIfPresent(sessionId);
+        if (questionIds == null) {
+            Optional<ExamSession> session = examSessionRepository.findById(sessionId);
+            if (session.isEmpty()) {
+                return null;
+            }
+            byte[] packed = session.get().getQuestionIds();
+            questionIds = packed != null ? PackedQuestionIds.unpack(packed) : ROW_STORAGE;
+            sessionOrders.put(sessionId, questionIds);
+        }
+        return questionIds != ROW_STORAGE ? questionIds : null;
     }
 
     /**
@@ -147,6 +217,15 @@ public class ExamSessionService {
     ) {
         log.debug("Fetching question at position {} for session {}", position, sessionId);
 
+        long[] packed = packedQuestionIds(sessionId);
+        if (packed != null) {
+            if (position == null || position < 1 || position > packed.length) {
+                log.warn("No question found at position {} for session {}", position, sessionId);
+                return null;
+            }
+            return questionService.getQuestionDto(packed[position - 1], includeCorrectAnswers, lang);
+        }
+
         Optional<ExamSessionQuestion> sessionQuestionOpt =
             examSessionQuestionRepository.findBySessionIdAndPosition(sessionId, position);
 
@@ -169,6 +248,11 @@ public class ExamSessionService {
      */
     @Transactional(readOnly = true)
     public List<Long> getSessionQuestionIds(String sessionId) {
+        long[] packed = packedQuestionIds(sessionId);
+        if (packed != null) {
+            return Arrays.stream(packed).boxed().collect(Collectors.toList());
+        }
+
         return examSessionQuestionRepository.findBySessionIdOrderByPosition(sessionId)
             .stream()
             .map(sq -> sq.getQuestion().getId())
@@ -185,6 +269,16 @@ public class ExamSessionService {
     public Map<Integer, QuestionDto> getSessionSummary(String sessionId, String lang) {
         log.info("Generating summary for session {}", sessionId);
 
+        long[] packed = packedQuestionIds(sessionId);
+        if (packed != null) {
+            Map<Integer, QuestionDto> summary = new LinkedHashMap<>();
+            for (int i = 0; i < packed.length; i++) {
+                // Never include correct answers in summary
+                summary.put(i + 1, questionService.getQuestionDto(packed[i], false, lang));
+            }
+            return summary;
+        }
+
         List<ExamSessionQuestion> sessionQuestions =
             examSessionQuestionRepository.findBySessionIdWithQuestionsOrderByPosition(sessionId);
 
@@ -202,16 +296,19 @@ public class ExamSessionService {
     }
 
     /**
-     * Complete a session
+     * Complete a session.
+     * Completing an already completed session does nothing.
      *
      * @param sessionId The session identifier
      */
     @Transactional
     public void completeSession(String sessionId) {
-        log.info("Completing session {}", sessionId);
-
         ExamSession session = examSessionRepository.findById(sessionId)
             .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
+        if (session.getCompletedAt() != null) {
+            return;
+        }
+        log.info("Completing session {}", sessionId);
 
         session.setCompletedAt(LocalDateTime.now());
         examSessionRepository.save(session);
@@ -248,6 +345,11 @@ public class ExamSessionService {
      */
     @Transactional(readOnly = true)
     public boolean validateSessionUniqueness(String sessionId) {
+        long[] packed = packedQuestionIds(sessionId);
+        if (packed != null) {
+            return PackedQuestionIds.allUnique(packed);
+        }
+
         List<Long> questionIds = examSessionQuestionRepository.findQuestionIdsBySessionId(sessionId);
         Set<Long> uniqueIds = new HashSet<>(questionIds);
 
@@ -269,6 +371,10 @@ public class ExamSessionService {
      */
     @Transactional(readOnly = true)
     public long getSessionQuestionCount(String sessionId) {
+        long[] packed = packedQuestionIds(sessionId);
+        if (packed != null) {
+            return packed.length;
+        }
         return examSessionQuestionRepository.countBySessionId(sessionId);
     }
 }
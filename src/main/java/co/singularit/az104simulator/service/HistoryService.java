@@ -27,7 +27,9 @@ public class HistoryService {
     private final AttemptRepository attemptRepository;
     private final AttemptAnswerRepository attemptAnswerRepository;
     private final QuestionRepository questionRepository;
+    private final QuestionBankSnapshot questionBankSnapshot;
     private final ObjectMapper objectMapper;
+    private final ExamMetrics examMetrics;
 
     /**
      * Get attempt history for a student
@@ -41,18 +43,18 @@ public class HistoryService {
     public List<AttemptHistoryDto> getAttemptHistory(String studentId, ExamMode mode, int limit) {
         log.info("Getting attempt history for studentId={}, mode={}, limit={}", studentId, mode, limit);
 
-        Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "startedAt"));
+        return examMetrics.historyBuild().record(() -> {
+            Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "startedAt"));
 
-        List<Attempt> attempts;
-        if (mode != null) {
-            attempts = attemptRepository.findByStudentIdAndModeAndIsCompletedTrue(studentId, mode, pageable);
-        } else {
-            attempts = attemptRepository.findByStudentIdAndIsCompletedTrue(studentId, pageable);
-        }
+            List<Attempt> attempts;
+            if (mode != null) {
+                attempts = attemptRepository.findByStudentIdAndModeAndIsCompletedTrue(studentId, mode, pageable);
+            } else {
+                attempts = attemptRepository.findByStudentIdAndIsCompletedTrue(studentId, pageable);
+            }
 
-        return attempts.stream()
-                .map(this::buildAttemptHistoryDto)
-                .collect(Collectors.toList());
+            return buildAttemptHistoryDtos(attempts);
+        });
     }
 
     /**
@@ -84,13 +86,28 @@ public class HistoryService {
         // Get all answers ordered by position
         List<AttemptAnswer> answers = attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
 
+        // Load every reviewed question with its options in one query
+        AnswerKeyIndex answerKeys = questionBankSnapshot.answerKeysCovering(
+                answers.stream().map(AttemptAnswer::getQuestionId).toList());
+        Set<Long> questionIds = answers.stream()
+                .map(AttemptAnswer::getQuestionId)
+                .collect(Collectors.toSet());
+        Map<Long, Question> questionsById = new HashMap<>();
+        if (!questionIds.isEmpty()) {
+            for (Question question : questionRepository.findAllWithOptionsByIdIn(questionIds)) {
+                questionsById.put(question.getId(), question);
+            }
+        }
+
         // Build question review DTOs
         Map<Integer, QuestionReviewDto> reviewMap = new LinkedHashMap<>();
         for (AttemptAnswer answer : answers) {
-            Question question = questionRepository.findById(answer.getQuestionId())
-                    .orElseThrow(() -> new IllegalArgumentException("Question not found: " + answer.getQuestionId()));
+            Question question = questionsById.get(answer.getQuestionId());
+            if (question == null) {
+                throw new IllegalArgumentException("Question not found: " + answer.getQuestionId());
+            }
 
-            QuestionReviewDto reviewDto = buildQuestionReviewDto(question, answer, lang);
+            QuestionReviewDto reviewDto = buildQuestionReviewDto(question, answer, answerKeys, lang);
             reviewMap.put(answer.getPosition() + 1, reviewDto); // 1-indexed for display
         }
 
@@ -109,48 +126,100 @@ public class HistoryService {
             throw new IllegalArgumentException("Attempt not found: " + attemptId);
         }
 
-        return buildAttemptHistoryDto(attempt);
+        return buildAttemptHistoryDtos(List.of(attempt)).get(0);
     }
 
     /**
-     * Build AttemptHistoryDto with calculated stats
+     * Build AttemptHistoryDtos for a page of attempts.
+     *
+     * Attempts completed with summary counters are rendered from the attempt row alone.
+     * Older attempts are summarized from their answers with one query for the answers of all
+     * of them, scored against the snapshot answer keys (one more query only if a question is
+     * newer than the snapshot).
      */
-    private AttemptHistoryDto buildAttemptHistoryDto(Attempt attempt) {
-        List<AttemptAnswer> answers = attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt);
+    private List<AttemptHistoryDto> buildAttemptHistoryDtos(List<Attempt> attempts) {
+        List<Attempt> legacyAttempts = attempts.stream()
+                .filter(attempt -> !attempt.hasSummaryCounters())
+                .toList();
+        Map<String, AnswerCounts> countsByAttempt = countAnswers(legacyAttempts);
 
-        int correctCount = 0;
-        int incorrectCount = 0;
-        int unansweredCount = 0;
-        int markedCount = 0;
+        return attempts.stream()
+                .map(attempt -> buildAttemptHistoryDto(attempt, attempt.hasSummaryCounters()
+                        ? AnswerCounts.of(attempt)
+                        : countsByAttempt.getOrDefault(attempt.getId(), new AnswerCounts())))
+                .collect(Collectors.toList());
+    }
 
-        for (AttemptAnswer answer : answers) {
-            List<Long> selectedIds = parseSelectedOptionIds(answer.getSelectedOptionIdsJson());
+    /**
+     * Summarize the answers of attempts that have no stored counters
+     */
+    private Map<String, AnswerCounts> countAnswers(List<Attempt> attempts) {
+        Map<String, AnswerCounts> countsByAttempt = new HashMap<>();
+        if (attempts.isEmpty()) {
+            return countsByAttempt;
+        }
 
-            if (selectedIds == null || selectedIds.isEmpty()) {
-                unansweredCount++;
+        // Load the answers of every listed attempt in one query
+        List<String> attemptIds = attempts.stream().map(Attempt::getId).toList();
+        List<AttemptAnswerRepository.AnswerStateView> answers =
+                attemptAnswerRepository.findAnswerStatesByAttemptIdIn(attemptIds);
+
+        // Collect the questions that need an answer key
+        Set<Long> answeredQuestionIds = new HashSet<>();
+        for (AttemptAnswerRepository.AnswerStateView answer : answers) {
+            if (selectionOf(answer) != 0L) {
+                answeredQuestionIds.add(answer.getQuestionId());
+            }
+        }
+
+        AnswerKeyIndex answerKeys = questionBankSnapshot.answerKeysCovering(answeredQuestionIds);
+
+        // Count correct, incorrect, unanswered and marked answers in one pass
+        for (AttemptAnswerRepository.AnswerStateView answer : answers) {
+            long selection = selectionOf(answer);
+            AnswerCounts counts = countsByAttempt.computeIfAbsent(answer.getAttemptId(), id -> new AnswerCounts());
+
+            if (selection == 0L) {
+                counts.unanswered++;
             } else {
-                // Check if correct
-                Question question = questionRepository.findById(answer.getQuestionId()).orElse(null);
-                if (question != null && isAnswerCorrect(question, selectedIds)) {
-                    correctCount++;
+                int index = answerKeys.indexOf(answer.getQuestionId());
+                if (index >= 0 && answerKeys.isCorrect(index, selection)) {
+                    counts.correct++;
                 } else {
-                    incorrectCount++;
+                    counts.incorrect++;
                 }
             }
 
             if (Boolean.TRUE.equals(answer.getMarked())) {
-                markedCount++;
+                counts.marked++;
             }
         }
 
+        return countsByAttempt;
+    }
+
+    private static long selectionOf(AttemptAnswerRepository.AnswerStateView answer) {
+        Long mask = answer.getSelectedOptionMask();
+        return mask != null ? mask : 0L;
+    }
+
+    /**
+     * Build AttemptHistoryDto from precomputed answer counts
+     */
+    private AttemptHistoryDto buildAttemptHistoryDto(Attempt attempt, AnswerCounts counts) {
+        int correctCount = counts.correct;
+        int incorrectCount = counts.incorrect;
+        int unansweredCount = counts.unanswered;
+        int markedCount = counts.marked;
+
         int scorePercentage = attempt.getScorePercentage() != null
                 ? attempt.getScorePercentage()
                 : calculateScorePercentage(correctCount, attempt.getTotalQuestions());
 
-        // Get locale from config
-        String locale = "es"; // default
+        // Get locale stored at creation, or from config for older attempts
+        String locale = attempt.getLocale() != null ? attempt.getLocale() : "es";
         try {
-            if (attempt.getConfigJson() != null) {
+            if (attempt.getLocale() == null && attempt.getConfigJson() != null) {
                 Map<String, Object> config = objectMapper.readValue(
                         attempt.getConfigJson(),
                         new TypeReference<Map<String, Object>>() {}
@@ -180,12 +249,17 @@ public class HistoryService {
     /**
      * Build QuestionReviewDto for a specific question and answer
      */
-    private QuestionReviewDto buildQuestionReviewDto(Question question, AttemptAnswer answer, String lang) {
-        List<Long> selectedIds = parseSelectedOptionIds(answer.getSelectedOptionIdsJson());
+    private QuestionReviewDto buildQuestionReviewDto(Question question, AttemptAnswer answer,
+                                                     AnswerKeyIndex answerKeys, String lang) {
         List<Long> correctIds = getCorrectOptionIds(question);
 
-        boolean isAnswered = selectedIds != null && !selectedIds.isEmpty();
-        boolean isCorrect = isAnswerCorrect(question, selectedIds);
+        boolean isAnswered = answer.isAnswered();
+        int index = answerKeys.indexOf(question.getId());
+        List<Long> selectedIds = index >= 0
+                ? answerKeys.optionIds(index, answer.getSelectedOptionMask())
+                : new ArrayList<>();
+        boolean isCorrect = isAnswered && index >= 0
+                && answerKeys.isCorrect(index, answer.getSelectedOptionMask());
 
         // Get localized content
         String stem = "es".equals(lang) ? question.getStemEs() : question.getStemEn();
@@ -198,7 +272,7 @@ public class HistoryService {
                         .label(option.getLabel())
                         .text("es".equals(lang) ? option.getTextEs() : option.getTextEn())
                         .isCorrect(option.getIsCorrect())
-                        .isSelected(selectedIds != null && selectedIds.contains(option.getId()))
+                        .isSelected(selectedIds.contains(option.getId()))
                         .build())
                 .collect(Collectors.toList());
 
@@ -211,7 +285,7 @@ public class HistoryService {
                 .stem(stem)
                 .explanation(explanation)
                 .options(optionDtos)
-                .selectedOptionIds(selectedIds != null ? selectedIds : new ArrayList<>())
+                .selectedOptionIds(selectedIds)
                 .correctOptionIds(correctIds)
                 .isCorrect(isCorrect)
                 .isAnswered(isAnswered)
@@ -219,21 +293,6 @@ public class HistoryService {
                 .build();
     }
 
-    /**
-     * Parse selected option IDs from JSON
-     */
-    private List<Long> parseSelectedOptionIds(String json) {
-        if (json == null || json.isEmpty()) {
-            return null;
-        }
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<Long>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse selected option IDs: {}", json, e);
-            return null;
-        }
-    }
-
     /**
      * Get correct option IDs for a question
      */
@@ -244,28 +303,6 @@ public class HistoryService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Check if answer is correct
-     * For MULTI questions, all selected options must be correct and all correct options must be selected
-     */
-    private boolean isAnswerCorrect(Question question, List<Long> selectedIds) {
-        if (selectedIds == null || selectedIds.isEmpty()) {
-            return false;
-        }
-
-        List<Long> correctIds = getCorrectOptionIds(question);
-
-        // For MULTI questions, sets must match exactly
-        if (question.getQtype() == QuestionType.MULTI) {
-            Set<Long> selectedSet = new HashSet<>(selectedIds);
-            Set<Long> correctSet = new HashSet<>(correctIds);
-            return selectedSet.equals(correctSet);
-        }
-
-        // For SINGLE and YESNO, just check if the selected option is correct
-        return selectedIds.size() == 1 && correctIds.contains(selectedIds.get(0));
-    }
-
     /**
      * Calculate score percentage
      */
@@ -275,4 +312,23 @@ public class HistoryService {
         }
         return Math.round((correctCount * 100.0f) / totalQuestions);
     }
+
+    /**
+     * Running answer counts of one attempt
+     */
+    private static final class AnswerCounts {
+        private int correct;
+        private int incorrect;
+        private int unanswered;
+        private int marked;
+
+        static AnswerCounts of(Attempt attempt) {
+            AnswerCounts counts = new AnswerCounts();
+            counts.correct = attempt.getCorrectCount();
+            counts.incorrect = attempt.getIncorrectCount();
+            counts.unanswered = attempt.getUnansweredCount();
+            counts.marked = attempt.getMarkedCount();
+            return counts;
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.QuestionType;
+
+import java.util.List;
+
+/**
+ * One validated question read from an import file, before it gets ids.
+ * Texts are kept per language; the legacy single-language columns take Spanish, falling back to English.
+ */
+public record ImportedQuestion(Domain domain,
+                               Difficulty difficulty,
+                               QuestionType qtype,
+                               String stemEs,
+                               String stemEn,
+                               String explanationEs,
+                               String explanationEn,
+                               String tagsJson,
+                               List<Option> options) {
+
+    public record Option(String label, String textEs, String textEn, boolean correct) {
+
+        public String text() {
+            return textEs != null ? textEs : textEn;
+        }
+    }
+
+    public String stem() {
+        return stemEs != null ? stemEs : stemEn;
+    }
+
+    public String explanation() {
+        return explanationEs != null ? explanationEs : explanationEn;
+    }
+}
@@ -0,0 +1,58 @@
+package co.singularit.az104simulator.service;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Binary encoding of a session's ordered question ids for the exam_session.question_ids column.
+ *
+ * Each id takes 8 bytes, big-endian, in position order, so the question at 1-indexed
+ * position p is the (p - 1)-th long of the array.
+ */
+public final class PackedQuestionIds {
+
+    private PackedQuestionIds() {
+    }
+
+    /**
+     * Pack question ids in position order
+     *
+     * @throws IllegalArgumentException if an id appears more than once
+     */
+    public static byte[] pack(long[] questionIds) {
+        if (!allUnique(questionIds)) {
+            throw new IllegalArgumentException("Session question ids must be unique");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(questionIds.length * Long.BYTES);
+        for (long id : questionIds) {
+            buffer.putLong(id);
+        }
+        return buffer.array();
+    }
+
+    public static long[] unpack(byte[] packed) {
+        if (packed.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Packed question ids have an invalid length: " + packed.length);
+        }
+        long[] ids = new long[packed.length / Long.BYTES];
+        ByteBuffer.wrap(packed).asLongBuffer().get(ids);
+        return ids;
+    }
+
+    /**
+     * Check uniqueness with a bitset over the ids (question ids are small positive numbers)
+     */
+    public static boolean allUnique(long[] questionIds) {
+        BitSet seen = new BitSet();
+        for (long id : questionIds) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Question id out of range: " + id);
+            }
+            if (seen.get((int) id)) {
+                return false;
+            }
+            seen.set((int) id);
+        }
+        return true;
+    }
+}
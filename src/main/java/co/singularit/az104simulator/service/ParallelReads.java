@@ -0,0 +1,96 @@
+package co.singularit.az104simulator.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Scope for the independent reads of one page: each forked read runs on its own virtual
+ * thread in its own read-only transaction, and {@link #join} waits for all of them, so the
+ * page waits for its slowest read rather than the sum. The first read to fail cancels the
+ * others and its exception is rethrown from join. Closing the scope waits for whatever is
+ * still running, so no read outlives the request that forked it.
+ *
+ * Cancelling never interrupts a read: an interrupt during H2 file I/O closes the database
+ * file's channel (ClosedByInterruptException) and takes the database down for every request.
+ * A cancelled read runs to the end of its transaction and its result is discarded.
+ *
+ * A hand-rolled equivalent of the shutdown-on-failure policy of StructuredTaskScope, which is
+ * a preview API in Java 21. Use from a single thread, in try-with-resources.
+ */
+final class ParallelReads implements AutoCloseable {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final CompletionService<Object> completion;
+    private final List<Future<Object>> forks = new ArrayList<>();
+
+    ParallelReads(TransactionTemplate readOnlyTransaction, ThreadFactory threadFactory) {
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        this.completion = new ExecutorCompletionService<>(executor);
+    }
+
+    /**
+     * Start a read; its result is available from the returned supplier after {@link #join}
+     */
+    <T> Supplier<T> fork(Supplier<T> read) {
+        Future<Object> future = completion.submit(() -> readOnlyTransaction.execute(status -> read.get()));
+        forks.add(future);
+        @SuppressWarnings("unchecked")
+        Supplier<T> result = () -> (T) future.resultNow();
+        return result;
+    }
+
+    /**
+     * Wait for every read, or for the first failure
+     *
+     * @throws RuntimeException the first read's exception, after the other reads are cancelled
+     */
+    void join() {
+        try {
+            for (int i = 0; i < forks.size(); i++) {
+                Future<Object> done = completion.take();
+                if (done.state() == Future.State.FAILED) {
+                    cancelAll();
+                    Throwable cause = done.exceptionNow();
+                    if (cause instanceof RuntimeException e) {
+                        throw e;
+                    }
+                    if (cause instanceof Error e) {
+                        throw e;
+                    }
+                    throw new IllegalStateException("Page read failed", cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the page", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        // Waits for the cancelled reads to finish
+        executor.close();
+    }
+
+    /**
+     * Discard the results of reads still running, without interrupting them
+     */
+    private void cancelAll() {
+        for (Future<Object> fork : forks) {
+            fork.cancel(false);
+        }
+    }
+}
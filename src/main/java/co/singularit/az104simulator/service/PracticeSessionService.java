@@ -0,0 +1,227 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
+import co.singularit.az104simulator.dto.QuestionDto;
+import co.singularit.az104simulator.dto.ResultDto;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Stateless practice runs.
+ *
+ * Starting a run samples the questions from the snapshot and returns them in a signed
+ * token (see {@link PracticeTokenCodec}); no session, attempt or answer row is written.
+ * The client keeps its answers and sends them back when it finishes. Only then, and only
+ * if the user asks for it, the run is stored as a completed PRACTICE attempt so it shows
+ * up in history. A token is saved at most once: saved runs are remembered until their token
+ * expires. They are remembered in memory, so this holds per instance and until a restart
+ * (without app.practice-token.secret a restart invalidates every token anyway).
+ */
+@Service
+@Slf4j
+public class PracticeSessionService {
+
+    /** Languages of the question bank */
+    private static final Set<String> SUPPORTED_LOCALES = Set.of("es", "en");
+
+    private final QuestionService questionService;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final PracticeTokenCodec practiceTokenCodec;
+    private final ScoringService scoringService;
+    private final AttemptService attemptService;
+    private final AttemptRepository attemptRepository;
+    /** Runs already saved, by seed and issue time, kept as long as their token is valid */
+    private final Cache<String, Boolean> savedRuns;
+
+    public PracticeSessionService(QuestionService questionService,
+                                  QuestionBankSnapshot questionBankSnapshot,
+                                  PracticeTokenCodec practiceTokenCodec,
+                                  ScoringService scoringService,
+                                  AttemptService attemptService,
+                                  AttemptRepository attemptRepository) {
+        this.questionService = questionService;
+        this.questionBankSnapshot = questionBankSnapshot;
+        this.practiceTokenCodec = practiceTokenCodec;
+        this.scoringService = scoringService;
+        this.attemptService = attemptService;
+        this.attemptRepository = attemptRepository;
+        this.savedRuns = Caffeine.newBuilder()
+                .expireAfterWrite(practiceTokenCodec.ttl())
+                .build();
+    }
+
+    /**
+     * Whether a practice run can be started in the given language
+     */
+    public static boolean isSupportedLocale(String locale) {
+        return locale != null && SUPPORTED_LOCALES.contains(locale);
+    }
+
+    /**
+     * Start a stateless practice run
+     *
+     * @param domainPercentages Optional distribution percentages by domain
+     * @param locale "es" or "en"
+     * @return The signed token carrying the run
+     * @throws IllegalArgumentException if the locale is not supported, more questions than a token
+     *         holds are requested, or not enough unique questions are available
+     */
+    public String start(int totalQuestions, String locale, List<Domain> domains, Map<Domain, Integer> domainPercentages) {
+        if (!isSupportedLocale(locale)) {
+            throw new IllegalArgumentException("Unsupported locale: " + locale);
+        }
+        if (totalQuestions > PracticeTokenCodec.MAX_QUESTIONS) {
+            throw new IllegalArgumentException("A practice run holds at most " + PracticeTokenCodec.MAX_QUESTIONS + " questions");
+        }
+        int seed = new Random().nextInt(Integer.MAX_VALUE);
+        // Seeded so the selection can be reproduced from the token for the same bank version
+        Random random = new Random(seed);
+        long[] questionIds = domainPercentages != null && !domainPercentages.isEmpty()
+                ? questionService.sampleQuestionIdsWithDistribution(domains, totalQuestions, domainPercentages, random)
+                : questionService.sampleQuestionIds(domains, totalQuestions, random);
+
+        if (questionIds.length < totalQuestions) {
+            throw new IllegalArgumentException(String.format(
+                    "Not enough questions in the bank to create a unique session. Requested: %d, Available: %d",
+                    totalQuestions, questionIds.length));
+        }
+
+        long answerKeyFingerprint = questionBankSnapshot.answerKeysCovering(Arrays.stream(questionIds).boxed().toList())
+                .fingerprint(questionIds);
+        PracticeToken token = new PracticeToken(seed, questionBankSnapshot.bankVersion(), answerKeyFingerprint,
+                locale, questionIds, Instant.now());
+        log.info("Started stateless practice run with {} questions", questionIds.length);
+        return practiceTokenCodec.encode(token);
+    }
+
+    /**
+     * Get a question of the run, with its correct answers
+     *
+     * @param position 1-indexed position
+     * @return The question, or null if the position is outside the run
+     * @throws IllegalArgumentException if the token is invalid
+     * @throws IllegalStateException if a question of the run changed since it started
+     */
+    public QuestionDto getQuestion(String token, int position, String lang) {
+        PracticeToken practice = verify(token);
+        if (position < 1 || position > practice.totalQuestions()) {
+            return null;
+        }
+        return questionService.getQuestionDto(practice.questionIds()[position - 1], true, lang);
+    }
+
+    /**
+     * Score a finished run and, if requested, store it as a completed attempt
+     *
+     * @param answers Answers kept by the client; questions without one count as unanswered
+     * @param save Whether to store the run in the student's history
+     * @return The results; attemptId is only set when the run was saved
+     * @throws IllegalArgumentException if the token or an answer is invalid
+     * @throws IllegalStateException if a question of the run changed since it started, or the run was already saved
+     */
+    public ResultDto finish(String token, List<AnswerSubmissionDto> answers, boolean save, String studentId) {
+        PracticeToken practice = practiceTokenCodec.decode(token);
+        AnswerKeyIndex keys = verifiedAnswerKeys(practice);
+        long[] questionIds = practice.questionIds();
+
+        Map<Long, AnswerSubmissionDto> answersByQuestion = new HashMap<>();
+        if (answers != null) {
+            for (AnswerSubmissionDto answer : answers) {
+                answersByQuestion.put(answer.getQuestionId(), answer);
+            }
+        }
+
+        List<Long> ids = Arrays.stream(questionIds).boxed().toList();
+        if (!ids.containsAll(answersByQuestion.keySet())) {
+            throw new IllegalArgumentException("Answers contain a question that is not part of this practice run");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Attempt attempt = new Attempt();
+        attempt.setMode(ExamMode.PRACTICE);
+        attempt.setStudentId(studentId);
+        attempt.setLocale(practice.locale());
+        attempt.setTotalQuestions(questionIds.length);
+        attempt.setStartedAt(LocalDateTime.ofInstant(practice.issuedAt(), ZoneId.systemDefault()));
+        attempt.setEndedAt(now);
+        attempt.setDurationSeconds((int) Duration.between(attempt.getStartedAt(), now).getSeconds());
+        attempt.setCurrentQuestionIndex(questionIds.length - 1);
+        attempt.setIsCompleted(true);
+
+        for (int position = 0; position < questionIds.length; position++) {
+            AnswerSubmissionDto submission = answersByQuestion.get(questionIds[position]);
+            int index = keys.indexOf(questionIds[position]);
+            long mask = submission != null && index >= 0
+                    ? keys.selectionMask(index, submission.getSelectedOptionIds())
+                    : 0L;
+            if (mask == AnswerKeyIndex.INVALID) {
+                throw new IllegalArgumentException("Invalid options " + submission.getSelectedOptionIds()
+                        + " for question: " + questionIds[position]);
+            }
+
+            AttemptAnswer answer = new AttemptAnswer();
+            answer.setQuestionId(questionIds[position]);
+            answer.setPosition(position);
+            answer.setSelectedOptionMask(mask);
+            answer.setAnsweredAt(mask != 0L ? now : null);
+            answer.setMarked(submission != null && Boolean.TRUE.equals(submission.getMarked()));
+            attempt.addAnswer(answer);
+        }
+
+        AttemptScore score = scoringService.score(attempt.getAnswers());
+        attempt.setScorePercentage(Math.round((score.correct() * 100.0f) / attempt.getTotalQuestions()));
+        attemptService.storeSummary(attempt, score);
+
+        ResultDto result = scoringService.toResultDto(attempt, score);
+        if (save) {
+            String run = practice.seed() + "@" + practice.issuedAt().getEpochSecond();
+            if (savedRuns.asMap().putIfAbsent(run, Boolean.TRUE) != null) {
+                throw new IllegalStateException("This practice run has already been saved");
+            }
+            try {
+                // The attempt and its answers are inserted together in one transaction
+                attemptRepository.save(attempt);
+            } catch (RuntimeException e) {
+                // Not saved, so the run can be finished again
+                savedRuns.invalidate(run);
+                throw e;
+            }
+            log.info("Saved stateless practice run as attempt {}", attempt.getId());
+        } else {
+            result.setAttemptId(null);
+        }
+        return result;
+    }
+
+    private PracticeToken verify(String token) {
+        PracticeToken practice = practiceTokenCodec.decode(token);
+        verifiedAnswerKeys(practice);
+        return practice;
+    }
+
+    /**
+     * Answer keys of the run's questions, checked against the ones it started with. Imports that
+     * only add, retag or delete other questions leave the run valid; soft-deleted questions of the
+     * run still resolve from the database.
+     *
+     * @throws IllegalStateException if a question of the run is gone or its answer key changed
+     */
+    private AnswerKeyIndex verifiedAnswerKeys(PracticeToken practice) {
+        long[] questionIds = practice.questionIds();
+        AnswerKeyIndex keys = questionBankSnapshot.answerKeysCovering(Arrays.stream(questionIds).boxed().toList());
+        if (keys.fingerprint(questionIds) != practice.answerKeyFingerprint()) {
+            throw new IllegalStateException("The question bank changed since this practice run started");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,20 @@
+package co.singularit.az104simulator.service;
+
+import java.time.Instant;
+
+/**
+ * State of a stateless practice run, carried by the client in a signed token.
+ *
+ * @param seed Seed the questions were sampled with
+ * @param bankVersion Question bank version ({@link QuestionBankSnapshot#bankVersion()}) the questions were sampled from
+ * @param answerKeyFingerprint Fingerprint of the run's answer keys at start ({@link AnswerKeyIndex#fingerprint(long[])})
+ * @param locale Language chosen at start
+ * @param questionIds Question ids in position order; must not be modified
+ * @param issuedAt When the run was started
+ */
+public record PracticeToken(int seed, long bankVersion, long answerKeyFingerprint, String locale, long[] questionIds, Instant issuedAt) {
+
+    public int totalQuestions() {
+        return questionIds.length;
+    }
+}
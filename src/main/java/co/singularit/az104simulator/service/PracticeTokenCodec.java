@@ -0,0 +1,163 @@
+package co.singularit.az104simulator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Encodes practice runs as HMAC-SHA256 signed tokens: {@code base64url(payload).base64url(mac)}.
+ *
+ * The payload is binary: format version, issue time, bank version, answer key fingerprint,
+ * seed, locale and the question ids in position order. Tokens are not encrypted; they only hold ids the client
+ * sees anyway. Without app.practice-token.secret a random key is generated at boot, so
+ * tokens do not survive a restart.
+ */
+@Component
+@Slf4j
+public class PracticeTokenCodec {
+
+    private static final byte FORMAT_VERSION = 2;
+    private static final String ALGORITHM = "HmacSHA256";
+    /** Most questions a token can carry */
+    public static final int MAX_QUESTIONS = 1000;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public PracticeTokenCodec(@Value("${app.practice-token.secret:}") String secret,
+                              @Value("${app.practice-token.ttl-minutes:1440}") long ttlMinutes) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.practice-token.secret is not set, practice tokens will not survive a restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    /**
+     * How long a token stays valid after it is issued
+     */
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the locale or the question ids do not fit the format
+     */
+    public String encode(PracticeToken token) {
+        byte[] locale = token.locale().getBytes(StandardCharsets.UTF_8);
+        // Lengths are stored as a signed byte and a signed short
+        if (locale.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Locale too long for a practice token: " + token.locale());
+        }
+        if (token.questionIds().length > MAX_QUESTIONS) {
+            throw new IllegalArgumentException("A practice run holds at most " + MAX_QUESTIONS + " questions");
+        }
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES * 3 + Integer.BYTES
+                + 1 + locale.length + Short.BYTES + token.questionIds().length * Long.BYTES);
+        payload.put(FORMAT_VERSION);
+        payload.putLong(token.issuedAt().getEpochSecond());
+        payload.putLong(token.bankVersion());
+        payload.putLong(token.answerKeyFingerprint());
+        payload.putInt(token.seed());
+        payload.put((byte) locale.length);
+        payload.put(locale);
+        payload.putShort((short) token.questionIds().length);
+        for (long id : token.questionIds()) {
+            payload.putLong(id);
+        }
+
+        byte[] bytes = payload.array();
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+    }
+
+    /**
+     * Verify and decode a token
+     *
+     * @throws IllegalArgumentException if the token is malformed, tampered with or expired
+     */
+    public PracticeToken decode(String token) {
+        return decode(token, Instant.now());
+    }
+
+    PracticeToken decode(String token, Instant now) {
+        if (token == null) {
+            throw new IllegalArgumentException("Practice token is required");
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Malformed practice token");
+        }
+
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            mac = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed practice token", e);
+        }
+
+        // Constant-time comparison, the payload is only parsed once the signature is valid
+        if (!MessageDigest.isEqual(sign(payload), mac)) {
+            throw new IllegalArgumentException("Invalid practice token signature");
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            if (buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported practice token version");
+            }
+            Instant issuedAt = Instant.ofEpochSecond(buffer.getLong());
+            long bankVersion = buffer.getLong();
+            long answerKeyFingerprint = buffer.getLong();
+            int seed = buffer.getInt();
+            byte[] locale = new byte[buffer.get()];
+            buffer.get(locale);
+            int count = buffer.getShort();
+            if (count < 0 || count > MAX_QUESTIONS || buffer.remaining() != count * Long.BYTES) {
+                throw new IllegalArgumentException("Malformed practice token");
+            }
+            long[] questionIds = new long[count];
+            buffer.asLongBuffer().get(questionIds);
+
+            if (issuedAt.plus(ttl).isBefore(now)) {
+                throw new IllegalArgumentException("Practice token has expired");
+            }
+            return new PracticeToken(seed, bankVersion, answerKeyFingerprint, new String(locale, StandardCharsets.UTF_8), questionIds, issuedAt);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Malformed practice token", e);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign practice token", e);
+        }
+    }
+}
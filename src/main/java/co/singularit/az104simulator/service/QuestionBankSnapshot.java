@@ -0,0 +1,278 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Immutable in-memory copy of the question bank.
+ *
+ * The bank only changes on admin import, so it is loaded once at boot and rebuilt
+ * after each import. Question selection works against the precomputed id arrays
+ * instead of scanning the question table on every session start. Only active questions
+ * are loaded. Each snapshot carries the bank version it was loaded at
+ * (question_bank_state.version) and is published by replacing a volatile reference,
+ * so readers never lock.
+ *
+ * Older versions are not kept: an import never changes a question's stem, options or answer
+ * key under its id and only soft-deletes rows, so a session started on an older version still
+ * resolves every question it holds, from this snapshot or from the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionBankSnapshot {
+
+    private final QuestionRepository questionRepository;
+
+    private volatile Bank bank;
+
+    /** Serializes loading. A lock rather than a monitor: reload holds it through JDBC */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * Load the snapshot as soon as the application (and the seed loader) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Rebuild the snapshot from the database and publish it atomically
+     */
+    public void reload() {
+        loadLock.lock();
+        try {
+            long start = System.nanoTime();
+            long version = questionRepository.currentBankVersion();
+            Bank loaded = Bank.of(questionRepository.findAllActiveWithOptions(), version);
+            bank = loaded;
+            log.info("Question bank snapshot loaded: version {}, {} questions in {} ms",
+                     version, loaded.byId.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild the snapshot once the current transaction commits, or immediately if there is none.
+     * Reloading before commit would publish rows that may still be rolled back.
+     */
+    public void reloadAfterCommit() {
+        AfterCommit.run(this::reload);
+    }
+
+    public Optional<QuestionEntry> find(long questionId) {
+        return Optional.ofNullable(current().byId.get(questionId));
+    }
+
+    /**
+     * Question ids for a domain, in ascending order.
+     * The array is shared by all callers and must not be modified.
+     */
+    public long[] idsByDomain(Domain domain) {
+        return current().byDomain.get(domain);
+    }
+
+    /**
+     * Question ids for a difficulty, in ascending order.
+     * The array is shared by all callers and must not be modified.
+     */
+    public long[] idsByDifficulty(Difficulty difficulty) {
+        return current().byDifficulty.get(difficulty);
+    }
+
+    /**
+     * Question ids for a question type, in ascending order.
+     * The array is shared by all callers and must not be modified.
+     */
+    public long[] idsByType(QuestionType type) {
+        return current().byType.get(type);
+    }
+
+    /**
+     * Answer keys of every question in the snapshot
+     */
+    public AnswerKeyIndex answerKeys() {
+        return current().answerKeys;
+    }
+
+    /**
+     * Answer keys covering all the given questions. Uses the snapshot index when it has every
+     * question, otherwise loads them from the database (e.g. questions soft-deleted since a
+     * session started, or rows newer than the snapshot).
+     */
+    public AnswerKeyIndex answerKeysCovering(Collection<Long> questionIds) {
+        AnswerKeyIndex keys = answerKeys();
+        for (Long questionId : questionIds) {
+            if (!keys.contains(questionId)) {
+                log.debug("Question {} not in snapshot, loading answer keys from the database", questionId);
+                return AnswerKeyIndex.ofQuestions(questionRepository.findAllWithOptionsByIdIn(questionIds));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Option ids selected in an answer bitmask, in ascending option id order
+     */
+    public List<Long> selectedOptionIds(long questionId, long selectionMask) {
+        AnswerKeyIndex keys = answerKeysCovering(List.of(questionId));
+        int index = keys.indexOf(questionId);
+        return index >= 0 ? keys.optionIds(index, selectionMask) : new ArrayList<>();
+    }
+
+    /**
+     * Version of the loaded bank: the answer key fingerprint, stable across restarts
+     * and different after any import that changes a question, option or answer key
+     */
+    public long version() {
+        return current().answerKeys.fingerprint();
+    }
+
+    /**
+     * Bank version pointer of the current snapshot (question_bank_state.version)
+     */
+    public long bankVersion() {
+        return current().version;
+    }
+
+    public int size() {
+        return current().byId.size();
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return current().loadedAt;
+    }
+
+    private Bank current() {
+        Bank current = bank;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                if (bank == null) {
+                    reload();
+                }
+                current = bank;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable view of a question and its options
+     */
+    public record QuestionEntry(
+        long id,
+        Domain domain,
+        Difficulty difficulty,
+        QuestionType qtype,
+        String stem,
+        String stemEs,
+        String stemEn,
+        String explanation,
+        String explanationEs,
+        String explanationEn,
+        String tagsJson,
+        List<OptionEntry> options
+    ) {
+        static QuestionEntry of(Question question) {
+            List<OptionEntry> options = question.getOptions().stream()
+                .sorted(Comparator.comparing(OptionItem::getId))
+                .map(OptionEntry::of)
+                .toList();
+            return new QuestionEntry(
+                question.getId(),
+                question.getDomain(),
+                question.getDifficulty(),
+                question.getQtype(),
+                question.getStem(),
+                question.getStemEs(),
+                question.getStemEn(),
+                question.getExplanation(),
+                question.getExplanationEs(),
+                question.getExplanationEn(),
+                question.getTagsJson(),
+                options
+            );
+        }
+    }
+
+    /**
+     * Immutable view of an answer option
+     */
+    public record OptionEntry(
+        long id,
+        String label,
+        String text,
+        String textEs,
+        String textEn,
+        boolean correct
+    ) {
+        static OptionEntry of(OptionItem option) {
+            return new OptionEntry(
+                option.getId(),
+                option.getLabel(),
+                option.getText(),
+                option.getTextEs(),
+                option.getTextEn(),
+                Boolean.TRUE.equals(option.getIsCorrect())
+            );
+        }
+    }
+
+    /**
+     * One published version of the bank with its precomputed indexes
+     */
+    private static final class Bank {
+
+        private final Map<Long, QuestionEntry> byId;
+        private final Map<Domain, long[]> byDomain;
+        private final Map<Difficulty, long[]> byDifficulty;
+        private final Map<QuestionType, long[]> byType;
+        private final AnswerKeyIndex answerKeys;
+        private final long version;
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+
+        private Bank(Map<Long, QuestionEntry> byId, long version) {
+            this.byId = byId;
+            this.version = version;
+            this.byDomain = index(Domain.class, QuestionEntry::domain);
+            this.byDifficulty = index(Difficulty.class, QuestionEntry::difficulty);
+            this.byType = index(QuestionType.class, QuestionEntry::qtype);
+            this.answerKeys = AnswerKeyIndex.of(byId.values());
+        }
+
+        static Bank of(List<Question> questions, long version) {
+            Map<Long, QuestionEntry> byId = new HashMap<>(questions.size() * 2);
+            for (Question question : questions) {
+                byId.put(question.getId(), QuestionEntry.of(question));
+            }
+            return new Bank(Collections.unmodifiableMap(byId), version);
+        }
+
+        private <K extends Enum<K>> Map<K, long[]> index(Class<K> keyType, Function<QuestionEntry, K> key) {
+            Map<K, long[]> index = new EnumMap<>(keyType);
+            for (K value : keyType.getEnumConstants()) {
+                index.put(value, byId.values().stream()
+                    .filter(entry -> key.apply(entry) == value)
+                    .mapToLong(QuestionEntry::id)
+                    .sorted()
+                    .toArray());
+            }
+            return Collections.unmodifiableMap(index);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package co.singularit.az104simulator.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes imported questions and their options with JDBC batches: inserts of new questions,
+ * in-place metadata updates and soft-deletes. Going through JDBC keeps the read-only
+ * second-level cache out of the write path; the import evicts it once it is done.
+ *
+ * Ids come from question_seq and option_item_seq in blocks of 50 the same way Hibernate's
+ * pooled optimizer takes them (a sequence value is the upper end of its block), so ids
+ * handed out here never collide with ids Hibernate assigns. Callers own the transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionBatchWriter {
+
+    /** INCREMENT BY of the id sequences (V11) and allocationSize of the entities */
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_QUESTION_SQL =
+            "INSERT INTO question (id, domain, difficulty, qtype, stem, explanation, " +
+            "stem_es, stem_en, explanation_es, explanation_en, tags_json, content_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_QUESTION_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR
+    };
+
+    private static final String UPDATE_QUESTION_SQL =
+            "UPDATE question SET domain = ?, difficulty = ?, explanation = ?, explanation_es = ?, " +
+            "explanation_en = ?, tags_json = ?, deleted_at = NULL WHERE id = ?";
+
+    private static final int[] UPDATE_QUESTION_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT
+    };
+
+    private static final String SOFT_DELETE_SQL = "UPDATE question SET deleted_at = ? WHERE id = ?";
+
+    private static final int[] SOFT_DELETE_TYPES = {Types.TIMESTAMP, Types.BIGINT};
+
+    private static final String EXISTING_SQL =
+            "SELECT id, content_hash, deleted_at, domain, difficulty, explanation, explanation_es, " +
+            "explanation_en, tags_json FROM question WHERE content_hash IS NOT NULL ORDER BY id";
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO option_item (id, question_id, label, text, text_es, text_en, is_correct) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String STAGE_QUESTION_SQL =
+            "INSERT INTO question_staging (id, domain, difficulty, qtype, stem, explanation, " +
+            "stem_es, stem_en, explanation_es, explanation_en, tags_json, content_hash, action) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'INSERT')";
+
+    private static final String STAGE_OPTION_SQL =
+            "INSERT INTO option_item_staging (id, question_id, label, text, text_es, text_en, is_correct) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ADVANCE_VERSION_SQL =
+            "UPDATE question_bank_state SET version = version + 1, switched_at = ? WHERE id = 1";
+
+    private static final int[] INSERT_OPTION_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the questions with one batch for the questions and one for their options
+     *
+     * @return ids of the inserted questions, in the order given
+     */
+    public long[] insert(List<ImportedQuestion> questions) {
+        return insert(questions, INSERT_QUESTION_SQL, INSERT_OPTION_SQL);
+    }
+
+    /**
+     * Insert the questions into the staging tables of a staged import instead of the bank.
+     * They get their final ids here; QuestionStagingArea copies them over on swap.
+     *
+     * @return ids of the staged questions, in the order given
+     */
+    public long[] stage(List<ImportedQuestion> questions) {
+        return insert(questions, STAGE_QUESTION_SQL, STAGE_OPTION_SQL);
+    }
+
+    private long[] insert(List<ImportedQuestion> questions, String questionSql, String optionSql) {
+        if (questions.isEmpty()) {
+            return new long[0];
+        }
+
+        int optionCount = questions.stream().mapToInt(question -> question.options().size()).sum();
+        long[] questionIds = reserveIds("question_seq", questions.size());
+        long[] optionIds = reserveIds("option_item_seq", optionCount);
+
+        List<Object[]> questionRows = new ArrayList<>(questions.size());
+        List<Object[]> optionRows = new ArrayList<>(optionCount);
+        int option = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            ImportedQuestion question = questions.get(i);
+            questionRows.add(new Object[]{
+                    questionIds[i],
+                    question.domain().name(),
+                    question.difficulty().name(),
+                    question.qtype().name(),
+                    question.stem(),
+                    question.explanation(),
+                    question.stemEs(),
+                    question.stemEn(),
+                    question.explanationEs(),
+                    question.explanationEn(),
+                    question.tagsJson(),
+                    QuestionContentHash.of(question)
+            });
+            for (ImportedQuestion.Option item : question.options()) {
+                optionRows.add(new Object[]{
+                        optionIds[option++],
+                        questionIds[i],
+                        item.label(),
+                        item.text(),
+                        item.textEs(),
+                        item.textEn(),
+                        item.correct()
+                });
+            }
+        }
+
+        jdbcTemplate.batchUpdate(questionSql, questionRows, INSERT_QUESTION_TYPES);
+        jdbcTemplate.batchUpdate(optionSql, optionRows, INSERT_OPTION_TYPES);
+        return questionIds;
+    }
+
+    /**
+     * Apply the metadata of imported questions to the rows they match, restoring soft-deleted ones.
+     * Stem and options are left alone: a question whose content changed gets a new row instead.
+     */
+    public void update(List<QuestionUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(updates.size());
+        for (QuestionUpdate update : updates) {
+            ImportedQuestion question = update.question();
+            rows.add(new Object[]{
+                    question.domain().name(),
+                    question.difficulty().name(),
+                    question.explanation(),
+                    question.explanationEs(),
+                    question.explanationEn(),
+                    question.tagsJson(),
+                    update.id()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_QUESTION_SQL, rows, UPDATE_QUESTION_TYPES);
+    }
+
+    /**
+     * Mark questions as deleted; their rows stay for the sessions and attempts that reference them
+     */
+    public void softDelete(List<Long> questionIds, LocalDateTime deletedAt) {
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(deletedAt);
+        List<Object[]> rows = new ArrayList<>(questionIds.size());
+        for (Long id : questionIds) {
+            rows.add(new Object[]{timestamp, id});
+        }
+        jdbcTemplate.batchUpdate(SOFT_DELETE_SQL, rows, SOFT_DELETE_TYPES);
+    }
+
+    /**
+     * Every hashed question in the bank, deleted or not, by content hash. When two rows share
+     * a hash the active one with the lowest id wins; the others never match an import.
+     */
+    public Map<String, ExistingQuestion> existingByContentHash() {
+        Map<String, ExistingQuestion> existing = new HashMap<>();
+        jdbcTemplate.query(EXISTING_SQL, rs -> {
+            ExistingQuestion question = new ExistingQuestion(
+                    rs.getLong("id"),
+                    QuestionContentHash.metadataOf(rs.getString("domain"), rs.getString("difficulty"),
+                            rs.getString("explanation"), rs.getString("explanation_es"),
+                            rs.getString("explanation_en"), rs.getString("tags_json")),
+                    rs.getTimestamp("deleted_at") != null);
+            existing.merge(rs.getString("content_hash"), question,
+                    (first, other) -> first.deleted() && !other.deleted() ? other : first);
+        });
+        return existing;
+    }
+
+    /**
+     * Current value of the bank version pointer (question_bank_state)
+     */
+    public long bankVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM question_bank_state WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Move the bank version pointer on; done in the transaction that publishes an import's changes
+     *
+     * @return the new version
+     */
+    public long advanceBankVersion(LocalDateTime switchedAt) {
+        jdbcTemplate.update(ADVANCE_VERSION_SQL, Timestamp.valueOf(switchedAt));
+        return bankVersion();
+    }
+
+    /**
+     * A question row as the import diff needs it
+     *
+     * @param metadataHash QuestionContentHash.metadataOf the row
+     */
+    public record ExistingQuestion(long id, String metadataHash, boolean deleted) {
+    }
+
+    public record QuestionUpdate(long id, ImportedQuestion question) {
+    }
+
+    /**
+     * Take enough id blocks from a pooled sequence for count rows, in one round trip
+     */
+    private long[] reserveIds(String sequence, int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockEnds = jdbcTemplate.queryForList(
+                "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, ?)", Long.class, blocks);
+
+        int next = 0;
+        for (long end : blockEnds) {
+            for (long id = end - ID_BLOCK_SIZE + 1; id <= end && next < count; id++) {
+                ids[next++] = id;
+            }
+        }
+        return ids;
+    }
+}
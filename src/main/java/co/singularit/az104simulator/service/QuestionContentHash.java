@@ -0,0 +1,122 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.OptionItem;
+import co.singularit.az104simulator.domain.Question;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Content hashes that let an import recognise questions already in the bank.
+ *
+ * The content hash covers what a student answers: question type, stem and options with
+ * their answer key, in both languages. Texts are normalized (Unicode NFC, whitespace runs
+ * collapsed, trimmed) and options are taken in label order, so re-exporting and re-importing
+ * a bank, or reformatting a file, gives the same hashes. A missing translation falls back
+ * to the other language the same way the export does.
+ *
+ * The metadata hash covers the fields an import may change in place without changing
+ * the question: domain, difficulty, explanation and tags.
+ */
+public final class QuestionContentHash {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char RECORD_SEPARATOR = '\u001e';
+
+    private QuestionContentHash() {
+    }
+
+    /**
+     * One option as stored: per-language texts plus the legacy single-language text
+     */
+    public record OptionText(String label, String text, String textEs, String textEn, boolean correct) {
+    }
+
+    public static String of(ImportedQuestion question) {
+        List<OptionText> options = new ArrayList<>(question.options().size());
+        for (ImportedQuestion.Option option : question.options()) {
+            options.add(new OptionText(option.label(), option.text(), option.textEs(), option.textEn(), option.correct()));
+        }
+        return of(question.qtype().name(), question.stem(), question.stemEs(), question.stemEn(), options);
+    }
+
+    public static String of(Question question) {
+        List<OptionText> options = new ArrayList<>(question.getOptions().size());
+        for (OptionItem option : question.getOptions()) {
+            options.add(new OptionText(option.getLabel(), option.getText(), option.getTextEs(), option.getTextEn(),
+                    Boolean.TRUE.equals(option.getIsCorrect())));
+        }
+        return of(question.getQtype().name(), question.getStem(), question.getStemEs(), question.getStemEn(), options);
+    }
+
+    /**
+     * Content hash from column values, for rows read over JDBC
+     */
+    public static String of(String qtype, String stem, String stemEs, String stemEn, List<OptionText> options) {
+        StringBuilder content = new StringBuilder(512);
+        field(content, qtype);
+        localized(content, stem, stemEs, stemEn);
+
+        List<OptionText> byLabel = new ArrayList<>(options);
+        byLabel.sort(Comparator.comparing(option -> normalize(option.label())));
+        for (OptionText option : byLabel) {
+            content.append(RECORD_SEPARATOR);
+            field(content, option.label());
+            localized(content, option.text(), option.textEs(), option.textEn());
+            field(content, option.correct() ? "1" : "0");
+        }
+        return sha256(content);
+    }
+
+    public static String metadataOf(ImportedQuestion question) {
+        return metadataOf(question.domain().name(), question.difficulty().name(), question.explanation(),
+                question.explanationEs(), question.explanationEn(), question.tagsJson());
+    }
+
+    /**
+     * Metadata hash from column values, for rows read over JDBC
+     */
+    public static String metadataOf(String domain, String difficulty, String explanation,
+                                    String explanationEs, String explanationEn, String tagsJson) {
+        StringBuilder content = new StringBuilder(512);
+        field(content, domain);
+        field(content, difficulty);
+        localized(content, explanation, explanationEs, explanationEn);
+        field(content, tagsJson != null ? tagsJson : "[]");
+        return sha256(content);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").trim();
+    }
+
+    private static void localized(StringBuilder content, String legacy, String es, String en) {
+        String fallback = legacy != null ? legacy : (es != null ? es : en);
+        field(content, es != null ? es : fallback);
+        field(content, en != null ? en : fallback);
+    }
+
+    private static void field(StringBuilder content, String value) {
+        content.append(normalize(value)).append(FIELD_SEPARATOR);
+    }
+
+    private static String sha256(CharSequence content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.dto.QuestionDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of rendered question DTOs keyed by (questionId, language, includeCorrect).
+ *
+ * Questions only change on admin import, so localizing the texts and parsing the tags
+ * is done once per key. Cached templates are never handed out: every lookup returns a
+ * shallow copy on which the caller overlays per-request state (selection, marked flag).
+ * The options and tags lists of a template are immutable and shared between copies.
+ * A template whose build overlapped {@link #invalidateAll()} is returned but not kept, since
+ * it may have been rendered from rows read before the import committed.
+ */
+@Component
+@Slf4j
+public class QuestionDtoCache {
+
+    private final Cache<Key, QuestionDto> templates;
+    /** Incremented by every invalidation */
+    private final AtomicLong generation = new AtomicLong();
+
+    public QuestionDtoCache(@Value("${app.question-dto-cache.max-size:5000}") long maxSize) {
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a copy of the cached rendering, building the template on a miss
+     *
+     * @param template Builds the template; its options and tags lists must be immutable
+     */
+    public QuestionDto get(long questionId, String lang, boolean includeCorrectAnswers, Supplier<QuestionDto> template) {
+        Key key = new Key(questionId, "en".equalsIgnoreCase(lang), includeCorrectAnswers);
+        long before = generation.get();
+        QuestionDto cached = templates.get(key, k -> template.get());
+        if (generation.get() != before) {
+            // Possibly inserted after the invalidation cleared the cache
+            templates.asMap().remove(key, cached);
+        }
+        return copyOf(cached);
+    }
+
+    /**
+     * Drop every cached rendering, including templates still being built
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        templates.invalidateAll();
+        log.info("Question DTO cache invalidated");
+    }
+
+    public CacheStats stats() {
+        return templates.stats();
+    }
+
+    public long size() {
+        return templates.estimatedSize();
+    }
+
+    private static QuestionDto copyOf(QuestionDto template) {
+        QuestionDto dto = new QuestionDto();
+        dto.setId(template.getId());
+        dto.setDomain(template.getDomain());
+        dto.setDifficulty(template.getDifficulty());
+        dto.setQtype(template.getQtype());
+        dto.setStem(template.getStem());
+        dto.setExplanation(template.getExplanation());
+        dto.setOptions(template.getOptions());
+        dto.setTags(template.getTags());
+        return dto;
+    }
+
+    /**
+     * Only "en" selects English texts, every other value renders Spanish
+     */
+    private record Key(long questionId, boolean english, boolean includeCorrectAnswers) {
+    }
+}
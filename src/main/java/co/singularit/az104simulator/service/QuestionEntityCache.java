@@ -0,0 +1,70 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Question;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate second-level cache of the question bank.
+ *
+ * Question, OptionItem and the options collection share the read-only region
+ * {@link Question#CACHE_REGION}, so findById and findAllByIdCached are served from memory once
+ * a question has been read. The domain counts of QuestionRepository use the query cache.
+ * Hit ratios of both are published as exam.question.cache.hit.ratio gauges.
+ */
+@Component
+@Slf4j
+public class QuestionEntityCache {
+
+    private final SessionFactory sessionFactory;
+
+    public QuestionEntityCache(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        Statistics statistics = sessionFactory.getStatistics();
+        Gauge.builder("exam.question.cache.hit.ratio", statistics, QuestionEntityCache::entityHitRatio)
+                .tag("cache", "entity")
+                .description("Hit ratio of the question bank second-level cache region")
+                .register(meterRegistry);
+        Gauge.builder("exam.question.cache.hit.ratio", statistics, QuestionEntityCache::queryHitRatio)
+                .tag("cache", "query")
+                .description("Hit ratio of the query cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drop every cached question, option and cached query result
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictRegion(Question.CACHE_REGION);
+        sessionFactory.getCache().evictQueryRegions();
+        log.info("Question second-level cache evicted");
+    }
+
+    /**
+     * Drop every cached question once the current transaction commits, or immediately if there is none
+     */
+    public void evictAllAfterCommit() {
+        AfterCommit.run(this::evictAll);
+    }
+
+    private static double entityHitRatio(Statistics statistics) {
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Question.CACHE_REGION);
+        return region != null ? ratio(region.getHitCount(), region.getMissCount()) : Double.NaN;
+    }
+
+    private static double queryHitRatio(Statistics statistics) {
+        return ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests > 0 ? (double) hits / requests : Double.NaN;
+    }
+}
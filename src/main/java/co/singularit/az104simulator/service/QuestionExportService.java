@@ -0,0 +1,212 @@
+package co.singularit.az104simulator.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the question bank as JSON in the bilingual seed format (stem, explanation and
+ * option text as {"en": ..., "es": ...}), so an export can be imported again as is.
+ * Questions soft-deleted by a sync import are left out.
+ *
+ * Questions are read over JDBC in id order, one keyset page at a time (app.export.page-size),
+ * with the options of a page fetched by question id range. Each page is written and flushed
+ * before the next one is read, so memory stays bounded by the page size and no entity ends
+ * up in the persistence context or the second-level cache. A page is read in its own short
+ * read-only transaction and written after it ends, so a slow download never holds a pooled
+ * connection while it waits on the client.
+ */
+@Service
+@Slf4j
+public class QuestionExportService {
+
+    private static final String QUESTION_PAGE_SQL =
+            "SELECT id, domain, difficulty, qtype, stem, stem_es, stem_en, " +
+            "explanation, explanation_es, explanation_en, tags_json " +
+            "FROM question WHERE id > ? AND deleted_at IS NULL ORDER BY id LIMIT ?";
+
+    private static final String OPTION_RANGE_SQL =
+            "SELECT question_id, label, text, text_es, text_en, is_correct " +
+            "FROM option_item WHERE question_id BETWEEN ? AND ? ORDER BY question_id, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int pageSize;
+
+    public QuestionExportService(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.export.page-size:500}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+
+        // A page's questions and options are read on one connection, released before the page is written
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Write every question to the stream as one pretty-printed JSON array.
+     * The stream is flushed but not closed.
+     *
+     * @param gzip Compress the output on the fly
+     * @return number of questions written
+     */
+    public int export(OutputStream out, boolean gzip) throws IOException {
+        if (!gzip) {
+            return export(out);
+        }
+        GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+        int count = export(compressed);
+        compressed.finish();
+        return count;
+    }
+
+    private int export(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+
+            int count = 0;
+            long lastId = 0;
+            Page page;
+            do {
+                long after = lastId;
+                page = readOnlyTransaction.execute(status -> readPage(after));
+                if (!page.questions().isEmpty()) {
+                    lastId = page.questions().get(page.questions().size() - 1).id();
+                    writePage(generator, page.questions(), page.options());
+                    count += page.questions().size();
+                }
+            } while (page.questions().size() == pageSize);
+
+            generator.writeEndArray();
+            generator.flush();
+
+            log.info("Exported {} questions", count);
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The next page of questions after the given id, with their options
+     */
+    private Page readPage(long afterId) {
+        List<QuestionRow> questions = jdbcTemplate.query(QUESTION_PAGE_SQL, QuestionExportService::questionRow,
+                afterId, pageSize);
+        if (questions.isEmpty()) {
+            return new Page(questions, Map.of());
+        }
+        return new Page(questions, optionsOf(questions.get(0).id(), questions.get(questions.size() - 1).id()));
+    }
+
+    private Map<Long, List<OptionRow>> optionsOf(long firstQuestionId, long lastQuestionId) {
+        Map<Long, List<OptionRow>> options = new HashMap<>();
+        jdbcTemplate.query(OPTION_RANGE_SQL, rs -> {
+            options.computeIfAbsent(rs.getLong("question_id"), id -> new ArrayList<>()).add(new OptionRow(
+                    rs.getString("label"),
+                    rs.getString("text"),
+                    rs.getString("text_es"),
+                    rs.getString("text_en"),
+                    rs.getBoolean("is_correct")));
+        }, firstQuestionId, lastQuestionId);
+        return options;
+    }
+
+    private void writePage(JsonGenerator generator, List<QuestionRow> page, Map<Long, List<OptionRow>> options) {
+        try {
+            for (QuestionRow question : page) {
+                generator.writeStartObject();
+                generator.writeStringField("domain", question.domain());
+                generator.writeStringField("difficulty", question.difficulty());
+                generator.writeStringField("qtype", question.qtype());
+                writeLocalized(generator, "stem", question.stem(), question.stemEs(), question.stemEn());
+                writeLocalized(generator, "explanation", question.explanation(),
+                        question.explanationEs(), question.explanationEn());
+
+                generator.writeFieldName("tags");
+                if (question.tagsJson() != null) {
+                    generator.writeTree(objectMapper.readTree(question.tagsJson()));
+                } else {
+                    generator.writeStartArray();
+                    generator.writeEndArray();
+                }
+
+                generator.writeArrayFieldStart("options");
+                for (OptionRow option : options.getOrDefault(question.id(), List.of())) {
+                    generator.writeStartObject();
+                    generator.writeStringField("label", option.label());
+                    writeLocalized(generator, "text", option.text(), option.textEs(), option.textEn());
+                    generator.writeBooleanField("isCorrect", option.correct());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+
+                generator.writeEndObject();
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write {"en": ..., "es": ...}, falling back to the legacy single-language column
+     */
+    private static void writeLocalized(JsonGenerator generator, String field,
+                                       String legacy, String es, String en) throws IOException {
+        generator.writeObjectFieldStart(field);
+        generator.writeStringField("en", en != null ? en : legacy);
+        generator.writeStringField("es", es != null ? es : legacy);
+        generator.writeEndObject();
+    }
+
+    private static QuestionRow questionRow(ResultSet rs, int rowNum) throws SQLException {
+        return new QuestionRow(
+                rs.getLong("id"),
+                rs.getString("domain"),
+                rs.getString("difficulty"),
+                rs.getString("qtype"),
+                rs.getString("stem"),
+                rs.getString("stem_es"),
+                rs.getString("stem_en"),
+                rs.getString("explanation"),
+                rs.getString("explanation_es"),
+                rs.getString("explanation_en"),
+                rs.getString("tags_json"));
+    }
+
+    private record QuestionRow(long id, String domain, String difficulty, String qtype,
+                               String stem, String stemEs, String stemEn,
+                               String explanation, String explanationEs, String explanationEn,
+                               String tagsJson) {
+    }
+
+    private record Page(List<QuestionRow> questions, Map<Long, List<OptionRow>> options) {
+    }
+
+    private record OptionRow(String label, String text, String textEs, String textEn, boolean correct) {
+    }
+}
@@ -0,0 +1,434 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.dto.ImportProgressDto;
+import co.singularit.az104simulator.service.QuestionBatchWriter.ExistingQuestion;
+import co.singularit.az104simulator.service.QuestionBatchWriter.QuestionUpdate;
+import co.singularit.az104simulator.service.QuestionStagingArea.SwapResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Background import of question files into the bank.
+ *
+ * An upload is parsed as a token stream (QuestionJsonReader), validated question by
+ * question and diffed against the bank by content hash (QuestionContentHash):
+ * <ul>
+ *   <li>a question whose hash is not in the bank is inserted</li>
+ *   <li>a question whose hash matches keeps its id; only a changed domain, difficulty,
+ *       explanation or tags is written, and a soft-deleted match is restored</li>
+ *   <li>in SYNC mode the file is the whole bank, so active questions it does not contain
+ *       are soft-deleted once the file has been read; APPEND mode deletes nothing</li>
+ * </ul>
+ * A question whose stem, options or answer key changed therefore becomes a new row and the
+ * old one is soft-deleted, so sessions and attempts that used it keep their meaning. A
+ * weekly bank update touches only the rows that changed.
+ *
+ * Writes go out in JDBC batches of app.import.batch-size questions, each batch in its own
+ * short transaction so exam traffic is never blocked for the whole file. A staged import
+ * writes the batches to shadow tables instead and publishes them all at once with a short
+ * swap transaction (QuestionStagingArea), so the bank tables exams read are only written at
+ * the end. Either way the bank version pointer moves on once the changes are committed.
+ * Memory is bounded by one batch plus the hash index of the bank, which also holds the hashes
+ * of the questions the file adds.
+ *
+ * Invalid questions are skipped and reported, and while any is rejected no question is
+ * soft-deleted (its old version would otherwise disappear). Repeats of a question earlier in
+ * the file are only counted. Files may be gzip-compressed
+ * (as written by /admin/export?gzip=true). One import runs at a time; its progress is kept
+ * for an hour.
+ */
+@Service
+@Slf4j
+public class QuestionImportService {
+
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+
+    /** Hash index entry of a question the file already contained */
+    private static final ExistingQuestion SEEN = new ExistingQuestion(-1L, "", true);
+
+    public enum Mode {
+        /** The file is the whole bank: questions missing from it are soft-deleted */
+        SYNC,
+        /** The file only adds and updates questions */
+        APPEND
+    }
+
+    private final QuestionJsonReader questionJsonReader;
+    private final QuestionBatchWriter questionBatchWriter;
+    private final QuestionStagingArea questionStagingArea;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final QuestionEntityCache questionEntityCache;
+    private final QuestionDtoCache questionDtoCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("question-import").daemon().factory());
+    private final AtomicReference<ImportJob> running = new AtomicReference<>();
+    private final Cache<String, ImportJob> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public QuestionImportService(QuestionJsonReader questionJsonReader,
+                                 QuestionBatchWriter questionBatchWriter,
+                                 QuestionStagingArea questionStagingArea,
+                                 QuestionBankSnapshot questionBankSnapshot,
+                                 QuestionEntityCache questionEntityCache,
+                                 QuestionDtoCache questionDtoCache,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.import.batch-size:500}") int batchSize) {
+        this.questionJsonReader = questionJsonReader;
+        this.questionBatchWriter = questionBatchWriter;
+        this.questionStagingArea = questionStagingArea;
+        this.questionBankSnapshot = questionBankSnapshot;
+        this.questionEntityCache = questionEntityCache;
+        this.questionDtoCache = questionDtoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Start importing a file in the background. The file is deleted once the import ends.
+     *
+     * @param staged load the file into the staging tables and swap it in at the end
+     * @throws IllegalStateException if another import is running
+     */
+    public ImportProgressDto start(Path file, String fileName, Mode mode, boolean staged) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName, mode, staged, Files.size(file));
+        if (!running.compareAndSet(null, job)) {
+            Files.deleteIfExists(file);
+            throw new IllegalStateException("Another import is running: " + running.get().id);
+        }
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, file));
+        log.info("Started {}{} import {} of {} ({} bytes)", staged ? "staged " : "", mode, job.id, fileName, job.totalBytes);
+        return job.toDto();
+    }
+
+    /**
+     * @return progress of an import started within the last hour, or null if unknown
+     */
+    public ImportProgressDto progress(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        return job != null ? job.toDto() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path file) {
+        Batch batch = new Batch(batchSize);
+        String failure = null;
+        try (InputStream in = open(file, job.bytesRead)) {
+            if (job.staged) {
+                questionStagingArea.reset();
+            }
+            // Every hash the file contains is marked SEEN, so the index also finds duplicates
+            // and what is still active in it afterwards is what the file lacks
+            Map<String, ExistingQuestion> existing = questionBatchWriter.existingByContentHash();
+
+            questionJsonReader.read(in, question -> {
+                job.questionsRead.incrementAndGet();
+                String hash = QuestionContentHash.of(question);
+                ExistingQuestion match = existing.put(hash, SEEN);
+                if (match == SEEN) {
+                    // Nothing of the file is lost, so unlike a rejection this does not block deletes
+                    job.questionsDuplicate.incrementAndGet();
+                    return;
+                }
+                batch.questions++;
+                if (match == null) {
+                    batch.inserts.add(question);
+                } else if (match.deleted() || !match.metadataHash().equals(QuestionContentHash.metadataOf(question))) {
+                    batch.updates.add(new QuestionUpdate(match.id(), question));
+                } else {
+                    job.questionsUnchanged.incrementAndGet();
+                    batch.unchanged.add(match.id());
+                }
+                if (batch.size() >= batchSize) {
+                    write(job, batch);
+                }
+            }, job::reject);
+            write(job, batch);
+
+            if (job.staged) {
+                swap(job, batch.questions == 0);
+            } else if (job.mode == Mode.SYNC && shouldDelete(job, batch.questions == 0)) {
+                deleteMissing(job, existing.values());
+            }
+
+            log.info("Import {} completed: {} inserted, {} updated, {} unchanged, {} duplicate, {} deleted, {} rejected",
+                    job.id, job.questionsImported.get(), job.questionsUpdated.get(), job.questionsUnchanged.get(),
+                    job.questionsDuplicate.get(), job.questionsDeleted.get(), job.questionsRejected.get());
+        } catch (Exception e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            log.error("Import {} failed after {} questions", job.id, job.questionsRead.get(), e);
+        } finally {
+            try {
+                if (job.questionsImported.get() + job.questionsUpdated.get() + job.questionsDeleted.get() > 0) {
+                    // Committed batches stay even if a later one failed; publish them to question selection
+                    if (!job.staged) {
+                        job.bankVersion = transactionTemplate.execute(
+                                status -> questionBatchWriter.advanceBankVersion(LocalDateTime.now()));
+                    }
+                    questionBankSnapshot.reload();
+                    questionEntityCache.evictAll();
+                    questionDtoCache.invalidateAll();
+                }
+                if (job.staged) {
+                    questionStagingArea.reset();
+                }
+                Files.deleteIfExists(file);
+            } catch (Exception e) {
+                log.warn("Cleanup after import {} failed", job.id, e);
+            }
+            job.finish(failure);
+            running.set(null);
+        }
+    }
+
+    private void write(ImportJob job, Batch batch) {
+        if (job.staged) {
+            if (batch.size() > 0) {
+                long[] ids = transactionTemplate.execute(
+                        status -> questionStagingArea.stage(batch.inserts, batch.updates, batch.unchanged));
+                job.questionsStaged.addAndGet(ids.length + batch.updates.size() + batch.unchanged.size());
+            }
+        } else if (!batch.inserts.isEmpty() || !batch.updates.isEmpty()) {
+            int options = batch.inserts.stream().mapToInt(question -> question.options().size()).sum();
+            transactionTemplate.executeWithoutResult(status -> {
+                questionBatchWriter.update(batch.updates);
+                questionBatchWriter.insert(batch.inserts);
+            });
+            job.questionsImported.addAndGet(batch.inserts.size());
+            job.questionsUpdated.addAndGet(batch.updates.size());
+            job.optionsImported.addAndGet(options);
+        }
+        batch.inserts.clear();
+        batch.updates.clear();
+        batch.unchanged.clear();
+    }
+
+    /**
+     * Index the staging tables and publish them in one transaction
+     */
+    private void swap(ImportJob job, boolean noValidQuestions) {
+        boolean deleteMissing = job.mode == Mode.SYNC && shouldDelete(job, noValidQuestions);
+        job.phase = "INDEXING";
+        questionStagingArea.createIndexes();
+
+        job.phase = "SWAPPING";
+        SwapResult result = transactionTemplate.execute(
+                status -> questionStagingArea.swap(deleteMissing, LocalDateTime.now()));
+        job.questionsImported.set(result.inserted());
+        job.optionsImported.set(result.options());
+        job.questionsUpdated.set(result.updated());
+        job.questionsDeleted.set(result.deleted());
+        job.bankVersion = result.bankVersion();
+        job.phase = "SWAPPED";
+    }
+
+    /**
+     * Whether a sync import may soft-delete what the file lacks: not when a rejected question
+     * may have been the new version of one of them
+     *
+     * @throws IllegalArgumentException if the file had no valid question at all
+     */
+    private boolean shouldDelete(ImportJob job, boolean noValidQuestions) {
+        if (noValidQuestions) {
+            throw new IllegalArgumentException("The file has no valid questions; nothing was deleted");
+        }
+        if (job.questionsRejected.get() > 0) {
+            job.deletesSkipped = true;
+            log.warn("Import {} rejected {} questions, skipping soft-deletes", job.id, job.questionsRejected.get());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Soft-delete the active questions the file did not contain
+     *
+     * @param index the hash index after the file was read, with the file's questions marked SEEN
+     */
+    private void deleteMissing(ImportJob job, Collection<ExistingQuestion> index) {
+        List<Long> missing = index.stream()
+                .filter(question -> question != SEEN && !question.deleted())
+                .map(ExistingQuestion::id)
+                .toList();
+        LocalDateTime deletedAt = LocalDateTime.now();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<Long> chunk = missing.subList(from, Math.min(from + batchSize, missing.size()));
+            transactionTemplate.executeWithoutResult(status -> questionBatchWriter.softDelete(chunk, deletedAt));
+            job.questionsDeleted.addAndGet(chunk.size());
+        }
+    }
+
+    /**
+     * Open the file, counting raw bytes read for progress and unwrapping gzip when the file starts with its magic number
+     */
+    private static InputStream open(Path file, AtomicLong bytesRead) throws IOException {
+        InputStream counted = new FilterInputStream(Files.newInputStream(file)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesRead.addAndGet(n);
+                }
+                return n;
+            }
+        };
+        BufferedInputStream in = new BufferedInputStream(counted, 64 * 1024);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzip ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    /**
+     * Writes pending for the current batch, and how many valid questions the file had so far
+     */
+    private static final class Batch {
+
+        private final List<ImportedQuestion> inserts;
+        private final List<QuestionUpdate> updates;
+        private final List<Long> unchanged;
+        private long questions;
+
+        private Batch(int batchSize) {
+            this.inserts = new ArrayList<>(batchSize);
+            this.updates = new ArrayList<>(batchSize);
+            this.unchanged = new ArrayList<>(batchSize);
+        }
+
+        private int size() {
+            return inserts.size() + updates.size() + unchanged.size();
+        }
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+        private final String fileName;
+        private final Mode mode;
+        private final boolean staged;
+        private final long totalBytes;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong questionsRead = new AtomicLong();
+        private final AtomicLong questionsImported = new AtomicLong();
+        private final AtomicLong optionsImported = new AtomicLong();
+        private final AtomicLong questionsUpdated = new AtomicLong();
+        private final AtomicLong questionsUnchanged = new AtomicLong();
+        private final AtomicLong questionsDuplicate = new AtomicLong();
+        private final AtomicLong questionsDeleted = new AtomicLong();
+        private final AtomicLong questionsStaged = new AtomicLong();
+        private final AtomicLong questionsRejected = new AtomicLong();
+        private final List<String> rejections = new ArrayList<>();
+        private volatile boolean deletesSkipped;
+        private volatile String phase;
+        private volatile Long bankVersion;
+        private volatile String state = "RUNNING";
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, String fileName, Mode mode, boolean staged, long totalBytes) {
+            this.id = id;
+            this.fileName = fileName;
+            this.mode = mode;
+            this.staged = staged;
+            this.phase = staged ? "LOADING" : null;
+            this.totalBytes = totalBytes;
+        }
+
+        /**
+         * An element the reader could not use
+         */
+        private void reject(int position, String reason) {
+            questionsRead.incrementAndGet();
+            questionsRejected.incrementAndGet();
+            synchronized (rejections) {
+                if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                    rejections.add("#" + position + ": " + reason);
+                }
+            }
+        }
+
+        private void finish(String failure) {
+            error = failure;
+            finishedAt = Instant.now();
+            state = failure == null ? "COMPLETED" : "FAILED";
+        }
+
+        private ImportProgressDto toDto() {
+            long read = Math.min(bytesRead.get(), totalBytes);
+            List<String> reported;
+            synchronized (rejections) {
+                reported = List.copyOf(rejections);
+            }
+            return ImportProgressDto.builder()
+                    .jobId(id)
+                    .state(state)
+                    .fileName(fileName)
+                    .mode(mode.name())
+                    .staged(staged)
+                    .phase(phase)
+                    .bytesRead(read)
+                    .totalBytes(totalBytes)
+                    .percent(totalBytes > 0 ? (int) (read * 100 / totalBytes) : 100)
+                    .questionsRead(questionsRead.get())
+                    .questionsImported(questionsImported.get())
+                    .optionsImported(optionsImported.get())
+                    .questionsUpdated(questionsUpdated.get())
+                    .questionsUnchanged(questionsUnchanged.get())
+                    .questionsDuplicate(questionsDuplicate.get())
+                    .questionsDeleted(questionsDeleted.get())
+                    .deletesSkipped(deletesSkipped)
+                    .questionsStaged(staged ? questionsStaged.get() : null)
+                    .bankVersion(bankVersion)
+                    .questionsRejected(questionsRejected.get())
+                    .rejections(reported)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
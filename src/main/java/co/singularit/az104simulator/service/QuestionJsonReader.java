@@ -0,0 +1,168 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.QuestionType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for question files (a JSON array in the seed/export format).
+ *
+ * The token stream is walked one array element at a time, so only the question being
+ * read is in memory. Texts may be plain strings (monolingual) or {"en": ..., "es": ...}.
+ * An element that fails validation is reported to the rejection callback with its
+ * 1-based position and skipped; malformed JSON stops the read with an IOException.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionJsonReader {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param onQuestion Receives every valid question in file order
+     * @param onRejected Receives the position and reason of every invalid element
+     * @return number of array elements read, valid or not
+     */
+    public int read(InputStream in, Consumer<ImportedQuestion> onQuestion,
+                    BiConsumer<Integer, String> onRejected) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of questions");
+            }
+
+            int position = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unexpected end of file after " + position + " questions");
+                }
+                position++;
+                JsonNode node = parser.readValueAsTree();
+                ImportedQuestion question;
+                try {
+                    question = parse(node);
+                } catch (IllegalArgumentException e) {
+                    onRejected.accept(position, e.getMessage());
+                    continue;
+                }
+                onQuestion.accept(question);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Validate one element and convert it
+     *
+     * @throws IllegalArgumentException if a field is missing or invalid
+     */
+    ImportedQuestion parse(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("not a JSON object");
+        }
+
+        Domain domain = enumValue(Domain.class, node, "domain");
+        Difficulty difficulty = enumValue(Difficulty.class, node, "difficulty");
+        QuestionType qtype = enumValue(QuestionType.class, node, "qtype");
+        String[] stem = localized(node.get("stem"), "stem");
+        String[] explanation = localized(node.get("explanation"), "explanation");
+
+        JsonNode tags = node.get("tags");
+        if (tags != null && !tags.isNull() && !tags.isArray()) {
+            throw new IllegalArgumentException("tags must be an array");
+        }
+        String tagsJson;
+        try {
+            tagsJson = objectMapper.writeValueAsString(tags != null && !tags.isNull() ? tags : List.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("tags cannot be serialized");
+        }
+
+        JsonNode optionsNode = node.get("options");
+        if (optionsNode == null || !optionsNode.isArray() || optionsNode.size() < 2) {
+            throw new IllegalArgumentException("at least two options are required");
+        }
+        // Selections are stored as a bitmask over a question's options
+        if (optionsNode.size() > AnswerKeyIndex.MAX_OPTIONS) {
+            throw new IllegalArgumentException("at most " + AnswerKeyIndex.MAX_OPTIONS + " options are supported");
+        }
+
+        List<ImportedQuestion.Option> options = new ArrayList<>(optionsNode.size());
+        Set<String> labels = new HashSet<>();
+        int correct = 0;
+        for (JsonNode optionNode : optionsNode) {
+            String label = optionNode.path("label").asText("").trim();
+            if (label.isEmpty() || label.length() > 10) {
+                throw new IllegalArgumentException("option label must have 1 to 10 characters");
+            }
+            if (!labels.add(label)) {
+                throw new IllegalArgumentException("duplicate option label " + label);
+            }
+            JsonNode isCorrect = optionNode.get("isCorrect");
+            if (isCorrect == null || !isCorrect.isBoolean()) {
+                throw new IllegalArgumentException("option " + label + " needs a boolean isCorrect");
+            }
+            String[] text = localized(optionNode.get("text"), "text of option " + label);
+            options.add(new ImportedQuestion.Option(label, text[0], text[1], isCorrect.booleanValue()));
+            if (isCorrect.booleanValue()) {
+                correct++;
+            }
+        }
+
+        if (qtype == QuestionType.MULTI ? correct < 1 : correct != 1) {
+            throw new IllegalArgumentException(qtype + " question has " + correct + " correct options");
+        }
+
+        return new ImportedQuestion(domain, difficulty, qtype,
+                stem[0], stem[1], explanation[0], explanation[1], tagsJson, List.copyOf(options));
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, JsonNode node, String field) {
+        String value = node.path(field).asText(null);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + field + " " + value);
+        }
+    }
+
+    /**
+     * Texts of a field as {es, en}; a plain string is used for both languages
+     */
+    private static String[] localized(JsonNode node, String field) {
+        if (node != null && node.isTextual() && !node.asText().isBlank()) {
+            return new String[]{node.asText(), node.asText()};
+        }
+        if (node != null && node.isObject()) {
+            String es = nonBlank(node.get("es"));
+            String en = nonBlank(node.get("en"));
+            if (es != null || en != null) {
+                return new String[]{es, en};
+            }
+        }
+        throw new IllegalArgumentException(field + " is required");
+    }
+
+    private static String nonBlank(JsonNode node) {
+        return node != null && node.isTextual() && !node.asText().isBlank() ? node.asText() : null;
+    }
+}
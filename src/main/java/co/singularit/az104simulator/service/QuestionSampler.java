@@ -0,0 +1,121 @@
+package co.singularit.az104simulator.service;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks k distinct question ids out of one or more id pools in O(k) time.
+ *
+ * Uses Robert Floyd's sampling algorithm over the virtual concatenation of the pools,
+ * so the candidate arrays are never copied or shuffled. Only the k picked ids are
+ * shuffled at the end to give them a uniformly random order.
+ */
+public final class QuestionSampler {
+
+    private QuestionSampler() {
+    }
+
+    /**
+     * Sample up to k distinct ids from a single pool
+     */
+    public static long[] sample(long[] ids, int k, RandomGenerator random) {
+        return sample(new long[][]{ids}, k, random);
+    }
+
+    /**
+     * Sample up to k distinct ids from the union of the given pools.
+     * Pools must not share ids; the arrays are read but never modified.
+     *
+     * @return min(k, total pool size) ids in random order
+     */
+    public static long[] sample(long[][] pools, int k, RandomGenerator random) {
+        int n = 0;
+        for (long[] pool : pools) {
+            n += pool.length;
+        }
+
+        int size = Math.min(Math.max(k, 0), n);
+        long[] result = new long[size];
+        if (size == 0) {
+            return result;
+        }
+
+        if (size == n) {
+            // Everything is selected, only the order is random
+            int offset = 0;
+            for (long[] pool : pools) {
+                System.arraycopy(pool, 0, result, offset, pool.length);
+                offset += pool.length;
+            }
+        } else {
+            IntSet chosen = new IntSet(size);
+            int count = 0;
+            for (int j = n - size; j < n; j++) {
+                int t = random.nextInt(j + 1);
+                int pick = chosen.add(t) ? t : j;
+                if (pick == j) {
+                    chosen.add(j);
+                }
+                result[count++] = idAt(pools, pick);
+            }
+        }
+
+        shuffle(result, random);
+        return result;
+    }
+
+    /**
+     * Fisher-Yates shuffle of the whole array, in place
+     */
+    public static void shuffle(long[] ids, RandomGenerator random) {
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+    }
+
+    private static long idAt(long[][] pools, int index) {
+        for (long[] pool : pools) {
+            if (index < pool.length) {
+                return pool[index];
+            }
+            index -= pool.length;
+        }
+        throw new IndexOutOfBoundsException("Sample index outside of pools: " + index);
+    }
+
+    /**
+     * Minimal open-addressing set of non-negative ints, sized for k entries
+     */
+    private static final class IntSet {
+
+        private static final int EMPTY = -1;
+
+        private final int[] table;
+        private final int mask;
+
+        IntSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) << 1;
+            table = new int[Math.max(capacity, 4)];
+            Arrays.fill(table, EMPTY);
+            mask = table.length - 1;
+        }
+
+        /**
+         * @return true if the value was not present
+         */
+        boolean add(int value) {
+            int slot = (value * 0x9E3779B9) >>> 1 & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = value;
+            return true;
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,37 +23,45 @@ public class QuestionService {
 
     private final QuestionRepository questionRepository;
     private final ObjectMapper objectMapper;
+    private final QuestionBankSnapshot questionBankSnapshot;
+    private final QuestionDtoCache questionDtoCache;
 
     @Transactional(readOnly = true)
     public List<Question> getRandomQuestions(List<Domain> domains, int count) {
-        List<Question> allQuestions = questionRepository.findByDomainIn(domains);
-
-        if (allQuestions.size() <= count) {
-            return allQuestions;
-        }
-
-        // Shuffle and return requested count
-        Collections.shuffle(allQuestions);
-        return allQuestions.subList(0, count);
+        return loadInOrder(sampleQuestionIds(domains, count, ThreadLocalRandom.current()));
     }
 
     @Transactional(readOnly = true)
     public List<Question> getRandomQuestionsWithDistribution(List<Domain> domains, int totalCount, Map<Domain, Integer> domainPercentages) {
-        List<Question> selectedQuestions = new ArrayList<>();
-        Map<Domain, List<Question>> questionsByDomain = new HashMap<>();
-
-        // Group questions by domain
-        for (Domain domain : domains) {
-            List<Question> domainQuestions = questionRepository.findByDomain(domain);
-            Collections.shuffle(domainQuestions);
-            questionsByDomain.put(domain, domainQuestions);
+        return loadInOrder(sampleQuestionIdsWithDistribution(domains, totalCount, domainPercentages, ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Sample question ids from the in-memory snapshot without loading any question.
+     * A seeded generator makes the selection reproducible for the same bank.
+     */
+    public long[] sampleQuestionIds(List<Domain> domains, int count, RandomGenerator random) {
+        List<Domain> distinctDomains = new ArrayList<>(new LinkedHashSet<>(domains));
+        long[][] pools = new long[distinctDomains.size()][];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = questionBankSnapshot.idsByDomain(distinctDomains.get(i));
         }
 
+        return QuestionSampler.sample(pools, count, random);
+    }
+
+    /**
+     * Sample question ids following a domain distribution, see {@link #sampleQuestionIds}
+     */
+    public long[] sampleQuestionIdsWithDistribution(List<Domain> domains, int totalCount,
+                                                    Map<Domain, Integer> domainPercentages, RandomGenerator random) {
+        List<Domain> distinctDomains = new ArrayList<>(new LinkedHashSet<>(domains));
+
         // Calculate questions per domain based on percentages
         Map<Domain, Integer> questionsPerDomain = new HashMap<>();
         int allocated = 0;
 
-        for (Domain domain : domains) {
+        for (Domain domain : distinctDomains) {
             int percentage = domainPercentages.getOrDefault(domain, 0);
             int count = (int) Math.round((totalCount * percentage) / 100.0);
             questionsPerDomain.put(domain, count);
@@ -60,24 +70,59 @@ public class QuestionService {
 
         // Adjust for rounding errors
         if (allocated < totalCount) {
-            Domain firstDomain = domains.get(0);
+            Domain firstDomain = distinctDomains.get(0);
             questionsPerDomain.put(firstDomain, questionsPerDomain.get(firstDomain) + (totalCount - allocated));
         }
 
-        // Select questions from each domain
-        for (Domain domain : domains) {
+        // Sample the needed number of ids from each domain
+        long[][] perDomain = new long[distinctDomains.size()][];
+        int selectedCount = 0;
+        for (int i = 0; i < perDomain.length; i++) {
+            Domain domain = distinctDomains.get(i);
             int needed = questionsPerDomain.getOrDefault(domain, 0);
-            List<Question> domainQuestions = questionsByDomain.get(domain);
+            perDomain[i] = QuestionSampler.sample(questionBankSnapshot.idsByDomain(domain), needed, random);
+            selectedCount += perDomain[i].length;
+        }
 
-            if (domainQuestions != null && !domainQuestions.isEmpty()) {
-                int available = Math.min(needed, domainQuestions.size());
-                selectedQuestions.addAll(domainQuestions.subList(0, available));
-            }
+        // Merge and shuffle final selection
+        long[] selectedIds = new long[selectedCount];
+        int offset = 0;
+        for (long[] ids : perDomain) {
+            System.arraycopy(ids, 0, selectedIds, offset, ids.length);
+            offset += ids.length;
+        }
+        QuestionSampler.shuffle(selectedIds, random);
+        return selectedIds;
+    }
+
+    /**
+     * Load the given questions with their options in one query, preserving the order of the ids
+     */
+    private List<Question> loadInOrder(long[] questionIds) {
+        if (questionIds.length == 0) {
+            return new ArrayList<>();
         }
 
-        // Shuffle final list
-        Collections.shuffle(selectedQuestions);
-        return selectedQuestions;
+        List<Long> ids = new ArrayList<>(questionIds.length);
+        for (long id : questionIds) {
+            ids.add(id);
+        }
+
+        Map<Long, Question> questionsById = new HashMap<>();
+        for (Question question : questionRepository.findAllWithOptionsByIdIn(ids)) {
+            questionsById.put(question.getId(), question);
+        }
+
+        List<Question> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Question question = questionsById.get(id);
+            if (question != null) {
+                ordered.add(question);
+            } else {
+                log.warn("Question {} is in the bank snapshot but no longer in the database", id);
+            }
+        }
+        return ordered;
     }
 
     @Transactional(readOnly = true)
@@ -85,8 +130,32 @@ public class QuestionService {
         return convertToDto(question, includeCorrectAnswers, "es");
     }
 
+    /**
+     * Render a question for the given language. The result is a fresh copy of a cached
+     * template, so callers may set the per-request fields (selection, marked, answered).
+     */
     @Transactional(readOnly = true)
     public QuestionDto convertToDto(Question question, boolean includeCorrectAnswers, String lang) {
+        if (question.getId() == null) {
+            return buildDto(question, includeCorrectAnswers, lang);
+        }
+        return questionDtoCache.get(question.getId(), lang, includeCorrectAnswers,
+                () -> buildDto(question, includeCorrectAnswers, lang));
+    }
+
+    /**
+     * Render a question by id. A cache hit does not touch the database.
+     */
+    @Transactional(readOnly = true)
+    public QuestionDto getQuestionDto(Long questionId, boolean includeCorrectAnswers, String lang) {
+        return questionDtoCache.get(questionId, lang, includeCorrectAnswers, () -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new IllegalArgumentException("Question not found: " + questionId));
+            return buildDto(question, includeCorrectAnswers, lang);
+        });
+    }
+
+    private QuestionDto buildDto(Question question, boolean includeCorrectAnswers, String lang) {
         QuestionDto dto = new QuestionDto();
         dto.setId(question.getId());
         dto.setDomain(question.getDomain());
@@ -101,10 +170,10 @@ public class QuestionService {
         if (question.getTagsJson() != null) {
             try {
                 List<String> tags = objectMapper.readValue(question.getTagsJson(), new TypeReference<List<String>>() {});
-                dto.setTags(tags);
+                dto.setTags(tags == null ? List.of() : List.copyOf(tags));
             } catch (Exception e) {
                 log.warn("Failed to parse tags for question {}", question.getId(), e);
-                dto.setTags(new ArrayList<>());
+                dto.setTags(List.of());
             }
         }
 
@@ -121,7 +190,7 @@ public class QuestionService {
                     }
                     return optionDto;
                 })
-                .collect(Collectors.toList());
+                .toList();
         dto.setOptions(optionDtos);
 
         return dto;
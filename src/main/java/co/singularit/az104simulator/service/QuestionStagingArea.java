@@ -0,0 +1,138 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.service.QuestionBatchWriter.QuestionUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shadow tables of a staged import (V14).
+ *
+ * The diffed file is loaded into question_staging and option_item_staging while exams keep
+ * reading the bank untouched. {@link #swap} then applies the staged rows with a few set-based
+ * statements in one transaction that also moves the bank version pointer, so readers see the
+ * old bank or the new one and the bank tables are written for a fraction of the load time.
+ * Rows are only ever added, updated in place or soft-deleted, never re-keyed, so sessions and
+ * attempts keep resolving every question they reference.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionStagingArea {
+
+    private static final String STAGE_UPDATE_SQL =
+            "INSERT INTO question_staging (id, domain, difficulty, explanation, explanation_es, " +
+            "explanation_en, tags_json, action) VALUES (?, ?, ?, ?, ?, ?, ?, 'UPDATE')";
+
+    private static final int[] STAGE_UPDATE_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR
+    };
+
+    private static final String STAGE_KEEP_SQL = "INSERT INTO question_staging (id, action) VALUES (?, 'KEEP')";
+
+    private static final String SWAP_INSERT_QUESTIONS_SQL =
+            "INSERT INTO question (id, domain, difficulty, qtype, stem, explanation, " +
+            "stem_es, stem_en, explanation_es, explanation_en, tags_json, content_hash) " +
+            "SELECT id, domain, difficulty, qtype, stem, explanation, " +
+            "stem_es, stem_en, explanation_es, explanation_en, tags_json, content_hash " +
+            "FROM question_staging WHERE action = 'INSERT'";
+
+    private static final String SWAP_INSERT_OPTIONS_SQL =
+            "INSERT INTO option_item (id, question_id, label, text, text_es, text_en, is_correct) " +
+            "SELECT id, question_id, label, text, text_es, text_en, is_correct FROM option_item_staging";
+
+    private static final String SWAP_UPDATE_SQL =
+            "MERGE INTO question q " +
+            "USING (SELECT * FROM question_staging WHERE action = 'UPDATE') s ON q.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET domain = s.domain, difficulty = s.difficulty, " +
+            "explanation = s.explanation, explanation_es = s.explanation_es, explanation_en = s.explanation_en, " +
+            "tags_json = s.tags_json, deleted_at = NULL";
+
+    private static final String SWAP_SOFT_DELETE_SQL =
+            "UPDATE question q SET deleted_at = ? WHERE q.deleted_at IS NULL AND q.content_hash IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM question_staging s WHERE s.id = q.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionBatchWriter questionBatchWriter;
+
+    /**
+     * Empty the staging tables and drop their index; also clears what a failed import left behind
+     */
+    public void reset() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_question_staging_id");
+        jdbcTemplate.execute("TRUNCATE TABLE option_item_staging");
+        jdbcTemplate.execute("TRUNCATE TABLE question_staging");
+    }
+
+    /**
+     * Stage one batch of the diff: new questions with their options, metadata updates and
+     * the ids of unchanged questions (a sync swap soft-deletes every active id not staged)
+     *
+     * @return ids given to the new questions
+     */
+    public long[] stage(List<ImportedQuestion> inserts, List<QuestionUpdate> updates, List<Long> unchangedIds) {
+        long[] ids = questionBatchWriter.stage(inserts);
+
+        if (!updates.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(updates.size());
+            for (QuestionUpdate update : updates) {
+                ImportedQuestion question = update.question();
+                rows.add(new Object[]{
+                        update.id(),
+                        question.domain().name(),
+                        question.difficulty().name(),
+                        question.explanation(),
+                        question.explanationEs(),
+                        question.explanationEn(),
+                        question.tagsJson()
+                });
+            }
+            jdbcTemplate.batchUpdate(STAGE_UPDATE_SQL, rows, STAGE_UPDATE_TYPES);
+        }
+
+        if (!unchangedIds.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(unchangedIds.size());
+            for (Long id : unchangedIds) {
+                rows.add(new Object[]{id});
+            }
+            jdbcTemplate.batchUpdate(STAGE_KEEP_SQL, rows, new int[]{Types.BIGINT});
+        }
+        return ids;
+    }
+
+    /**
+     * Build the index the swap joins on, once, after the load
+     */
+    public void createIndexes() {
+        jdbcTemplate.execute("CREATE INDEX idx_question_staging_id ON question_staging(id)");
+    }
+
+    /**
+     * Apply the staged rows to the bank and move the version pointer. Run in one transaction.
+     *
+     * @param deleteMissing soft-delete active questions that were not staged (sync imports)
+     */
+    public SwapResult swap(boolean deleteMissing, LocalDateTime switchedAt) {
+        int inserted = jdbcTemplate.update(SWAP_INSERT_QUESTIONS_SQL);
+        int options = jdbcTemplate.update(SWAP_INSERT_OPTIONS_SQL);
+        int updated = jdbcTemplate.update(SWAP_UPDATE_SQL);
+        int deleted = deleteMissing ? jdbcTemplate.update(SWAP_SOFT_DELETE_SQL, Timestamp.valueOf(switchedAt)) : 0;
+
+        long version = inserted + updated + deleted > 0
+                ? questionBatchWriter.advanceBankVersion(switchedAt)
+                : questionBatchWriter.bankVersion();
+        log.info("Swapped staged questions into bank version {}: {} inserted, {} updated, {} deleted",
+                version, inserted, updated, deleted);
+        return new SwapResult(inserted, options, updated, deleted, version);
+    }
+
+    public record SwapResult(int inserted, int options, int updated, int deleted, long bankVersion) {
+    }
+}
@@ -5,8 +5,6 @@ import co.singularit.az104simulator.dto.OptionDto;
 import co.singularit.az104simulator.dto.QuestionResultDto;
 import co.singularit.az104simulator.dto.ResultDto;
 import co.singularit.az104simulator.repository.QuestionRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -22,93 +20,101 @@ public class ScoringService {
 
     private final QuestionRepository questionRepository;
     private final QuestionService questionService;
-    private final ObjectMapper objectMapper;
+    private final QuestionBankSnapshot questionBankSnapshot;
+
+    /**
+     * Score an attempt without building per-question results.
+     * Used when an attempt is completed; the results page uses calculateResults.
+     */
+    public AttemptScore score(List<AttemptAnswer> answers) {
+        AnswerKeyIndex keys = answerKeysFor(answers);
+
+        int correct = 0;
+        int incorrect = 0;
+        int unanswered = 0;
+        int marked = 0;
+        int[] domainCorrect = new int[Domain.values().length];
+        int[] domainTotal = new int[Domain.values().length];
 
-    public ResultDto calculateResults(Attempt attempt, List<AttemptAnswer> answers) {
-        ResultDto result = new ResultDto();
-        result.setAttemptId(attempt.getId());
-        result.setTotalQuestions(attempt.getTotalQuestions());
-
-        if (attempt.getEndedAt() != null && attempt.getStartedAt() != null) {
-            long seconds = Duration.between(attempt.getStartedAt(), attempt.getEndedAt()).getSeconds();
-            result.setDurationSeconds((int) seconds);
-            if (attempt.getTotalQuestions() > 0) {
-                result.setAverageTimePerQuestion((double) seconds / attempt.getTotalQuestions());
+        for (AttemptAnswer answer : answers) {
+            if (Boolean.TRUE.equals(answer.getMarked())) {
+                marked++;
             }
-        }
 
-        Map<Long, Question> questionMap = new HashMap<>();
-        Map<Long, List<Long>> selectedAnswersMap = new HashMap<>();
+            long selection = answer.getSelectedOptionMask();
+            boolean answered = selection != 0L;
 
-        // Build map of selected answers
-        for (AttemptAnswer answer : answers) {
-            if (answer.getSelectedOptionIdsJson() != null && !answer.getSelectedOptionIdsJson().isEmpty()) {
-                try {
-                    List<Long> selectedIds = objectMapper.readValue(
-                            answer.getSelectedOptionIdsJson(),
-                            new TypeReference<List<Long>>() {}
-                    );
-                    selectedAnswersMap.put(answer.getQuestionId(), selectedIds);
-                } catch (Exception e) {
-                    log.error("Failed to parse selected options for question {}", answer.getQuestionId(), e);
-                    selectedAnswersMap.put(answer.getQuestionId(), new ArrayList<>());
+            int index = keys.indexOf(answer.getQuestionId());
+            boolean isCorrect = index >= 0 && keys.isCorrect(index, selection);
+            if (index >= 0) {
+                int domain = keys.domain(index).ordinal();
+                domainTotal[domain]++;
+                if (isCorrect) {
+                    domainCorrect[domain]++;
                 }
+            }
+
+            if (isCorrect) {
+                correct++;
+            } else if (answered) {
+                incorrect++;
             } else {
-                selectedAnswersMap.put(answer.getQuestionId(), new ArrayList<>());
+                unanswered++;
             }
         }
 
-        // Load all questions
+        return new AttemptScore(correct, incorrect, unanswered, marked, domainCorrect, domainTotal);
+    }
+
+    /**
+     * Build the summary result of a scored attempt, without per-question results
+     */
+    public ResultDto toResultDto(Attempt attempt, AttemptScore score) {
+        ResultDto result = newResult(attempt);
+        Map<Domain, ResultDto.DomainBreakdown> domainBreakdowns = emptyBreakdowns();
+        for (Domain domain : Domain.values()) {
+            ResultDto.DomainBreakdown breakdown = domainBreakdowns.get(domain);
+            breakdown.setCorrect(score.correctIn(domain));
+            breakdown.setTotal(score.totalIn(domain));
+        }
+        applyTotals(result, attempt, score.correct(), domainBreakdowns);
+        return result;
+    }
+
+    public ResultDto calculateResults(Attempt attempt, List<AttemptAnswer> answers) {
+        ResultDto result = newResult(attempt);
+
+        // Load all questions for display; correctness comes from the answer key index
+        AnswerKeyIndex keys = answerKeysFor(answers);
         Set<Long> questionIds = answers.stream()
                 .map(AttemptAnswer::getQuestionId)
                 .collect(Collectors.toSet());
 
-        List<Question> questions = questionRepository.findAllById(questionIds);
-        for (Question q : questions) {
+        Map<Long, Question> questionMap = new HashMap<>();
+        for (Question q : questionRepository.findAllByIdCached(questionIds)) {
             questionMap.put(q.getId(), q);
         }
 
         // Score each question
         int correctCount = 0;
-        Map<Domain, ResultDto.DomainBreakdown> domainBreakdowns = new HashMap<>();
-
-        for (Domain domain : Domain.values()) {
-            ResultDto.DomainBreakdown breakdown = new ResultDto.DomainBreakdown();
-            breakdown.setDomain(domain);
-            breakdown.setCorrect(0);
-            breakdown.setTotal(0);
-            breakdown.setPercentage(0.0);
-            domainBreakdowns.put(domain, breakdown);
-        }
-
+        Map<Domain, ResultDto.DomainBreakdown> domainBreakdowns = emptyBreakdowns();
         List<QuestionResultDto> questionResults = new ArrayList<>();
 
         for (AttemptAnswer answer : answers) {
             Question question = questionMap.get(answer.getQuestionId());
-            if (question == null) {
+            int index = keys.indexOf(answer.getQuestionId());
+            if (question == null || index < 0) {
                 continue;
             }
 
-            List<Long> correctIds = question.getOptions().stream()
-                    .filter(OptionItem::getIsCorrect)
-                    .map(OptionItem::getId)
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            List<Long> selectedIds = selectedAnswersMap.getOrDefault(answer.getQuestionId(), new ArrayList<>())
-                    .stream()
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            boolean isCorrect = correctIds.equals(selectedIds);
+            List<Long> selectedIds = keys.optionIds(index, answer.getSelectedOptionMask());
+            boolean isCorrect = keys.isCorrect(index, answer.getSelectedOptionMask());
 
+            ResultDto.DomainBreakdown breakdown = domainBreakdowns.get(question.getDomain());
             if (isCorrect) {
                 correctCount++;
-                ResultDto.DomainBreakdown breakdown = domainBreakdowns.get(question.getDomain());
                 breakdown.setCorrect(breakdown.getCorrect() + 1);
             }
-
-            ResultDto.DomainBreakdown breakdown = domainBreakdowns.get(question.getDomain());
             breakdown.setTotal(breakdown.getTotal() + 1);
 
             // Build question result
@@ -116,7 +122,7 @@ public class ScoringService {
             qResult.setQuestionId(question.getId());
             qResult.setStem(question.getStem());
             qResult.setExplanation(question.getExplanation());
-            qResult.setCorrectOptionIds(correctIds);
+            qResult.setCorrectOptionIds(keys.correctOptionIds(index));
             qResult.setSelectedOptionIds(selectedIds);
             qResult.setIsCorrect(isCorrect);
 
@@ -135,6 +141,47 @@ public class ScoringService {
             questionResults.add(qResult);
         }
 
+        applyTotals(result, attempt, correctCount, domainBreakdowns);
+        result.setQuestionResults(questionResults);
+
+        return result;
+    }
+
+    private AnswerKeyIndex answerKeysFor(List<AttemptAnswer> answers) {
+        return questionBankSnapshot.answerKeysCovering(
+                answers.stream().map(AttemptAnswer::getQuestionId).toList());
+    }
+
+    private ResultDto newResult(Attempt attempt) {
+        ResultDto result = new ResultDto();
+        result.setAttemptId(attempt.getId());
+        result.setTotalQuestions(attempt.getTotalQuestions());
+
+        if (attempt.getEndedAt() != null && attempt.getStartedAt() != null) {
+            long seconds = Duration.between(attempt.getStartedAt(), attempt.getEndedAt()).getSeconds();
+            result.setDurationSeconds((int) seconds);
+            if (attempt.getTotalQuestions() > 0) {
+                result.setAverageTimePerQuestion((double) seconds / attempt.getTotalQuestions());
+            }
+        }
+        return result;
+    }
+
+    private Map<Domain, ResultDto.DomainBreakdown> emptyBreakdowns() {
+        Map<Domain, ResultDto.DomainBreakdown> domainBreakdowns = new HashMap<>();
+        for (Domain domain : Domain.values()) {
+            ResultDto.DomainBreakdown breakdown = new ResultDto.DomainBreakdown();
+            breakdown.setDomain(domain);
+            breakdown.setCorrect(0);
+            breakdown.setTotal(0);
+            breakdown.setPercentage(0.0);
+            domainBreakdowns.put(domain, breakdown);
+        }
+        return domainBreakdowns;
+    }
+
+    private void applyTotals(ResultDto result, Attempt attempt, int correctCount,
+                             Map<Domain, ResultDto.DomainBreakdown> domainBreakdowns) {
         result.setCorrectAnswers(correctCount);
         result.setIncorrectAnswers(attempt.getTotalQuestions() - correctCount);
 
@@ -152,9 +199,6 @@ public class ScoringService {
         }
 
         result.setDomainBreakdowns(domainBreakdowns);
-        result.setQuestionResults(questionResults);
-
-        return result;
     }
 
     private String getLocalizedText(String textEs, String textEn, String fallback, String lang) {
@@ -0,0 +1,25 @@
+-- Store the selected options of an answer as a bitmask instead of a JSON array.
+-- Bit i is set when the question's i-th option (in ascending option id order) is selected;
+-- NULL means unanswered.
+ALTER TABLE attempt_answer ADD COLUMN selected_option_mask BIGINT;
+
+-- Convert existing selections: match each option id against the comma separated JSON list
+-- and add 2^position for every match. Ids that are not options of the question are dropped.
+UPDATE attempt_answer a
+SET selected_option_mask = (
+    SELECT CAST(SUM(POWER(2, (
+        SELECT COUNT(*) FROM option_item o2
+        WHERE o2.question_id = o.question_id AND o2.id < o.id
+    ))) AS BIGINT)
+    FROM option_item o
+    WHERE o.question_id = a.question_id
+      AND POSITION(
+            CONCAT(',', CAST(o.id AS VARCHAR), ','),
+            CONCAT(',', REPLACE(REPLACE(REPLACE(a.selected_option_ids_json, '[', ''), ']', ''), ' ', ''), ',')
+          ) > 0
+)
+WHERE a.selected_option_ids_json IS NOT NULL
+  AND a.selected_option_ids_json <> ''
+  AND a.selected_option_ids_json <> '[]';
+
+ALTER TABLE attempt_answer DROP COLUMN selected_option_ids_json;
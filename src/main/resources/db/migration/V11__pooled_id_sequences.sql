@@ -0,0 +1,13 @@
+-- Pooled sequences for the generated ids
+-- IDENTITY ids force Hibernate to insert row by row to read each key back, which disables
+-- JDBC batching. With sequences Hibernate reserves 50 ids per round trip and can batch the
+-- INSERTs of exam_session_question and attempt_answer rows.
+--
+-- Hibernate's pooled optimizer treats a sequence value as the upper end of a block of 50,
+-- so each sequence starts 50 above the current maximum id to keep new ids above existing rows.
+-- The AUTO_INCREMENT column defaults are left as they are; the application no longer uses them.
+
+CREATE SEQUENCE question_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM question) INCREMENT BY 50;
+CREATE SEQUENCE option_item_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM option_item) INCREMENT BY 50;
+CREATE SEQUENCE attempt_answer_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM attempt_answer) INCREMENT BY 50;
+CREATE SEQUENCE exam_session_question_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM exam_session_question) INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Optional packed storage of a session's question order (app.session.storage=packed)
+-- Holds the ordered question ids as 8-byte big-endian values; NULL for sessions that
+-- use exam_session_question rows.
+
+ALTER TABLE exam_session ADD COLUMN question_ids VARBINARY;
@@ -0,0 +1,13 @@
+-- Incremental imports
+-- content_hash is the SHA-256 (hex) of a question's normalized stem, options and answer key
+-- (QuestionContentHash). An import matches incoming questions to existing rows by this hash,
+-- so unchanged questions keep their ids. Rows written before this migration get their hash
+-- at startup (QuestionHashBackfill).
+--
+-- deleted_at marks questions dropped by a sync import. They are no longer selected for new
+-- exams but stay in place so sessions and attempts that reference them keep resolving.
+
+ALTER TABLE question ADD COLUMN content_hash VARCHAR(64);
+ALTER TABLE question ADD COLUMN deleted_at TIMESTAMP;
+
+CREATE INDEX idx_question_content_hash ON question(content_hash);
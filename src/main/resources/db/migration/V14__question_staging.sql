@@ -0,0 +1,43 @@
+-- Staged imports
+-- A staged import first bulk-loads the file into these shadow tables, which no exam reads,
+-- then applies them to question and option_item in one short transaction (QuestionStagingArea).
+-- They have no constraints so the load is plain appends; the index the swap needs is built
+-- once the load is done. Rows are kept only for the duration of an import.
+--
+-- question_staging.action is INSERT (new question, id reserved from question_seq), UPDATE
+-- (metadata for the existing question with this id) or KEEP (existing question unchanged).
+
+CREATE TABLE question_staging (
+    id BIGINT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    domain VARCHAR(50),
+    difficulty VARCHAR(20),
+    qtype VARCHAR(20),
+    stem TEXT,
+    explanation TEXT,
+    stem_es TEXT,
+    stem_en TEXT,
+    explanation_es TEXT,
+    explanation_en TEXT,
+    tags_json TEXT,
+    content_hash VARCHAR(64)
+);
+
+CREATE TABLE option_item_staging (
+    id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    label VARCHAR(10) NOT NULL,
+    text TEXT NOT NULL,
+    text_es TEXT,
+    text_en TEXT,
+    is_correct BOOLEAN NOT NULL
+);
+
+-- Bank version pointer: moved on in the same transaction that publishes an import's changes
+CREATE TABLE question_bank_state (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    switched_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO question_bank_state (id, version, switched_at) VALUES (1, 1, CURRENT_TIMESTAMP);
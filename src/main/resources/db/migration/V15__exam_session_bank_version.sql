@@ -0,0 +1,4 @@
+-- Bank version (question_bank_state.version) a session was built from
+-- NULL for sessions created before bank versions were tracked.
+
+ALTER TABLE exam_session ADD COLUMN bank_version BIGINT;
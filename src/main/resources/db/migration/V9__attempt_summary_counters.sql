@@ -0,0 +1,11 @@
+-- Denormalized attempt summary, filled when the attempt is completed.
+-- History reads these instead of rescoring every answer; NULL means the attempt
+-- was completed before the columns existed and is summarized from its answers.
+ALTER TABLE attempt ADD COLUMN correct_count INTEGER;
+ALTER TABLE attempt ADD COLUMN incorrect_count INTEGER;
+ALTER TABLE attempt ADD COLUMN unanswered_count INTEGER;
+ALTER TABLE attempt ADD COLUMN marked_count INTEGER;
+ALTER TABLE attempt ADD COLUMN locale VARCHAR(10);
+
+-- Per-domain correct/total, e.g. {"COMPUTE":{"correct":3,"total":5}}
+ALTER TABLE attempt ADD COLUMN domain_summary_json TEXT;
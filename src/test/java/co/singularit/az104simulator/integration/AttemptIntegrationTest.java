@@ -7,6 +7,9 @@ import co.singularit.az104simulator.repository.AttemptAnswerRepository;
 import co.singularit.az104simulator.repository.AttemptRepository;
 import co.singularit.az104simulator.repository.QuestionRepository;
 import co.singularit.az104simulator.service.AttemptService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +28,7 @@ import static org.assertj.core.api.Assertions.*;
  * Integration tests for Attempt functionality - CRITICAL for preventing question repetition bug.
  * These tests verify database constraints and stable question ordering.
  */
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ActiveProfiles("test")
 @Transactional
 class AttemptIntegrationTest {
@@ -42,6 +45,9 @@ class AttemptIntegrationTest {
     @Autowired
     private QuestionRepository questionRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private List<Question> testQuestions;
 
     @BeforeEach
@@ -340,6 +346,50 @@ class AttemptIntegrationTest {
         assertThat(completedAttempt.getEndedAt()).isNotNull();
     }
 
+    @Test
+    void completeAttempt_ShouldStoreSummaryCounters() {
+        // Arrange
+        int requestedQuestions = 10;
+        ExamConfigDto config = createExamConfig(ExamMode.EXAM, requestedQuestions);
+        Attempt attempt = attemptService.createAttempt(config, UUID.randomUUID().toString());
+
+        // Act
+        attemptService.completeAttempt(attempt.getId());
+
+        // Assert - nothing was answered
+        Attempt completedAttempt = attemptRepository.findById(attempt.getId()).orElseThrow();
+        assertThat(completedAttempt.hasSummaryCounters()).isTrue();
+        assertThat(completedAttempt.getCorrectCount()).isZero();
+        assertThat(completedAttempt.getIncorrectCount()).isZero();
+        assertThat(completedAttempt.getUnansweredCount()).isEqualTo(requestedQuestions);
+        assertThat(completedAttempt.getMarkedCount()).isZero();
+        assertThat(completedAttempt.getLocale()).isNotBlank();
+        assertThat(completedAttempt.getDomainSummaryJson()).contains("\"total\"");
+    }
+
+    @Test
+    void createAttempt_ShouldBatchSessionAndAnswerInserts() {
+        // Arrange
+        int requestedQuestions = 50;
+        ExamConfigDto config = createExamConfig(ExamMode.EXAM, requestedQuestions);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // Act
+        attemptService.createAttempt(config, UUID.randomUUID().toString());
+        entityManager.flush();
+
+        // Assert - session, attempt, 50 session questions and 50 answer placeholders,
+        // sent as a few batches instead of one statement per row
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2 + 2L * requestedQuestions);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+    }
+
     private ExamConfigDto createExamConfig(ExamMode mode, int numberOfQuestions) {
         ExamConfigDto config = new ExamConfigDto();
         config.setMode(mode);
@@ -0,0 +1,133 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
+import co.singularit.az104simulator.dto.ExamConfigDto;
+import co.singularit.az104simulator.repository.AttemptAnswerRepository;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import co.singularit.az104simulator.service.AttemptService;
+import co.singularit.az104simulator.service.AttemptStateStore;
+import co.singularit.az104simulator.service.ExamSessionService;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Practice attempts held in memory (app.attempt-store.enabled): nothing is written until the
+ * attempt completes, and a completion that rolls back leaves it in memory. Each completion
+ * commits, so there is no test transaction.
+ */
+@SpringBootTest(properties = {
+    "app.attempt-store.enabled=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class AttemptStoreIntegrationTest {
+
+    private static final int QUESTIONS = 20;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private AttemptStateStore attemptStateStore;
+
+    @Autowired
+    private AttemptRepository attemptRepository;
+
+    @Autowired
+    private AttemptAnswerRepository attemptAnswerRepository;
+
+    @Autowired
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoSpyBean
+    private ExamSessionService examSessionService;
+
+    private Attempt attempt;
+
+    @BeforeEach
+    void setUp() {
+        ExamConfigDto config = new ExamConfigDto();
+        config.setMode(ExamMode.PRACTICE);
+        config.setNumberOfQuestions(QUESTIONS);
+        config.setSelectedDomains(List.of(Domain.values()));
+        attempt = attemptService.createAttempt(config, UUID.randomUUID().toString());
+        answerFirstQuestion();
+    }
+
+    @Test
+    void completeAttempt_ShouldInsertAttemptWithItsAnswers_AtCompletionOnly() {
+        assertThat(attemptStateStore.get(attempt.getId())).isSameAs(attempt);
+        assertThat(attemptRepository.existsById(attempt.getId())).isFalse();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        attemptService.completeAttempt(attempt.getId());
+
+        // The attempt and every answer in one go, the answers batched
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + QUESTIONS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(QUESTIONS);
+        assertThat(attemptStateStore.get(attempt.getId())).isNull();
+
+        Attempt saved = attemptRepository.findById(attempt.getId()).orElseThrow();
+        assertThat(saved.getIsCompleted()).isTrue();
+        assertThat(saved.getTotalQuestions()).isEqualTo(QUESTIONS);
+        assertThat(attemptAnswerRepository.findByAttemptOrderByPositionAsc(saved))
+            .hasSize(QUESTIONS)
+            .filteredOn(answer -> answer.isAnswered())
+            .hasSize(1);
+    }
+
+    @Test
+    void completeAttempt_ShouldKeepAttemptInMemory_WhenCompletionRollsBack() {
+        doThrow(new IllegalStateException("Session store unavailable"))
+            .when(examSessionService).completeSession(anyString());
+
+        assertThatThrownBy(() -> attemptService.completeAttempt(attempt.getId()))
+            .isInstanceOf(IllegalStateException.class);
+
+        // Nothing written and nothing lost
+        assertThat(attemptRepository.existsById(attempt.getId())).isFalse();
+        assertThat(attemptStateStore.get(attempt.getId())).isSameAs(attempt);
+        assertThat(attempt.getIsCompleted()).isFalse();
+        assertThat(attemptService.getAttemptStatus(attempt.getId()).get("answeredCount")).isEqualTo(1L);
+
+        // The student can carry on and complete it later
+        reset(examSessionService);
+        attemptService.updateCurrentIndex(attempt.getId(), 3);
+        attemptService.completeAttempt(attempt.getId());
+
+        Attempt saved = attemptRepository.findById(attempt.getId()).orElseThrow();
+        assertThat(saved.getIsCompleted()).isTrue();
+        assertThat(saved.getCurrentQuestionIndex()).isEqualTo(3);
+    }
+
+    private void answerFirstQuestion() {
+        Long questionId = attemptService.getQuestionIds(attempt.getId()).get(0);
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(questionId);
+        submission.setSelectedOptionIds(List.of(questionBankSnapshot.find(questionId).orElseThrow().options().get(0).id()));
+        attemptService.submitAnswer(attempt.getId(), submission);
+    }
+}
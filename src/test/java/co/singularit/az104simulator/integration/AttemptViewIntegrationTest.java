@@ -0,0 +1,136 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
+import co.singularit.az104simulator.dto.AttemptView;
+import co.singularit.az104simulator.dto.ExamConfigDto;
+import co.singularit.az104simulator.dto.QuestionDto;
+import co.singularit.az104simulator.service.AttemptService;
+import co.singularit.az104simulator.service.AttemptViewService;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compares the exam page built by AttemptViewService with the sequence of service calls
+ * ExamController.showQuestion used to make, including the SQL statements each one issues.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class AttemptViewIntegrationTest {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private AttemptViewService attemptViewService;
+
+    @Autowired
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Attempt attempt;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+
+        ExamConfigDto config = new ExamConfigDto();
+        config.setMode(ExamMode.EXAM);
+        config.setNumberOfQuestions(20);
+        config.setSelectedDomains(List.of(Domain.values()));
+        attempt = attemptService.createAttempt(config, UUID.randomUUID().toString());
+
+        // Answer and mark the first question
+        Long questionId = attemptService.getQuestionIds(attempt.getId()).get(0);
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(questionId);
+        submission.setSelectedOptionIds(List.of(questionBankSnapshot.find(questionId).orElseThrow().options().get(0).id()));
+        submission.setMarked(true);
+        attemptService.submitAnswer(attempt.getId(), submission);
+
+        flushAndClear();
+    }
+
+    @Test
+    void getView_ShouldMatchLegacyPageData() {
+        // Act
+        AttemptView view = attemptViewService.getView(attempt.getId(), 0, "es").orElseThrow();
+        QuestionDto legacyQuestion = attemptService.getQuestionForAttempt(attempt.getId(), 0, ExamMode.EXAM, "es");
+        Map<String, Object> legacyStatus = attemptService.getAttemptStatus(attempt.getId());
+        List<String> legacyStates = attemptService.getQuestionStates(attempt.getId());
+
+        // Assert
+        assertThat(view.getQuestion().getId()).isEqualTo(legacyQuestion.getId());
+        assertThat(view.getQuestion().getStem()).isEqualTo(legacyQuestion.getStem());
+        assertThat(view.getQuestion().getSelectedOptionIds()).isEqualTo(legacyQuestion.getSelectedOptionIds());
+        assertThat(view.getQuestion().getMarked()).isTrue();
+        assertThat(view.getAnsweredCount()).isEqualTo(legacyStatus.get("answeredCount"));
+        assertThat(view.getMarkedCount()).isEqualTo(legacyStatus.get("markedCount"));
+        assertThat(view.getQuestionStates()).isEqualTo(legacyStates);
+        assertThat(view.getRemainingSeconds()).isPositive();
+    }
+
+    @Test
+    void getView_ShouldReturnEmpty_WhenIndexIsOutOfRange() {
+        assertThat(attemptViewService.getView(attempt.getId(), 20, "es")).isEmpty();
+        assertThat(attemptViewService.getView(attempt.getId(), -1, "es")).isEmpty();
+    }
+
+    @Test
+    void statementsPerPageView_BeforeAndAfter() {
+        // Warm the question DTO cache so both paths render the question from memory
+        attemptViewService.getView(attempt.getId(), 0, "es");
+        flushAndClear();
+
+        // Before: each service call ran in its own transaction and persistence context
+        statistics.clear();
+        attemptService.getAttempt(attempt.getId());
+        flushAndClear();
+        attemptService.getAttemptConfig(attempt.getId());
+        flushAndClear();
+        attemptService.getQuestionForAttempt(attempt.getId(), 0, ExamMode.EXAM, "es");
+        flushAndClear();
+        attemptService.getAttemptStatus(attempt.getId());
+        flushAndClear();
+        attemptService.getQuestionStates(attempt.getId());
+        flushAndClear();
+        long before = statistics.getPrepareStatementCount();
+
+        // After: one attempt read plus one answers read
+        statistics.clear();
+        attemptViewService.getView(attempt.getId(), 0, "es");
+        long after = statistics.getPrepareStatementCount();
+
+        assertThat(after)
+            .as("Statements per page view: before=%d, after=%d", before, after)
+            .isEqualTo(2)
+            .isLessThan(before);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
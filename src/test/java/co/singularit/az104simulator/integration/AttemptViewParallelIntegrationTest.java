@@ -0,0 +1,89 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
+import co.singularit.az104simulator.dto.AttemptView;
+import co.singularit.az104simulator.dto.ExamConfigDto;
+import co.singularit.az104simulator.dto.QuestionDto;
+import co.singularit.az104simulator.service.AttemptService;
+import co.singularit.az104simulator.service.AttemptViewService;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The exam page with app.exam-page.parallel-reads: the reads run on other threads in their
+ * own transactions, so the attempt is committed first (no test transaction here).
+ */
+@SpringBootTest(properties = "app.exam-page.parallel-reads=true")
+@ActiveProfiles("test")
+class AttemptViewParallelIntegrationTest {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private AttemptViewService attemptViewService;
+
+    @Autowired
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    private Attempt attempt;
+
+    @BeforeEach
+    void setUp() {
+        ExamConfigDto config = new ExamConfigDto();
+        config.setMode(ExamMode.EXAM);
+        config.setNumberOfQuestions(20);
+        config.setSelectedDomains(List.of(Domain.values()));
+        attempt = attemptService.createAttempt(config, UUID.randomUUID().toString());
+
+        // Answer and mark the second question
+        Long questionId = attemptService.getQuestionIds(attempt.getId()).get(1);
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(questionId);
+        submission.setSelectedOptionIds(List.of(questionBankSnapshot.find(questionId).orElseThrow().options().get(0).id()));
+        submission.setMarked(true);
+        attemptService.submitAnswer(attempt.getId(), submission);
+    }
+
+    @Test
+    void getView_ShouldMatchLegacyPageData() {
+        AttemptView view = attemptViewService.getView(attempt.getId(), 1, "en").orElseThrow();
+        QuestionDto legacyQuestion = attemptService.getQuestionForAttempt(attempt.getId(), 1, ExamMode.EXAM, "en");
+        Map<String, Object> legacyStatus = attemptService.getAttemptStatus(attempt.getId());
+
+        assertThat(view.getQuestion().getId()).isEqualTo(legacyQuestion.getId());
+        assertThat(view.getQuestion().getStem()).isEqualTo(legacyQuestion.getStem());
+        assertThat(view.getQuestion().getSelectedOptionIds()).isEqualTo(legacyQuestion.getSelectedOptionIds());
+        assertThat(view.getQuestion().getMarked()).isTrue();
+        assertThat(view.getAnsweredCount()).isEqualTo(legacyStatus.get("answeredCount"));
+        assertThat(view.getMarkedCount()).isEqualTo(legacyStatus.get("markedCount"));
+        assertThat(view.getQuestionStates()).isEqualTo(attemptService.getQuestionStates(attempt.getId()));
+        assertThat(view.getRemainingSeconds()).isPositive();
+    }
+
+    @Test
+    void getView_ShouldReturnEmpty_WhenIndexIsOutOfRange() {
+        assertThat(attemptViewService.getView(attempt.getId(), 20, "en")).isEmpty();
+        assertThat(attemptViewService.getView(attempt.getId(), -1, "en")).isEmpty();
+    }
+
+    @Test
+    void getView_ShouldFail_WhenAttemptDoesNotExist() {
+        assertThatThrownBy(() -> attemptViewService.getView("missing", 0, "en"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Attempt not found");
+    }
+}
@@ -1,8 +1,12 @@
 package co.singularit.az104simulator.integration;
 
 import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.dto.AttemptHistoryDto;
 import co.singularit.az104simulator.repository.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import co.singularit.az104simulator.service.HistoryService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,7 +50,10 @@ public class HistoryIntegrationTest {
     private ExamSessionQuestionRepository examSessionQuestionRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private HistoryService historyService;
+
+    @Autowired
+    private EntityManager entityManager;
 
     private String studentId;
     private String attemptId;
@@ -154,8 +162,94 @@ public class HistoryIntegrationTest {
                 .andExpect(model().attribute("attempts", hasSize(0)));
     }
 
+    @Test
+    public void testGetAttemptHistory_countsAnswersInOnePass() {
+        createCompletedAttempt();
+        flushAndClear();
+
+        List<AttemptHistoryDto> history = historyService.getAttemptHistory(studentId, null, 50);
+
+        assertThat(history).hasSize(1);
+        AttemptHistoryDto dto = history.get(0);
+        assertThat(dto.getCorrectCount()).isEqualTo(1);
+        assertThat(dto.getIncorrectCount()).isEqualTo(1);
+        assertThat(dto.getUnansweredCount()).isEqualTo(1);
+        assertThat(dto.getMarkedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetAttemptHistory_usesConstantNumberOfStatements() {
+        // One attempt on the page
+        createCompletedAttempt();
+        flushAndClear();
+        long statementsForOneAttempt = statementsPreparedBy(
+                () -> historyService.getAttemptHistory(studentId, null, 50));
+
+        // Twenty attempts on the page
+        for (int i = 0; i < 19; i++) {
+            createCompletedAttempt();
+        }
+        flushAndClear();
+        List<AttemptHistoryDto> history = new ArrayList<>();
+        long statementsForTwentyAttempts = statementsPreparedBy(
+                () -> history.addAll(historyService.getAttemptHistory(studentId, null, 50)));
+
+        assertThat(history).hasSize(20);
+        assertThat(statementsForOneAttempt).isLessThanOrEqualTo(3);
+        assertThat(statementsForTwentyAttempts).isEqualTo(statementsForOneAttempt);
+    }
+
+    @Test
+    public void testGetAttemptHistory_readsStoredCountersWithSingleStatement() {
+        for (int i = 0; i < 5; i++) {
+            Attempt attempt = createCompletedAttempt();
+            attempt.setCorrectCount(2);
+            attempt.setIncorrectCount(0);
+            attempt.setUnansweredCount(1);
+            attempt.setMarkedCount(0);
+            attempt.setLocale("en");
+            attemptRepository.save(attempt);
+        }
+        flushAndClear();
+
+        List<AttemptHistoryDto> history = new ArrayList<>();
+        long statements = statementsPreparedBy(
+                () -> history.addAll(historyService.getAttemptHistory(studentId, null, 50)));
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(history).hasSize(5);
+        assertThat(history).allSatisfy(dto -> {
+            assertThat(dto.getCorrectCount()).isEqualTo(2);
+            assertThat(dto.getUnansweredCount()).isEqualTo(1);
+            assertThat(dto.getLocale()).isEqualTo("en");
+        });
+    }
+
     // Helper methods
 
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * JDBC statements Hibernate prepares while the action runs. Statistics are only switched on
+     * for its duration, so the shared context is left as the other tests expect it.
+     */
+    private long statementsPreparedBy(Runnable action) {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            action.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     private Attempt createCompletedAttempt() {
         return createCompletedAttempt(ExamMode.PRACTICE);
     }
@@ -213,11 +307,7 @@ public class HistoryIntegrationTest {
                         .map(OptionItem::getId)
                         .orElse(null);
                 if (correctId != null) {
-                    try {
-                        answer.setSelectedOptionIdsJson(objectMapper.writeValueAsString(List.of(correctId)));
-                    } catch (Exception e) {
-                        // ignore
-                    }
+                    answer.setSelectedOptionMask(selectionMask(q, correctId));
                 }
             } else if (i == 1) {
                 // Incorrect answer
@@ -227,14 +317,10 @@ public class HistoryIntegrationTest {
                         .map(OptionItem::getId)
                         .orElse(null);
                 if (incorrectId != null) {
-                    try {
-                        answer.setSelectedOptionIdsJson(objectMapper.writeValueAsString(List.of(incorrectId)));
-                    } catch (Exception e) {
-                        // ignore
-                    }
+                    answer.setSelectedOptionMask(selectionMask(q, incorrectId));
                 }
             }
-            // i == 2 remains unanswered (null)
+            // i == 2 remains unanswered (0)
 
             answer.setMarked(i == 1); // Mark second question
             attempt.addAnswer(answer);
@@ -244,6 +330,17 @@ public class HistoryIntegrationTest {
         return attempt;
     }
 
+    /**
+     * Bit of the option's position among the question's options in ascending id order
+     */
+    private long selectionMask(Question question, Long optionId) {
+        List<Long> optionIds = question.getOptions().stream()
+                .map(OptionItem::getId)
+                .sorted()
+                .toList();
+        return 1L << optionIds.indexOf(optionId);
+    }
+
     private List<Question> createTestQuestions() {
         List<Question> questions = new ArrayList<>();
 
@@ -0,0 +1,109 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.QuestionType;
+import co.singularit.az104simulator.service.ImportedQuestion;
+import co.singularit.az104simulator.service.QuestionBatchWriter;
+import co.singularit.az104simulator.service.QuestionBatchWriter.ExistingQuestion;
+import co.singularit.az104simulator.service.QuestionBatchWriter.QuestionUpdate;
+import co.singularit.az104simulator.service.QuestionContentHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The SQL the import diff runs against the bank: the hash index, in-place metadata updates
+ * and soft-deletes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QuestionBatchWriterIntegrationTest {
+
+    @Autowired
+    private QuestionBatchWriter questionBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ImportedQuestion first;
+    private ImportedQuestion second;
+    private long firstId;
+    private long secondId;
+    private long unhashedId;
+
+    @BeforeEach
+    void setUp() {
+        first = question("first", "[\"a\"]");
+        second = question("second", "[\"a\"]");
+        long[] ids = questionBatchWriter.insert(List.of(first, second, question("unhashed", "[\"a\"]")));
+        firstId = ids[0];
+        secondId = ids[1];
+        // Stored before V13 and not reached by QuestionHashBackfill yet
+        unhashedId = ids[2];
+        jdbcTemplate.update("UPDATE question SET content_hash = NULL WHERE id = ?", unhashedId);
+    }
+
+    @Test
+    void existingByContentHash_ShouldIndexHashedRowsWithTheirMetadata() {
+        Map<String, ExistingQuestion> existing = questionBatchWriter.existingByContentHash();
+
+        ExistingQuestion match = existing.get(QuestionContentHash.of(first));
+        assertThat(match.id()).isEqualTo(firstId);
+        assertThat(match.metadataHash()).isEqualTo(QuestionContentHash.metadataOf(first));
+        assertThat(match.deleted()).isFalse();
+        assertThat(existing.values()).extracting(ExistingQuestion::id).doesNotContain(unhashedId);
+    }
+
+    @Test
+    void softDelete_ShouldMarkOnlyTheGivenRowsDeleted() {
+        questionBatchWriter.softDelete(List.of(secondId), LocalDateTime.now());
+
+        // A sync import deletes the active entries of this index the file lacks
+        Map<String, ExistingQuestion> existing = questionBatchWriter.existingByContentHash();
+        assertThat(existing.get(QuestionContentHash.of(second)).deleted()).isTrue();
+        assertThat(existing.get(QuestionContentHash.of(first)).deleted()).isFalse();
+    }
+
+    @Test
+    void update_ShouldWriteMetadataInPlace_AndRestoreDeletedRow() {
+        // Arrange
+        questionBatchWriter.softDelete(List.of(secondId), LocalDateTime.now());
+        ImportedQuestion retagged = new ImportedQuestion(second.domain(), Difficulty.HARD, second.qtype(),
+                second.stemEs(), second.stemEn(), "Nueva", "New", "[\"b\"]", second.options());
+
+        // Act
+        questionBatchWriter.update(List.of(new QuestionUpdate(secondId, retagged)));
+
+        // Assert - same id and content, new metadata, active again
+        ExistingQuestion match = questionBatchWriter.existingByContentHash().get(QuestionContentHash.of(retagged));
+        assertThat(match.id()).isEqualTo(secondId);
+        assertThat(match.deleted()).isFalse();
+        assertThat(match.metadataHash()).isEqualTo(QuestionContentHash.metadataOf(retagged));
+        assertThat(jdbcTemplate.queryForMap(
+                "SELECT difficulty, explanation, tags_json FROM question WHERE id = ?", secondId))
+                .containsEntry("DIFFICULTY", "HARD")
+                .containsEntry("EXPLANATION", "Nueva")
+                .containsEntry("TAGS_JSON", "[\"b\"]");
+    }
+
+    private static ImportedQuestion question(String name, String tagsJson) {
+        String stem = "Writer " + name + " " + UUID.randomUUID();
+        return new ImportedQuestion(Domain.NETWORKING, Difficulty.EASY, QuestionType.SINGLE,
+                stem, stem, "Explicación", "Explanation", tagsJson,
+                List.of(new ImportedQuestion.Option("A", "Sí", "Yes", true),
+                        new ImportedQuestion.Option("B", "No", "No", false)));
+    }
+}
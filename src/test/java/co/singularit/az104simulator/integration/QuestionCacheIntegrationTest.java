@@ -0,0 +1,122 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import co.singularit.az104simulator.service.QuestionEntityCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Checks that questions and domain counts are served from the second-level and query caches.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QuestionCacheIntegrationTest {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Autowired
+    private QuestionEntityCache questionEntityCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private List<Long> questionIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        questionIds = List.of(
+            questionBankSnapshot.idsByDomain(Domain.COMPUTE)[0],
+            questionBankSnapshot.idsByDomain(Domain.STORAGE)[0]
+        );
+        questionEntityCache.evictAll();
+    }
+
+    @Test
+    void findAllByIdCached_ShouldNotQueryDatabase_WhenQuestionsAreCached() {
+        // Arrange - first read fills the region
+        questionRepository.findAllByIdCached(questionIds);
+        entityManager.clear();
+
+        // Act
+        statistics.clear();
+        List<Question> questions = questionRepository.findAllByIdCached(questionIds);
+        questions.forEach(question -> question.getOptions().size());
+
+        // Assert
+        assertThat(questions).hasSize(2);
+        assertThat(questions.get(0).getOptions()).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void countByDomain_ShouldUseQueryCache() {
+        long first = questionRepository.countByDomain(Domain.COMPUTE);
+        entityManager.clear();
+
+        statistics.clear();
+        long second = questionRepository.countByDomain(Domain.COMPUTE);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void evictAll_ShouldDropCachedQuestions() {
+        questionRepository.findById(questionIds.get(0));
+        entityManager.clear();
+
+        questionEntityCache.evictAll();
+        statistics.clear();
+        questionRepository.findById(questionIds.get(0));
+
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+
+    @Test
+    void updateTimestampsRegion_ShouldNeverEvict() {
+        CacheManager cacheManager = Caching.getCachingProvider().getCacheManager();
+
+        // The region the query cache checks its results against must keep every table's last write
+        Cache<?, ?> timestamps = cacheManager.getCache("default-update-timestamps-region").unwrap(Cache.class);
+        assertThat(timestamps.policy().eviction()).isEmpty();
+
+        // Every other region gets the bounded default
+        String name = "bounded-default-check";
+        try {
+            Cache<?, ?> other = cacheManager.createCache(name, new MutableConfiguration<>()).unwrap(Cache.class);
+            assertThat(other.policy().eviction())
+                .hasValueSatisfying(eviction -> assertThat(eviction.getMaximum()).isEqualTo(20_000L));
+        } finally {
+            cacheManager.destroyCache(name);
+        }
+    }
+}
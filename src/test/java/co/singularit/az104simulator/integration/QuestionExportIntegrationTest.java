@@ -0,0 +1,94 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Checks the streamed export across several keyset pages, with and without gzip.
+ */
+@SpringBootTest(properties = "app.export.page-size=7")
+@ActiveProfiles("test")
+@Transactional
+class QuestionExportIntegrationTest {
+
+    @Autowired
+    private QuestionExportService questionExportService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void export_ShouldWriteEveryQuestionWithBilingualTexts() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = questionExportService.export(out, false);
+
+        // Assert
+        JsonNode exported = objectMapper.readTree(out.toByteArray());
+        assertThat(count).isEqualTo(questionRepository.count());
+        assertThat(exported.size()).isEqualTo(count);
+
+        Question first = questionRepository.findAll().stream()
+            .min((a, b) -> Long.compare(a.getId(), b.getId()))
+            .orElseThrow();
+        JsonNode firstNode = exported.get(0);
+        assertThat(firstNode.get("domain").asText()).isEqualTo(first.getDomain().name());
+        assertThat(firstNode.get("stem").get("en").asText()).isEqualTo(first.getStemEn());
+        assertThat(firstNode.get("stem").get("es").asText()).isEqualTo(first.getStemEs());
+        assertThat(firstNode.get("explanation").get("en").asText()).isEqualTo(first.getExplanationEn());
+        assertThat(firstNode.get("options")).hasSize(first.getOptions().size());
+        assertThat(firstNode.get("options").get(0).get("text").has("es")).isTrue();
+        assertThat(firstNode.get("tags").isArray()).isTrue();
+    }
+
+    @Test
+    void export_ShouldCompressOnTheFly_WhenGzipRequested() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        questionExportService.export(plain, false);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        questionExportService.export(compressed, true);
+
+        byte[] decompressed = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())).readAllBytes();
+        assertThat(decompressed).isEqualTo(plain.toByteArray());
+        assertThat(compressed.size()).isLessThan(plain.size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void export_ShouldWritePagesOutsideTheReadTransaction() throws Exception {
+        AtomicBoolean wroteInTransaction = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                wroteInTransaction.compareAndSet(false, TransactionSynchronizationManager.isActualTransactionActive());
+                super.write(bytes, offset, length);
+            }
+        };
+
+        int count = questionExportService.export(out, false);
+
+        assertThat(count).isEqualTo(questionRepository.count());
+        assertThat(wroteInTransaction).as("A page was written while its connection was held").isFalse();
+    }
+}
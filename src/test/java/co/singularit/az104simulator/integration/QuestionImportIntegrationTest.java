@@ -0,0 +1,219 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.OptionItem;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.domain.QuestionType;
+import co.singularit.az104simulator.dto.ImportProgressDto;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import co.singularit.az104simulator.service.QuestionBankSnapshot;
+import co.singularit.az104simulator.service.QuestionDtoCache;
+import co.singularit.az104simulator.service.QuestionEntityCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * An append import through /admin/import against H2: ids from the pooled sequences, batched
+ * options, the progress endpoint and a second import of the same file. The import commits
+ * its own batches, so there is no test transaction; the rows it adds are deleted afterwards
+ * and the bank snapshot reloaded.
+ */
+@SpringBootTest(properties = "app.import.batch-size=25")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuestionImportIntegrationTest {
+
+    private static final int QUESTIONS = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Autowired
+    private QuestionEntityCache questionEntityCache;
+
+    @Autowired
+    private QuestionDtoCache questionDtoCache;
+
+    private final String run = UUID.randomUUID().toString();
+    private final List<Long> addedIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (long id : addedIds) {
+            jdbcTemplate.update("DELETE FROM option_item WHERE question_id = ?", id);
+            jdbcTemplate.update("DELETE FROM question WHERE id = ?", id);
+        }
+        questionBankSnapshot.reload();
+        questionEntityCache.evictAll();
+        questionDtoCache.invalidateAll();
+    }
+
+    @Test
+    void import_ShouldInsertQuestionsWithPooledIds_AndKeepThemOnReimport() throws Exception {
+        // Arrange
+        long maxIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM question", Long.class);
+        long versionBefore = jdbcTemplate.queryForObject(
+                "SELECT version FROM question_bank_state WHERE id = 1", Long.class);
+        String file = file("x");
+
+        // Act
+        ImportProgressDto first = importFile(file);
+
+        // Assert - three batches of new rows, every option attached to its question
+        assertThat(first.getState()).isEqualTo("COMPLETED");
+        assertThat(first.getQuestionsRead()).isEqualTo((long) QUESTIONS);
+        assertThat(first.getQuestionsImported()).isEqualTo((long) QUESTIONS);
+        assertThat(first.getOptionsImported()).isEqualTo(QUESTIONS * 3L);
+        assertThat(first.getQuestionsRejected()).isZero();
+        assertThat(first.getPercent()).isEqualTo(100);
+        assertThat(first.getBankVersion()).isEqualTo(versionBefore + 1);
+
+        List<Long> ids = importedIds();
+        addedIds.addAll(ids);
+        assertThat(ids).hasSize(QUESTIONS).allMatch(id -> id > maxIdBefore);
+        for (long id : ids) {
+            assertThat(jdbcTemplate.queryForList(
+                    "SELECT label FROM option_item WHERE question_id = ? ORDER BY id", String.class, id))
+                    .containsExactly("A", "B", "C");
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT label FROM option_item WHERE question_id = ? AND is_correct", String.class, id))
+                    .isEqualTo("A");
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT o.id) FROM option_item o JOIN question q ON q.id = o.question_id " +
+                "WHERE q.stem LIKE ?", Long.class, run + "%")).isEqualTo(QUESTIONS * 3L);
+
+        // Ids Hibernate assigns afterwards come from other blocks of the same sequences
+        Question saved = saveQuestionWithHibernate();
+        addedIds.add(saved.getId());
+        assertThat(ids).doesNotContain(saved.getId());
+        Set<Long> importedOptionIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT o.id FROM option_item o JOIN question q ON q.id = o.question_id WHERE q.stem LIKE ?",
+                Long.class, run + "%"));
+        assertThat(importedOptionIds).doesNotContain(saved.getOptions().get(0).getId());
+
+        // The same file again matches every question by content hash and writes nothing
+        ImportProgressDto second = importFile(file);
+        assertThat(second.getState()).isEqualTo("COMPLETED");
+        assertThat(second.getQuestionsImported()).isZero();
+        assertThat(second.getQuestionsUpdated()).isZero();
+        assertThat(second.getQuestionsUnchanged()).isEqualTo((long) QUESTIONS);
+        assertThat(second.getBankVersion()).isNull();
+        assertThat(importedIds()).isEqualTo(ids);
+
+        // New tags only update the matched rows in place
+        ImportProgressDto retagged = importFile(file("y"));
+        assertThat(retagged.getQuestionsUpdated()).isEqualTo((long) QUESTIONS);
+        assertThat(retagged.getQuestionsImported()).isZero();
+        assertThat(importedIds()).isEqualTo(ids);
+        assertThat(jdbcTemplate.queryForObject("SELECT tags_json FROM question WHERE id = ?", String.class, ids.get(0)))
+                .contains("y");
+    }
+
+    @Test
+    void progress_ShouldReturnNotFound_ForUnknownJob() throws Exception {
+        mockMvc.perform(get("/admin/import/{jobId}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Upload the file and poll the progress endpoint until the import ends
+     */
+    private ImportProgressDto importFile(String json) throws Exception {
+        MockMultipartFile upload = new MockMultipartFile(
+                "file", "questions.json", "application/json", json.getBytes(StandardCharsets.UTF_8));
+        String body = mockMvc.perform(multipart("/admin/import").file(upload).param("mode", "append"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode started = objectMapper.readTree(body);
+        String statusUrl = started.get("statusUrl").asText();
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            String progress = mockMvc.perform(get(statusUrl))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.jobId").value(started.get("jobId").asText()))
+                    .andReturn().getResponse().getContentAsString();
+            ImportProgressDto dto = objectMapper.readValue(progress, ImportProgressDto.class);
+            if (!"RUNNING".equals(dto.getState())) {
+                return dto;
+            }
+            assertThat(System.nanoTime()).as("Import still running").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Long> importedIds() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM question WHERE stem LIKE ? ORDER BY id", Long.class, run + "%");
+    }
+
+    private Question saveQuestionWithHibernate() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Question question = new Question();
+            question.setDomain(Domain.COMPUTE);
+            question.setDifficulty(Difficulty.EASY);
+            question.setQtype(QuestionType.SINGLE);
+            question.setStem("Saved by Hibernate " + run);
+            question.setExplanation("Because");
+            OptionItem option = new OptionItem();
+            option.setLabel("A");
+            option.setText("Yes");
+            option.setIsCorrect(true);
+            question.addOption(option);
+            return questionRepository.save(question);
+        });
+    }
+
+    private String file(String tag) {
+        return IntStream.range(0, QUESTIONS)
+                .mapToObj(i -> "{\"domain\": \"COMPUTE\", \"difficulty\": \"EASY\", \"qtype\": \"SINGLE\", " +
+                        "\"stem\": \"" + run + " question " + i + "\", \"explanation\": \"Because\", " +
+                        "\"tags\": [\"" + tag + "\"], \"options\": [" +
+                        "{\"label\": \"A\", \"text\": \"Yes\", \"isCorrect\": true}, " +
+                        "{\"label\": \"B\", \"text\": \"No\", \"isCorrect\": false}, " +
+                        "{\"label\": \"C\", \"text\": \"Maybe\", \"isCorrect\": false}]}")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,182 @@
+package co.singularit.az104simulator.integration;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.QuestionType;
+import co.singularit.az104simulator.service.ImportedQuestion;
+import co.singularit.az104simulator.service.QuestionBatchWriter;
+import co.singularit.az104simulator.service.QuestionBatchWriter.QuestionUpdate;
+import co.singularit.az104simulator.service.QuestionStagingArea;
+import co.singularit.az104simulator.service.QuestionStagingArea.SwapResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * A staged import against H2: load the shadow tables, index them and swap them into the bank.
+ * The staging tables are truncated and indexed with DDL, which commits, so there is no test
+ * transaction; the questions each test adds are deleted again afterwards and every other
+ * active question is staged as unchanged so the sync swap leaves it alone.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QuestionStagingIntegrationTest {
+
+    @Autowired
+    private QuestionStagingArea questionStagingArea;
+
+    @Autowired
+    private QuestionBatchWriter questionBatchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> addedIds = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+    private long toUpdate;
+    private long toKeep;
+    private long toDelete;
+    private long unhashed;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        long[] ids = transactionTemplate.execute(status -> questionBatchWriter.insert(List.of(
+                question("update", Difficulty.EASY), question("keep", Difficulty.EASY),
+                question("delete", Difficulty.EASY), question("unhashed", Difficulty.EASY))));
+        toUpdate = ids[0];
+        toKeep = ids[1];
+        toDelete = ids[2];
+        // Stored before V13 and not reached by QuestionHashBackfill yet
+        unhashed = ids[3];
+        jdbcTemplate.update("UPDATE question SET content_hash = NULL WHERE id = ?", unhashed);
+        for (long id : ids) {
+            addedIds.add(id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        questionStagingArea.reset();
+        for (long id : addedIds) {
+            jdbcTemplate.update("DELETE FROM option_item WHERE question_id = ?", id);
+            jdbcTemplate.update("DELETE FROM question WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void swap_ShouldApplyInsertsUpdatesAndDeletes_AndMoveTheVersionOnce() {
+        // Arrange - every active question but toUpdate and toDelete is unchanged
+        long versionBefore = questionBatchWriter.bankVersion();
+        List<Long> unchanged = activeIds().stream()
+                .filter(id -> id != toUpdate && id != toDelete)
+                .toList();
+        ImportedQuestion inserted = question("insert", Difficulty.MEDIUM);
+
+        questionStagingArea.reset();
+        long[] insertedIds = transactionTemplate.execute(status -> questionStagingArea.stage(
+                List.of(inserted), List.of(new QuestionUpdate(toUpdate, question("update", Difficulty.HARD))),
+                unchanged));
+        addedIds.add(insertedIds[0]);
+        questionStagingArea.createIndexes();
+
+        // Nothing reaches the bank before the swap
+        assertThat(count("SELECT COUNT(*) FROM question WHERE id = ?", insertedIds[0])).isZero();
+        assertThat(count("SELECT COUNT(*) FROM question_staging")).isEqualTo(unchanged.size() + 2L);
+
+        // Act
+        SwapResult result = transactionTemplate.execute(
+                status -> questionStagingArea.swap(true, LocalDateTime.now()));
+
+        // Assert
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.options()).isEqualTo(2);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.deleted()).isEqualTo(1);
+        assertThat(result.bankVersion()).isEqualTo(versionBefore + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM question_bank_state WHERE id = 1", Long.class))
+                .isEqualTo(versionBefore + 1);
+
+        Map<String, Object> insertedRow = jdbcTemplate.queryForMap(
+                "SELECT stem_en, difficulty, content_hash, deleted_at FROM question WHERE id = ?", insertedIds[0]);
+        assertThat(insertedRow.get("STEM_EN")).isEqualTo(inserted.stemEn());
+        assertThat(insertedRow.get("DIFFICULTY")).isEqualTo("MEDIUM");
+        assertThat(insertedRow.get("CONTENT_HASH")).isNotNull();
+        assertThat(insertedRow.get("DELETED_AT")).isNull();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT label FROM option_item WHERE question_id = ? ORDER BY id", String.class, insertedIds[0]))
+                .containsExactly("A", "B");
+
+        assertThat(difficultyOf(toUpdate)).isEqualTo("HARD");
+        assertThat(difficultyOf(toKeep)).isEqualTo("EASY");
+        assertThat(isDeleted(toUpdate)).isFalse();
+        assertThat(isDeleted(toKeep)).isFalse();
+        assertThat(isDeleted(toDelete)).isTrue();
+        assertThat(isDeleted(unhashed)).as("No import can match a row without a hash").isFalse();
+        assertThat(activeIds()).containsAll(unchanged).doesNotContain(toDelete, unhashed);
+    }
+
+    @Test
+    void swap_ShouldKeepVersionAndUnstagedQuestions_WhenNothingChanged() {
+        // Arrange - an append import that only found toKeep
+        long versionBefore = questionBatchWriter.bankVersion();
+        questionStagingArea.reset();
+        transactionTemplate.execute(status -> questionStagingArea.stage(List.of(), List.of(), List.of(toKeep)));
+        questionStagingArea.createIndexes();
+
+        // Act
+        SwapResult result = transactionTemplate.execute(
+                status -> questionStagingArea.swap(false, LocalDateTime.now()));
+
+        // Assert
+        assertThat(result.inserted() + result.updated() + result.deleted()).isZero();
+        assertThat(result.bankVersion()).isEqualTo(versionBefore);
+        assertThat(questionBatchWriter.bankVersion()).isEqualTo(versionBefore);
+        assertThat(isDeleted(toDelete)).isFalse();
+    }
+
+    private List<Long> activeIds() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM question WHERE deleted_at IS NULL AND content_hash IS NOT NULL ORDER BY id", Long.class);
+    }
+
+    private String difficultyOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT difficulty FROM question WHERE id = ?", String.class, id);
+    }
+
+    private boolean isDeleted(long id) {
+        return count("SELECT COUNT(*) FROM question WHERE id = ? AND deleted_at IS NOT NULL", id) > 0;
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    /**
+     * A question no other test has, so its content hash is new to the bank
+     */
+    private static ImportedQuestion question(String name, Difficulty difficulty) {
+        String stem = "Staging " + name + " " + UUID.randomUUID();
+        return new ImportedQuestion(Domain.STORAGE, difficulty, QuestionType.SINGLE,
+                stem, stem, "Explicación", "Explanation", "[\"staging\"]",
+                List.of(new ImportedQuestion.Option("A", "Sí", "Yes", true),
+                        new ImportedQuestion.Option("B", "No", "No", false)));
+    }
+}
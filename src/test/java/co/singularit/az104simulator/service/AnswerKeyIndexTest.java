@@ -0,0 +1,103 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AnswerKeyIndexTest {
+
+    private AnswerKeyIndex answerKeys;
+
+    @BeforeEach
+    void setUp() {
+        // Options deliberately out of id order; positions follow ascending option id
+        Question single = question(20L, Domain.STORAGE, QuestionType.SINGLE);
+        single.addOption(option(203L, false));
+        single.addOption(option(201L, true));
+        single.addOption(option(202L, false));
+
+        Question multi = question(10L, Domain.COMPUTE, QuestionType.MULTI);
+        multi.addOption(option(101L, true));
+        multi.addOption(option(102L, false));
+        multi.addOption(option(103L, true));
+
+        answerKeys = AnswerKeyIndex.ofQuestions(List.of(single, multi));
+    }
+
+    @Test
+    void indexOf_ShouldFindQuestionsById() {
+        assertThat(answerKeys.size()).isEqualTo(2);
+        assertThat(answerKeys.questionId(answerKeys.indexOf(10L))).isEqualTo(10L);
+        assertThat(answerKeys.domain(answerKeys.indexOf(20L))).isEqualTo(Domain.STORAGE);
+        assertThat(answerKeys.indexOf(30L)).isEqualTo(-1);
+    }
+
+    @Test
+    void isCorrect_ShouldRequireExactlyTheCorrectOptions() {
+        int multi = answerKeys.indexOf(10L);
+
+        assertThat(answerKeys.isCorrect(multi, answerKeys.selectionMask(multi, List.of(103L, 101L)))).isTrue();
+        assertThat(answerKeys.isCorrect(multi, answerKeys.selectionMask(multi, List.of(101L)))).isFalse();
+        assertThat(answerKeys.isCorrect(multi, answerKeys.selectionMask(multi, List.of(101L, 102L, 103L)))).isFalse();
+        assertThat(answerKeys.isCorrect(multi, answerKeys.selectionMask(multi, List.of()))).isFalse();
+    }
+
+    @Test
+    void selectionMask_ShouldBeInvalid_WhenOptionBelongsToAnotherQuestion() {
+        int single = answerKeys.indexOf(20L);
+
+        long mask = answerKeys.selectionMask(single, List.of(101L));
+
+        assertThat(mask).isEqualTo(AnswerKeyIndex.INVALID);
+        assertThat(answerKeys.isCorrect(single, mask)).isFalse();
+    }
+
+    @Test
+    void correctOptionIds_ShouldDecodeMaskInIdOrder() {
+        assertThat(answerKeys.correctOptionIds(answerKeys.indexOf(10L))).containsExactly(101L, 103L);
+        assertThat(answerKeys.correctOptionIds(answerKeys.indexOf(20L))).containsExactly(201L);
+        assertThat(answerKeys.correctMask(answerKeys.indexOf(20L))).isEqualTo(0b001L);
+    }
+
+    @Test
+    void fingerprint_ShouldOnlyChange_WhenOneOfTheGivenQuestionsChanges() {
+        // Arrange - question 10 deleted, question 30 added, question 20 unchanged
+        Question single = question(20L, Domain.STORAGE, QuestionType.SINGLE);
+        single.addOption(option(201L, true));
+        single.addOption(option(202L, false));
+        single.addOption(option(203L, false));
+        Question added = question(30L, Domain.NETWORKING, QuestionType.SINGLE);
+        added.addOption(option(301L, true));
+        AnswerKeyIndex grown = AnswerKeyIndex.ofQuestions(List.of(single, added));
+
+        // Act & Assert
+        assertThat(grown.fingerprint()).isNotEqualTo(answerKeys.fingerprint());
+        assertThat(grown.fingerprint(new long[]{20L})).isEqualTo(answerKeys.fingerprint(new long[]{20L}));
+        // Question 10 is gone, then question 20 gets another answer key
+        assertThat(grown.fingerprint(new long[]{20L, 10L})).isNotEqualTo(answerKeys.fingerprint(new long[]{20L, 10L}));
+        single.getOptions().forEach(option -> option.setIsCorrect(option.getId() == 202L));
+        assertThat(AnswerKeyIndex.ofQuestions(List.of(single)).fingerprint(new long[]{20L}))
+            .isNotEqualTo(answerKeys.fingerprint(new long[]{20L}));
+    }
+
+    private Question question(Long id, Domain domain, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setDomain(domain);
+        question.setDifficulty(Difficulty.MEDIUM);
+        question.setQtype(type);
+        return question;
+    }
+
+    private OptionItem option(Long id, boolean correct) {
+        OptionItem option = new OptionItem();
+        option.setId(id);
+        option.setLabel("X");
+        option.setIsCorrect(correct);
+        return option;
+    }
+}
@@ -0,0 +1,191 @@
+package co.singularit.az104simulator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerWriteBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AnswerWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new AnswerWriteBuffer(jdbcTemplate, transactionManager, meterRegistry, true);
+        // Every attempt exists, is open and holds questions 1 and 2 unless a test says otherwise
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(Boolean.class), any()))
+            .thenReturn(List.of(false));
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any()))
+            .thenReturn(List.of(1L, 2L));
+        // Every buffered answer finds its row
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+            .thenAnswer(invocation -> {
+                int[] counts = new int[invocation.<List<Object[]>>getArgument(1).size()];
+                Arrays.fill(counts, 1);
+                return counts;
+            });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAll_ShouldWriteOnlyLatestAnswerPerQuestion_InOneBatch() {
+        // Arrange - two clicks on question 1, then question 2 cleared
+        buffer.submit("a1", 1L, 0b01L, true);
+        buffer.submit("a1", 1L, 0b10L, null);
+        buffer.submit("a1", 2L, 0L, null);
+
+        Map<Long, AnswerWriteBuffer.PendingAnswer> pending = buffer.pendingFor("a1");
+        assertThat(pending).hasSize(2);
+        assertThat(pending.get(1L).selectionMask()).isEqualTo(0b10L);
+        assertThat(pending.get(1L).marked()).as("Unchanged flag keeps the previous value").isTrue();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isEqualTo(2.0);
+
+        // Act
+        buffer.flushAll();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        assertThat(rows.getValue()).hasSize(2);
+
+        Object[] first = rows.getValue().stream().filter(row -> row[4].equals(1L)).findFirst().orElseThrow();
+        assertThat(first[0]).isEqualTo(0b10L);
+        assertThat(first[1]).isNotNull();
+        assertThat(first[2]).isEqualTo(true);
+
+        Object[] cleared = rows.getValue().stream().filter(row -> row[4].equals(2L)).findFirst().orElseThrow();
+        assertThat(cleared[0]).as("No selection is stored as NULL").isNull();
+        assertThat(cleared[1]).isNull();
+
+        assertThat(buffer.pendingFor("a1")).isEmpty();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isZero();
+        assertThat(meterRegistry.get("exam.answer.buffer.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_ShouldKeepAnswers_WhenWriteFails() {
+        // Arrange
+        buffer.submit("a1", 1L, 0b01L, null);
+        doThrow(new QueryTimeoutException("timeout"))
+            .when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+
+        // Act
+        buffer.flush("a1");
+
+        // Assert
+        assertThat(buffer.pendingFor("a1")).containsOnlyKeys(1L);
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flush_ShouldOnlyWriteTheGivenAttempt() {
+        // Arrange
+        buffer.submit("a1", 1L, 0b01L, null);
+        buffer.submit("a2", 1L, 0b01L, null);
+
+        // Act
+        buffer.flush("a1");
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 1), any(int[].class));
+        assertThat(buffer.pendingFor("a1")).isEmpty();
+        assertThat(buffer.pendingFor("a2")).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void submit_ShouldRejectAttemptThatIsMissingOrCompleted() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Boolean.class), eq("missing"))).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(anyString(), eq(Boolean.class), eq("done"))).thenReturn(List.of(true));
+
+        // Act & Assert
+        assertThatThrownBy(() -> buffer.submit("missing", 1L, 0b01L, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("missing");
+        assertThatThrownBy(() -> buffer.submit("done", 1L, 0b01L, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("done");
+        assertThat(buffer.pendingFor("missing")).isEmpty();
+        assertThat(buffer.pendingFor("done")).isEmpty();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void submit_ShouldLookUpEachAttemptOnce() {
+        // Act
+        buffer.submit("a1", 1L, 0b01L, null);
+        buffer.submit("a1", 2L, 0b01L, null);
+        buffer.submit("a1", 1L, 0b10L, null);
+
+        // Assert
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Boolean.class), any());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), any());
+    }
+
+    @Test
+    void submit_ShouldRejectQuestionThatIsNotPartOfTheAttempt() {
+        assertThatThrownBy(() -> buffer.submit("a1", 3L, 0b01L, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Answer not found for question: 3");
+        assertThat(buffer.pendingFor("a1")).isEmpty();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void flush_ShouldDropAnswerWhoseRowIsGone() {
+        // Arrange - the row of question 2 was deleted after the answer was buffered
+        buffer.submit("a1", 1L, 0b01L, null);
+        buffer.submit("a1", 2L, 0b01L, null);
+        doAnswer(invocation -> invocation.<List<Object[]>>getArgument(1).stream()
+                .mapToInt(row -> row[4].equals(2L) ? 0 : 1)
+                .toArray())
+            .when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+
+        // Act
+        buffer.flush("a1");
+
+        // Assert - logged, not retried
+        assertThat(buffer.pendingFor("a1")).isEmpty();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void close_ShouldDiscardLateAnswers_AndRejectFurtherOnes() {
+        // Arrange - an answer that arrived after the completion flushed
+        buffer.submit("a1", 1L, 0b01L, null);
+
+        // Act
+        buffer.close("a1");
+
+        // Assert
+        assertThat(buffer.pendingFor("a1")).isEmpty();
+        assertThat(meterRegistry.get("exam.answer.buffer.depth").gauge().value()).isZero();
+        assertThatThrownBy(() -> buffer.submit("a1", 2L, 0b01L, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        buffer.flushAll();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+}
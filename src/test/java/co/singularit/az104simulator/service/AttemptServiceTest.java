@@ -1,20 +1,27 @@
 package co.singularit.az104simulator.service;
 
 import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
 import co.singularit.az104simulator.dto.ExamConfigDto;
 import co.singularit.az104simulator.dto.QuestionDto;
 import co.singularit.az104simulator.repository.AttemptAnswerRepository;
 import co.singularit.az104simulator.repository.AttemptRepository;
 import co.singularit.az104simulator.repository.QuestionRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -47,6 +54,24 @@ class AttemptServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Mock
+    private AnswerWriteBuffer answerWriteBuffer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AttemptStateStore attemptStateStore;
+
+    @Mock
+    private ExamSessionService examSessionService;
+
+    @Spy
+    private ExamMetrics examMetrics = new ExamMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private AttemptService attemptService;
 
@@ -282,7 +307,7 @@ class AttemptServiceTest {
                 answer.setPosition(i);
                 answer.setAttempt(attempt);
                 answer.setMarked(i % 2 == 0); // Mark even positions
-                answer.setSelectedOptionIdsJson(i < 3 ? "[1]" : null); // Answer first 3
+                answer.setSelectedOptionMask(i < 3 ? 1L : 0L); // Answer first 3
                 return answer;
             })
             .collect(Collectors.toList());
@@ -303,4 +328,156 @@ class AttemptServiceTest {
         assertThat(states.get(3)).isEqualTo("q-unanswered");        // pos 3: unanswered only
         assertThat(states.get(4)).isEqualTo("q-marked");            // pos 4: marked only
     }
+
+    @Test
+    void submitAnswer_ShouldStoreSelectionAsBitmaskOverOptionPositions() {
+        // Arrange
+        String attemptId = UUID.randomUUID().toString();
+        Attempt attempt = new Attempt();
+        attempt.setId(attemptId);
+
+        AttemptAnswer answer = new AttemptAnswer();
+        answer.setQuestionId(1L);
+        answer.setAttempt(attempt);
+
+        Question question = mockQuestions.get(0);
+        question.setId(1L);
+        for (long optionId = 11; optionId <= 13; optionId++) {
+            OptionItem option = new OptionItem();
+            option.setId(optionId);
+            option.setIsCorrect(optionId == 11);
+            question.addOption(option);
+        }
+
+        when(attemptRepository.findById(attemptId)).thenReturn(Optional.of(attempt));
+        when(attemptAnswerRepository.findByAttemptAndQuestionId(attempt, 1L)).thenReturn(Optional.of(answer));
+        when(questionBankSnapshot.answerKeysCovering(List.of(1L)))
+            .thenReturn(AnswerKeyIndex.ofQuestions(List.of(question)));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(1L);
+        submission.setSelectedOptionIds(List.of(13L, 11L));
+
+        // Act
+        attemptService.submitAnswer(attemptId, submission);
+
+        // Assert - positions 0 and 2 in option id order
+        assertThat(answer.getSelectedOptionMask()).isEqualTo(0b101L);
+        assertThat(answer.isAnswered()).isTrue();
+        verify(attemptAnswerRepository).save(answer);
+
+        // An option of another question is rejected
+        submission.setSelectedOptionIds(List.of(99L));
+        assertThatThrownBy(() -> attemptService.submitAnswer(attemptId, submission))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void submitAnswer_ShouldOnlyBufferAnswer_WhenWriteBehindIsEnabled() {
+        // Arrange
+        String attemptId = UUID.randomUUID().toString();
+        Question question = mockQuestions.get(0);
+        for (long optionId = 11; optionId <= 12; optionId++) {
+            OptionItem option = new OptionItem();
+            option.setId(optionId);
+            option.setIsCorrect(optionId == 11);
+            question.addOption(option);
+        }
+
+        when(answerWriteBuffer.isEnabled()).thenReturn(true);
+        when(questionBankSnapshot.answerKeysCovering(List.of(1L)))
+            .thenReturn(AnswerKeyIndex.ofQuestions(List.of(question)));
+
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(1L);
+        submission.setSelectedOptionIds(List.of(12L));
+        submission.setMarked(true);
+
+        // Act
+        attemptService.submitAnswer(attemptId, submission);
+
+        // Assert - no transaction and no repository access
+        verify(answerWriteBuffer).submit(attemptId, 1L, 0b10L, true);
+        verifyNoInteractions(transactionTemplate, attemptRepository, attemptAnswerRepository);
+    }
+
+    @Test
+    void submitAnswer_ShouldOnlyUpdateMemory_ForInMemoryPracticeAttempt() {
+        // Arrange
+        Attempt attempt = new Attempt();
+        attempt.setMode(ExamMode.PRACTICE);
+        attempt.setTotalQuestions(2);
+        for (long questionId = 1; questionId <= 2; questionId++) {
+            AttemptAnswer answer = new AttemptAnswer();
+            answer.setQuestionId(questionId);
+            answer.setPosition((int) questionId - 1);
+            answer.setMarked(false);
+            attempt.addAnswer(answer);
+        }
+
+        Question question = mockQuestions.get(0);
+        for (long optionId = 11; optionId <= 12; optionId++) {
+            OptionItem option = new OptionItem();
+            option.setId(optionId);
+            option.setIsCorrect(optionId == 11);
+            question.addOption(option);
+        }
+
+        when(attemptStateStore.get(attempt.getId())).thenReturn(attempt);
+        when(attemptStateStore.update(eq(attempt.getId()), any())).thenAnswer(invocation -> {
+            Consumer<Attempt> change = invocation.getArgument(1);
+            change.accept(attempt);
+            return true;
+        });
+        when(attemptStateStore.answersOf(attempt)).thenAnswer(invocation -> new ArrayList<>(attempt.getAnswers()));
+        when(questionBankSnapshot.answerKeysCovering(List.of(1L)))
+            .thenReturn(AnswerKeyIndex.ofQuestions(List.of(question)));
+
+        AnswerSubmissionDto submission = new AnswerSubmissionDto();
+        submission.setQuestionId(1L);
+        submission.setSelectedOptionIds(List.of(11L));
+        submission.setMarked(true);
+
+        // Act
+        attemptService.submitAnswer(attempt.getId(), submission);
+        Map<String, Object> status = attemptService.getAttemptStatus(attempt.getId());
+
+        // Assert - the answer and the counts come from memory only
+        assertThat(attempt.getAnswers().get(0).getSelectedOptionMask()).isEqualTo(0b1L);
+        assertThat(attempt.getAnswers().get(0).getMarked()).isTrue();
+        assertThat(status.get("answeredCount")).isEqualTo(1L);
+        assertThat(status.get("markedCount")).isEqualTo(1L);
+        verifyNoInteractions(transactionTemplate, answerWriteBuffer, attemptRepository, attemptAnswerRepository);
+    }
+
+    @Test
+    void completeAttempt_ShouldCompleteItsSession_InTheSameTransaction() {
+        // Arrange
+        String attemptId = UUID.randomUUID().toString();
+        Attempt attempt = new Attempt();
+        attempt.setId(attemptId);
+        attempt.setMode(ExamMode.EXAM);
+        attempt.setTotalQuestions(1);
+        attempt.setSessionId("session-1");
+
+        int[] perDomain = new int[Domain.values().length];
+        when(attemptRepository.findById(attemptId)).thenReturn(Optional.of(attempt));
+        when(attemptAnswerRepository.findByAttemptOrderByPositionAsc(attempt)).thenReturn(List.of());
+        when(scoringService.score(anyList())).thenReturn(new AttemptScore(1, 0, 0, 0, perDomain, perDomain));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // Act
+        attemptService.completeAttempt(attemptId);
+
+        // Assert - the session ends with the attempt, which releases its bank version after commit
+        verify(attemptRepository).save(attempt);
+        verify(examSessionService).completeSession("session-1");
+        assertThat(attempt.getIsCompleted()).isTrue();
+        assertThat(attempt.getScorePercentage()).isEqualTo(100);
+    }
 }
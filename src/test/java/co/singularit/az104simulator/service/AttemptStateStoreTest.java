@@ -0,0 +1,182 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Attempt;
+import co.singularit.az104simulator.domain.AttemptAnswer;
+import co.singularit.az104simulator.domain.ExamMode;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AttemptStateStoreTest {
+
+    private AttemptRepository attemptRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        attemptRepository = mock(AttemptRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void eviction_ShouldWriteAnsweredAttemptOnce_AndRefuseLaterChanges() {
+        // Arrange - room for one attempt
+        AttemptStateStore store = store(1);
+        Attempt first = attempt(true);
+        Attempt second = attempt(true);
+        store.put(first);
+        store.put(second);
+
+        // Act
+        store.cleanUp();
+        Attempt evicted = store.get(first.getId()) == null ? first : second;
+        Attempt kept = evicted == first ? second : first;
+        store.shutdown();
+
+        // Assert - each attempt written once, as a copy
+        ArgumentCaptor<Attempt> saved = ArgumentCaptor.forClass(Attempt.class);
+        verify(attemptRepository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(Attempt::getId)
+            .containsExactly(evicted.getId(), kept.getId());
+        assertThat(saved.getAllValues()).noneMatch(attempt -> attempt == first || attempt == second);
+        assertThat(saved.getAllValues().get(0).getAnswers()).hasSize(2)
+            .allMatch(answer -> answer.getAttempt() == saved.getAllValues().get(0));
+
+        // A submission that lost the race goes to the database instead
+        assertThat(store.update(evicted.getId(), attempt -> fail("Changed a written attempt"))).isFalse();
+        assertThat(meterRegistry.get("exam.attempt.store.evictions").tag("outcome", "persisted").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void eviction_ShouldDropUnansweredAttempt() {
+        // Arrange
+        AttemptStateStore store = store(1);
+        store.put(attempt(false));
+        store.put(attempt(false));
+
+        // Act
+        store.cleanUp();
+
+        // Assert
+        assertThat(store.size()).isEqualTo(1);
+        verifyNoInteractions(attemptRepository);
+        assertThat(meterRegistry.get("exam.attempt.store.evictions").tag("outcome", "dropped").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void beginCompletion_ShouldRemoveAttempt_WhenTransactionCommits() {
+        // Arrange
+        AttemptStateStore store = store(10);
+        Attempt attempt = attempt(true);
+        store.put(attempt);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        Attempt completing = store.beginCompletion(attempt.getId());
+
+        // Assert - readable but closed to changes until the transaction ends
+        assertThat(completing).isNotSameAs(attempt);
+        assertThat(completing.getId()).isEqualTo(attempt.getId());
+        assertThat(store.get(attempt.getId())).isSameAs(attempt);
+        assertThat(store.update(attempt.getId(), a -> fail("Changed a completing attempt"))).isFalse();
+        assertThat(store.beginCompletion(attempt.getId())).isNull();
+
+        endTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(store.get(attempt.getId())).isNull();
+        store.shutdown();
+        verifyNoInteractions(attemptRepository);
+    }
+
+    @Test
+    void beginCompletion_ShouldKeepAttemptUnchanged_WhenTransactionRollsBack() {
+        // Arrange
+        AttemptStateStore store = store(10);
+        Attempt attempt = attempt(true);
+        store.put(attempt);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act - the completing transaction fails after changing its copy
+        Attempt completing = store.beginCompletion(attempt.getId());
+        completing.setIsCompleted(true);
+        completing.getAnswers().get(0).setSelectedOptionMask(0L);
+        endTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert - the student's answers are still held and open
+        assertThat(store.get(attempt.getId())).isSameAs(attempt);
+        assertThat(attempt.getIsCompleted()).isFalse();
+        assertThat(store.answersOf(attempt).get(0).getSelectedOptionMask()).isEqualTo(0b1L);
+        assertThat(store.update(attempt.getId(), a -> a.setCurrentQuestionIndex(1))).isTrue();
+        assertThat(attempt.getCurrentQuestionIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void shutdown_ShouldSkipAttemptBeingCompleted() {
+        // Arrange
+        AttemptStateStore store = store(10);
+        Attempt attempt = attempt(true);
+        store.put(attempt);
+        TransactionSynchronizationManager.initSynchronization();
+        store.beginCompletion(attempt.getId());
+
+        // Act
+        store.shutdown();
+
+        // Assert - the completing transaction writes it
+        verifyNoInteractions(attemptRepository);
+    }
+
+    private AttemptStateStore store(long maxSize) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(attemptRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new AttemptStateStore(attemptRepository, transactionManager, meterRegistry, true, maxSize, 30);
+    }
+
+    private static void endTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private static Attempt attempt(boolean answered) {
+        Attempt attempt = new Attempt();
+        attempt.setMode(ExamMode.PRACTICE);
+        attempt.setStartedAt(LocalDateTime.now());
+        attempt.setTotalQuestions(2);
+        Stream.of(1L, 2L).forEach(questionId -> {
+            AttemptAnswer answer = new AttemptAnswer();
+            answer.setQuestionId(questionId);
+            answer.setPosition((int) (questionId - 1));
+            answer.setMarked(false);
+            attempt.addAnswer(answer);
+        });
+        if (answered) {
+            attempt.getAnswers().get(0).setSelectedOptionMask(0b1L);
+            attempt.getAnswers().get(0).setAnsweredAt(LocalDateTime.now());
+        }
+        return attempt;
+    }
+}
@@ -5,13 +5,17 @@ import co.singularit.az104simulator.dto.QuestionDto;
 import co.singularit.az104simulator.repository.ExamSessionQuestionRepository;
 import co.singularit.az104simulator.repository.ExamSessionRepository;
 import co.singularit.az104simulator.repository.QuestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -35,6 +39,12 @@ class ExamSessionServiceTest {
     @Mock
     private QuestionService questionService;
 
+    @Mock
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Spy
+    private ExamMetrics examMetrics = new ExamMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private ExamSessionService examSessionService;
 
@@ -60,6 +70,23 @@ class ExamSessionServiceTest {
             .collect(Collectors.toList());
     }
 
+    @Test
+    void startSession_ShouldRecordSelectionAndInsertPhases() {
+        // Arrange
+        List<Domain> domains = List.of(Domain.COMPUTE);
+        when(questionService.getRandomQuestions(domains, 10))
+            .thenReturn(mockQuestions.subList(0, 10));
+        when(examSessionRepository.save(any(ExamSession.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        examSessionService.startSession(ExamMode.PRACTICE, 10, "en", domains, null);
+
+        // Assert
+        assertThat(examMetrics.sessionSelection().count()).isEqualTo(1);
+        assertThat(examMetrics.sessionInsert().count()).isEqualTo(1);
+    }
+
     @Test
     void startSession_ShouldCreateSessionWithUniqueQuestions() {
         // Arrange
@@ -336,4 +363,97 @@ class ExamSessionServiceTest {
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("Session not found");
     }
+
+    @Test
+    void startSession_ShouldStoreQuestionOrderInOneRow_WhenPackedStorageEnabled() {
+        // Arrange
+        ReflectionTestUtils.setField(examSessionService, "sessionStorage", "packed");
+        List<Domain> domains = List.of(Domain.COMPUTE);
+        when(questionService.getRandomQuestions(domains, 5)).thenReturn(mockQuestions.subList(10, 15));
+        when(examSessionRepository.save(any(ExamSession.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        QuestionDto dto = new QuestionDto();
+        dto.setId(12L);
+        when(questionService.getQuestionDto(12L, false, "en")).thenReturn(dto);
+
+        // Act
+        String sessionId = examSessionService.startSession(ExamMode.EXAM, 5, "en", domains, null);
+
+        // Assert - no per-question rows, order readable from the cached session row
+        verify(examSessionQuestionRepository, never()).saveAll(anyList());
+        verify(examSessionRepository).save(argThat(session ->
+            Arrays.equals(PackedQuestionIds.unpack(session.getQuestionIds()), new long[]{11, 12, 13, 14, 15})
+        ));
+
+        assertThat(examSessionService.getSessionQuestionIds(sessionId)).containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(examSessionService.getQuestionByPosition(sessionId, 2, false, "en")).isSameAs(dto);
+        assertThat(examSessionService.getQuestionByPosition(sessionId, 6, false, "en")).isNull();
+        assertThat(examSessionService.getSessionQuestionCount(sessionId)).isEqualTo(5);
+        verify(examSessionRepository, never()).findById(anyString());
+        verifyNoInteractions(examSessionQuestionRepository);
+    }
+
+    @Test
+    void startSession_ShouldStoreTheBankVersionTheQuestionsWereSampledFrom() {
+        // Arrange
+        List<Domain> domains = List.of(Domain.COMPUTE);
+        when(questionService.getRandomQuestions(domains, 5)).thenReturn(mockQuestions.subList(0, 5));
+        when(questionBankSnapshot.bankVersion()).thenReturn(7L);
+        when(examSessionRepository.save(any(ExamSession.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        examSessionService.startSession(ExamMode.EXAM, 5, "en", domains, null);
+
+        // Assert
+        verify(questionService, times(1)).getRandomQuestions(domains, 5);
+        verify(examSessionRepository).save(argThat(session -> session.getBankVersion() == 7L));
+    }
+
+    @Test
+    void startSession_ShouldSampleAgain_WhenAnImportPublishedAVersionMeanwhile() {
+        // Arrange - version 8 published while the first sample was drawn from version 7
+        List<Domain> domains = List.of(Domain.COMPUTE);
+        when(questionService.getRandomQuestions(domains, 5))
+            .thenReturn(mockQuestions.subList(0, 5), mockQuestions.subList(5, 10));
+        when(questionBankSnapshot.bankVersion()).thenReturn(7L, 8L, 8L, 8L);
+        when(examSessionRepository.save(any(ExamSession.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        examSessionService.startSession(ExamMode.EXAM, 5, "en", domains, null);
+
+        // Assert - only the second sample is stored
+        verify(questionService, times(2)).getRandomQuestions(domains, 5);
+        verify(examSessionRepository).save(argThat(session -> session.getBankVersion() == 8L));
+        verify(examSessionQuestionRepository).saveAll(argThat(rows -> ((List<ExamSessionQuestion>) rows).stream()
+            .map(sq -> sq.getQuestion().getId())
+            .toList()
+            .equals(List.of(6L, 7L, 8L, 9L, 10L))));
+    }
+
+    @Test
+    void completeSession_ShouldSetCompletedAt() {
+        ExamSession session = new ExamSession();
+        session.setId("s1");
+        when(examSessionRepository.findById("s1")).thenReturn(Optional.of(session));
+
+        examSessionService.completeSession("s1");
+
+        assertThat(session.getCompletedAt()).isNotNull();
+        verify(examSessionRepository).save(session);
+    }
+
+    @Test
+    void completeSession_ShouldDoNothing_WhenAlreadyCompleted() {
+        ExamSession session = new ExamSession();
+        session.setId("s1");
+        session.setCompletedAt(LocalDateTime.now());
+        when(examSessionRepository.findById("s1")).thenReturn(Optional.of(session));
+
+        examSessionService.completeSession("s1");
+
+        verify(examSessionRepository, never()).save(any());
+    }
 }
@@ -0,0 +1,28 @@
+package co.singularit.az104simulator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PackedQuestionIdsTest {
+
+    @Test
+    void pack_ShouldRoundTripIdsInPositionOrder() {
+        // Arrange
+        long[] ids = {42, 7, 100_000, 1};
+
+        // Act
+        byte[] packed = PackedQuestionIds.pack(ids);
+
+        // Assert
+        assertThat(packed).hasSize(ids.length * Long.BYTES);
+        assertThat(PackedQuestionIds.unpack(packed)).containsExactly(ids);
+    }
+
+    @Test
+    void pack_ShouldRejectDuplicateIds() {
+        assertThatThrownBy(() -> PackedQuestionIds.pack(new long[]{3, 5, 3}))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(PackedQuestionIds.allUnique(new long[]{3, 5, 8})).isTrue();
+    }
+}
@@ -0,0 +1,107 @@
+package co.singularit.az104simulator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ParallelReadsTest {
+
+    private final ThreadFactory threads = Thread.ofVirtual().name("test-read-", 0).factory();
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    void join_ShouldTakeAsLongAsTheSlowestRead() {
+        long start = System.nanoTime();
+        try (ParallelReads reads = new ParallelReads(readOnlyTransaction, threads)) {
+            Supplier<String> first = reads.fork(() -> sleepThenReturn(300, "attempt"));
+            Supplier<String> second = reads.fork(() -> sleepThenReturn(300, "answers"));
+            Supplier<String> third = reads.fork(() -> sleepThenReturn(300, "question"));
+            reads.join();
+
+            assertThat(first.get()).isEqualTo("attempt");
+            assertThat(second.get()).isEqualTo("answers");
+            assertThat(third.get()).isEqualTo("question");
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Three reads of 300 ms in turn would take 900 ms
+        assertThat(elapsedMs).isLessThan(800);
+        // One transaction per read
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void join_ShouldCancelRunningReadsWithoutInterrupting_WhenOneFails() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+
+        try (ParallelReads reads = new ParallelReads(readOnlyTransaction, threads)) {
+            Supplier<String> slow = reads.fork(() -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                finished.set(true);
+                return "answers";
+            });
+            reads.fork(() -> {
+                awaitQuietly(started);
+                throw new IllegalArgumentException("Attempt not found: x");
+            });
+
+            assertThatThrownBy(reads::join)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Attempt not found: x");
+            // Cancelled, so its result is discarded even once it completes
+            assertThatThrownBy(slow::get).isInstanceOf(IllegalStateException.class);
+            release.countDown();
+        }
+
+        // close() waited for the cancelled read, which ran to the end of its transaction
+        assertThat(interrupted).isFalse();
+        assertThat(finished).isTrue();
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sleepThenReturn(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,236 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.dto.AnswerSubmissionDto;
+import co.singularit.az104simulator.dto.ResultDto;
+import co.singularit.az104simulator.repository.AttemptRepository;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PracticeSessionServiceTest {
+
+    private static final long BANK_VERSION = 77L;
+    private static final List<Domain> DOMAINS = List.of(Domain.COMPUTE);
+
+    @Mock
+    private QuestionService questionService;
+
+    @Mock
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private AttemptService attemptService;
+
+    @Mock
+    private AttemptRepository attemptRepository;
+
+    private final PracticeTokenCodec codec = new PracticeTokenCodec("test-secret", 60);
+    private PracticeSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        ScoringService scoringService = new ScoringService(questionRepository, questionService, questionBankSnapshot);
+        service = new PracticeSessionService(questionService, questionBankSnapshot, codec, scoringService,
+            attemptService, attemptRepository);
+
+        // Questions 1 and 2, each with options 11/12 and 21/22 where the first one is correct
+        List<Question> questions = List.of(question(1L), question(2L));
+        lenient().when(questionBankSnapshot.bankVersion()).thenReturn(BANK_VERSION);
+        lenient().when(questionBankSnapshot.answerKeysCovering(anyCollection()))
+            .thenReturn(AnswerKeyIndex.ofQuestions(questions));
+        lenient().when(questionService.sampleQuestionIds(eq(DOMAINS), eq(2), any(Random.class)))
+            .thenReturn(new long[]{1L, 2L});
+    }
+
+    @Test
+    void start_ShouldReturnTokenWithSampledQuestions_WithoutWritingAnything() {
+        // Act
+        String token = service.start(2, "en", DOMAINS, null);
+
+        // Assert
+        PracticeToken practice = codec.decode(token);
+        assertThat(practice.questionIds()).containsExactly(1L, 2L);
+        assertThat(practice.bankVersion()).isEqualTo(BANK_VERSION);
+        assertThat(practice.answerKeyFingerprint())
+            .isEqualTo(AnswerKeyIndex.ofQuestions(List.of(question(1L), question(2L))).fingerprint(new long[]{1L, 2L}));
+        assertThat(practice.locale()).isEqualTo("en");
+        verifyNoInteractions(attemptRepository, attemptService);
+    }
+
+    @Test
+    void start_ShouldRejectUnsupportedLocale_AndTooManyQuestions() {
+        assertThatThrownBy(() -> service.start(2, "x".repeat(200), DOMAINS, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unsupported locale");
+        assertThatThrownBy(() -> service.start(2, "fr", DOMAINS, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.start(PracticeTokenCodec.MAX_QUESTIONS + 1, "es", DOMAINS, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(String.valueOf(PracticeTokenCodec.MAX_QUESTIONS));
+        verifyNoInteractions(questionService);
+    }
+
+    @Test
+    void finish_ShouldScoreAnswers_WithoutSaving() {
+        // Arrange
+        String token = service.start(2, "es", DOMAINS, null);
+
+        // Act - question 1 right, question 2 wrong
+        ResultDto result = service.finish(token, List.of(answer(1L, 11L), answer(2L, 22L)), false, null);
+
+        // Assert
+        assertThat(result.getCorrectAnswers()).isEqualTo(1);
+        assertThat(result.getTotalQuestions()).isEqualTo(2);
+        assertThat(result.getScore()).isEqualTo(50.0);
+        assertThat(result.getAttemptId()).isNull();
+        verifyNoInteractions(attemptRepository);
+    }
+
+    @Test
+    void finish_ShouldSaveCompletedAttempt_WhenRequested() {
+        // Arrange
+        String token = service.start(2, "en", DOMAINS, null);
+
+        // Act - question 2 unanswered
+        ResultDto result = service.finish(token, List.of(answer(1L, 11L)), true, "student-1");
+
+        // Assert
+        ArgumentCaptor<Attempt> saved = ArgumentCaptor.forClass(Attempt.class);
+        verify(attemptRepository).save(saved.capture());
+        Attempt attempt = saved.getValue();
+        assertThat(result.getAttemptId()).isEqualTo(attempt.getId());
+        assertThat(attempt.getMode()).isEqualTo(ExamMode.PRACTICE);
+        assertThat(attempt.getIsCompleted()).isTrue();
+        assertThat(attempt.getStudentId()).isEqualTo("student-1");
+        assertThat(attempt.getLocale()).isEqualTo("en");
+        assertThat(attempt.getScorePercentage()).isEqualTo(50);
+        assertThat(attempt.getAnswers()).extracting(AttemptAnswer::getQuestionId).containsExactly(1L, 2L);
+        assertThat(attempt.getAnswers()).extracting(AttemptAnswer::getSelectedOptionMask).containsExactly(0b01L, 0L);
+        verify(attemptService).storeSummary(eq(attempt), any(AttemptScore.class));
+    }
+
+    @Test
+    void finish_ShouldSaveEachRunOnce() {
+        // Arrange
+        String token = service.start(2, "es", DOMAINS, null);
+        service.finish(token, List.of(answer(1L, 11L)), true, "student-1");
+
+        // Act & Assert - a replayed token is refused, scoring it alone is still allowed
+        assertThatThrownBy(() -> service.finish(token, List.of(answer(1L, 11L)), true, "student-1"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("already been saved");
+        assertThat(service.finish(token, List.of(answer(1L, 11L)), false, null).getCorrectAnswers()).isEqualTo(1);
+        verify(attemptRepository, times(1)).save(any());
+    }
+
+    @Test
+    void finish_ShouldAllowSavingAgain_WhenSaveFailed() {
+        // Arrange
+        String token = service.start(2, "es", DOMAINS, null);
+        when(attemptRepository.save(any()))
+            .thenThrow(new IllegalStateException("database unavailable"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.finish(token, List.of(), true, "student-1"))
+            .hasMessage("database unavailable");
+        assertThat(service.finish(token, List.of(), true, "student-1").getAttemptId()).isNotNull();
+    }
+
+    @Test
+    void finish_ShouldRejectTamperedAndExpiredTokens() {
+        String token = service.start(2, "es", DOMAINS, null);
+        char[] chars = token.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+        String tampered = new String(chars);
+        String expired = codec.encode(new PracticeToken(1, BANK_VERSION, 0L, "es", new long[]{1L, 2L},
+            Instant.now().minus(2, ChronoUnit.HOURS)));
+
+        assertThatThrownBy(() -> service.finish(tampered, List.of(), true, "student-1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("signature");
+        assertThatThrownBy(() -> service.finish(expired, List.of(), true, "student-1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("expired");
+        verifyNoInteractions(attemptRepository);
+    }
+
+    @Test
+    void finish_ShouldRejectAnswersOutsideTheRun() {
+        String token = service.start(2, "es", DOMAINS, null);
+
+        assertThatThrownBy(() -> service.finish(token, List.of(answer(3L, 31L)), true, "student-1"))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(attemptRepository);
+    }
+
+    @Test
+    void finish_ShouldAcceptRun_WhenAnImportOnlyChangedOtherQuestions() {
+        // Arrange - question 3 added, which changes the bank fingerprint
+        String token = service.start(2, "es", DOMAINS, null);
+        when(questionBankSnapshot.answerKeysCovering(anyCollection()))
+            .thenReturn(AnswerKeyIndex.ofQuestions(List.of(question(1L), question(2L), question(3L))));
+
+        // Act
+        ResultDto result = service.finish(token, List.of(answer(1L, 11L)), false, null);
+
+        // Assert
+        assertThat(result.getCorrectAnswers()).isEqualTo(1);
+    }
+
+    @Test
+    void finish_ShouldRejectRun_WhenOneOfItsQuestionsChanged() {
+        // Arrange - question 2 no longer resolves
+        String token = service.start(2, "es", DOMAINS, null);
+        when(questionBankSnapshot.answerKeysCovering(anyCollection()))
+            .thenReturn(AnswerKeyIndex.ofQuestions(List.of(question(1L))));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.getQuestion(token, 1, "es"))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.finish(token, List.of(answer(1L, 11L)), true, "student-1"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("bank changed");
+        verifyNoInteractions(attemptRepository);
+    }
+
+    private static Question question(long id) {
+        Question question = new Question();
+        question.setId(id);
+        question.setDomain(Domain.COMPUTE);
+        question.setQtype(QuestionType.SINGLE);
+        for (long option = 1; option <= 2; option++) {
+            OptionItem item = new OptionItem();
+            item.setId(id * 10 + option);
+            item.setIsCorrect(option == 1);
+            question.addOption(item);
+        }
+        return question;
+    }
+
+    private static AnswerSubmissionDto answer(long questionId, long optionId) {
+        AnswerSubmissionDto answer = new AnswerSubmissionDto();
+        answer.setQuestionId(questionId);
+        answer.setSelectedOptionIds(List.of(optionId));
+        return answer;
+    }
+}
@@ -0,0 +1,78 @@
+package co.singularit.az104simulator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PracticeTokenCodecTest {
+
+    private final PracticeTokenCodec codec = new PracticeTokenCodec("test-secret", 60);
+
+    @Test
+    void decode_ShouldRoundTripEncodedToken() {
+        // Arrange
+        Instant issuedAt = Instant.ofEpochSecond(1_700_000_000L);
+        PracticeToken token = new PracticeToken(12345, 0x1234_5678_9abcL, -42L, "en", new long[]{42, 7, 100_000, 1}, issuedAt);
+
+        // Act
+        PracticeToken decoded = codec.decode(codec.encode(token), issuedAt.plusSeconds(10));
+
+        // Assert
+        assertThat(decoded.seed()).isEqualTo(12345);
+        assertThat(decoded.bankVersion()).isEqualTo(0x1234_5678_9abcL);
+        assertThat(decoded.answerKeyFingerprint()).isEqualTo(-42L);
+        assertThat(decoded.locale()).isEqualTo("en");
+        assertThat(decoded.questionIds()).containsExactly(42, 7, 100_000, 1);
+        assertThat(decoded.issuedAt()).isEqualTo(issuedAt);
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedPayload() {
+        Instant now = Instant.now();
+        String encoded = codec.encode(new PracticeToken(1, 2L, 3L, "es", new long[]{10, 11}, now));
+
+        // Flip one character of the payload, keeping the signature
+        char[] chars = encoded.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+        String tampered = new String(chars);
+
+        assertThatThrownBy(() -> codec.decode(tampered, now))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("signature");
+    }
+
+    @Test
+    void decode_ShouldRejectTokenSignedWithAnotherKey() {
+        Instant now = Instant.now();
+        String encoded = new PracticeTokenCodec("other-secret", 60)
+            .encode(new PracticeToken(1, 2L, 3L, "es", new long[]{10, 11}, now));
+
+        assertThatThrownBy(() -> codec.decode(encoded, now))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_ShouldRejectExpiredToken() {
+        Instant issuedAt = Instant.now();
+        String encoded = codec.encode(new PracticeToken(1, 2L, 3L, "es", new long[]{10}, issuedAt));
+
+        assertThatThrownBy(() -> codec.decode(encoded, issuedAt.plus(Duration.ofMinutes(61))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("expired");
+    }
+
+    @Test
+    void encode_ShouldRejectLocaleOrQuestionCountThatDoesNotFit() {
+        Instant now = Instant.now();
+
+        assertThatThrownBy(() -> codec.encode(new PracticeToken(1, 2L, 3L, "x".repeat(128), new long[]{10}, now)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Locale");
+        assertThatThrownBy(() -> codec.encode(
+                new PracticeToken(1, 2L, 3L, "es", new long[PracticeTokenCodec.MAX_QUESTIONS + 1], now)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.*;
+import co.singularit.az104simulator.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionBankSnapshotTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    private List<Question> mockQuestions;
+
+    @BeforeEach
+    void setUp() {
+        // 30 questions spread over domains, difficulties and types
+        mockQuestions = IntStream.range(1, 31)
+            .mapToObj(i -> {
+                Question q = new Question();
+                q.setId((long) i);
+                q.setDomain(Domain.values()[i % Domain.values().length]);
+                q.setDifficulty(Difficulty.values()[i % Difficulty.values().length]);
+                q.setQtype(i % 2 == 0 ? QuestionType.SINGLE : QuestionType.MULTI);
+                q.setStemEn("Question " + i);
+                q.setStemEs("Pregunta " + i);
+
+                OptionItem second = new OptionItem();
+                second.setId(i * 10L + 2);
+                second.setLabel("B");
+                second.setIsCorrect(false);
+
+                OptionItem first = new OptionItem();
+                first.setId(i * 10L + 1);
+                first.setLabel("A");
+                first.setIsCorrect(true);
+
+                q.setOptions(new ArrayList<>(List.of(second, first)));
+                return q;
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void reload_ShouldIndexQuestionsByDomainDifficultyAndType() {
+        // Arrange
+        when(questionRepository.findAllActiveWithOptions()).thenReturn(mockQuestions);
+
+        // Act
+        questionBankSnapshot.reload();
+
+        // Assert
+        assertThat(questionBankSnapshot.size()).isEqualTo(30);
+
+        for (Domain domain : Domain.values()) {
+            long[] expected = mockQuestions.stream()
+                .filter(q -> q.getDomain() == domain)
+                .mapToLong(Question::getId)
+                .toArray();
+            assertThat(questionBankSnapshot.idsByDomain(domain)).containsExactly(expected);
+        }
+
+        assertThat(questionBankSnapshot.idsByDifficulty(Difficulty.EASY)).hasSize(10);
+        assertThat(questionBankSnapshot.idsByType(QuestionType.SINGLE)).hasSize(15);
+        assertThat(questionBankSnapshot.idsByType(QuestionType.YESNO)).isEmpty();
+    }
+
+    @Test
+    void find_ShouldReturnImmutableEntryWithOptionsOrderedById() {
+        // Arrange
+        when(questionRepository.findAllActiveWithOptions()).thenReturn(mockQuestions);
+
+        // Act
+        QuestionBankSnapshot.QuestionEntry entry = questionBankSnapshot.find(3L).orElseThrow();
+
+        // Assert - loaded lazily on first access
+        verify(questionRepository, times(1)).findAllActiveWithOptions();
+        assertThat(entry.stemEn()).isEqualTo("Question 3");
+        assertThat(entry.options())
+            .extracting(QuestionBankSnapshot.OptionEntry::label)
+            .containsExactly("A", "B");
+        assertThatThrownBy(() -> entry.options().clear())
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(questionBankSnapshot.find(999L)).isEmpty();
+    }
+
+    @Test
+    void reload_ShouldPublishNewBankVersion_AndResolveDeletedQuestionsFromDatabase() {
+        // Arrange - version 2 soft-deleted question 30
+        when(questionRepository.currentBankVersion()).thenReturn(1L, 2L);
+        when(questionRepository.findAllActiveWithOptions())
+            .thenReturn(mockQuestions, mockQuestions.subList(0, 29));
+        when(questionRepository.findAllWithOptionsByIdIn(List.of(29L, 30L)))
+            .thenReturn(mockQuestions.subList(28, 30));
+        questionBankSnapshot.reload();
+        assertThat(questionBankSnapshot.bankVersion()).isEqualTo(1L);
+
+        // Act
+        questionBankSnapshot.reload();
+
+        // Assert - a session started on version 1 still scores question 30
+        assertThat(questionBankSnapshot.bankVersion()).isEqualTo(2L);
+        assertThat(questionBankSnapshot.find(30L)).isEmpty();
+        assertThat(questionBankSnapshot.answerKeysCovering(List.of(29L, 30L)).contains(30L)).isTrue();
+    }
+}
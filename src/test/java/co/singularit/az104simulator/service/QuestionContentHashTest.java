@@ -0,0 +1,76 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Difficulty;
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.OptionItem;
+import co.singularit.az104simulator.domain.Question;
+import co.singularit.az104simulator.domain.QuestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuestionContentHashTest {
+
+    @Test
+    void of_ShouldIgnoreWhitespaceAndOptionOrder() {
+        ImportedQuestion question = question("Which  service?\n", "Yes", true, "No", false);
+        ImportedQuestion reformatted = new ImportedQuestion(question.domain(), question.difficulty(), question.qtype(),
+            question.stemEs(), " Which service?", question.explanationEs(), question.explanationEn(), question.tagsJson(),
+            List.of(question.options().get(1), question.options().get(0)));
+
+        assertThat(QuestionContentHash.of(reformatted)).isEqualTo(QuestionContentHash.of(question));
+    }
+
+    @Test
+    void of_ShouldChange_WhenAnswerKeyOrOptionTextChanges() {
+        String original = QuestionContentHash.of(question("Which service?", "Yes", true, "No", false));
+
+        assertThat(QuestionContentHash.of(question("Which service?", "Yes", false, "No", true))).isNotEqualTo(original);
+        assertThat(QuestionContentHash.of(question("Which service?", "Yes!", true, "No", false))).isNotEqualTo(original);
+        assertThat(QuestionContentHash.of(question("Which region?", "Yes", true, "No", false))).isNotEqualTo(original);
+    }
+
+    @Test
+    void of_ShouldMatchStoredQuestion() {
+        ImportedQuestion imported = question("Which service?", "Yes", true, "No", false);
+
+        Question stored = new Question();
+        stored.setQtype(QuestionType.SINGLE);
+        stored.setStem("¿Qué servicio?");
+        stored.setStemEs("¿Qué servicio?");
+        stored.setStemEn("Which service?");
+        for (ImportedQuestion.Option item : imported.options()) {
+            OptionItem option = new OptionItem();
+            option.setLabel(item.label());
+            option.setText(item.text());
+            option.setTextEs(item.textEs());
+            option.setTextEn(item.textEn());
+            option.setIsCorrect(item.correct());
+            stored.addOption(option);
+        }
+
+        assertThat(QuestionContentHash.of(stored)).isEqualTo(QuestionContentHash.of(imported));
+    }
+
+    @Test
+    void metadataOf_ShouldIgnoreContentAndTrackExplanationAndTags() {
+        ImportedQuestion question = question("Which service?", "Yes", true, "No", false);
+        ImportedQuestion otherStem = question("Which region?", "Yes", true, "No", false);
+        ImportedQuestion retagged = new ImportedQuestion(question.domain(), question.difficulty(), question.qtype(),
+            question.stemEs(), question.stemEn(), question.explanationEs(), question.explanationEn(), "[\"Storage\"]",
+            question.options());
+
+        assertThat(QuestionContentHash.metadataOf(otherStem)).isEqualTo(QuestionContentHash.metadataOf(question));
+        assertThat(QuestionContentHash.metadataOf(retagged)).isNotEqualTo(QuestionContentHash.metadataOf(question));
+    }
+
+    private static ImportedQuestion question(String stemEn, String firstText, boolean firstCorrect,
+                                             String secondText, boolean secondCorrect) {
+        return new ImportedQuestion(Domain.COMPUTE, Difficulty.EASY, QuestionType.SINGLE,
+            "¿Qué servicio?", stemEn, "Porque", "Because", "[\"VMs\"]",
+            List.of(new ImportedQuestion.Option("A", firstText, firstText, firstCorrect),
+                new ImportedQuestion.Option("B", secondText, secondText, secondCorrect)));
+    }
+}
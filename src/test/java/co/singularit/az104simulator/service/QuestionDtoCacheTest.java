@@ -0,0 +1,98 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.dto.OptionDto;
+import co.singularit.az104simulator.dto.QuestionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuestionDtoCacheTest {
+
+    private final QuestionDtoCache questionDtoCache = new QuestionDtoCache(100);
+
+    @Test
+    void get_ShouldBuildTemplateOnce_AndReturnIndependentCopies() {
+        // Arrange
+        AtomicInteger builds = new AtomicInteger();
+        Supplier<QuestionDto> template = () -> {
+            builds.incrementAndGet();
+            return template(1L, "Pregunta");
+        };
+
+        // Act
+        QuestionDto first = questionDtoCache.get(1L, "es", false, template);
+        first.setSelectedOptionIds(List.of(11L));
+        first.setMarked(true);
+        QuestionDto second = questionDtoCache.get(1L, "ES", false, template);
+
+        // Assert
+        assertThat(builds).hasValue(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getStem()).isEqualTo("Pregunta");
+        assertThat(second.getSelectedOptionIds()).isNull();
+        assertThat(second.getMarked()).isNull();
+        assertThat(second.getOptions()).isSameAs(first.getOptions());
+    }
+
+    @Test
+    void get_ShouldKeepSeparateEntriesPerLanguageAndAnswerVisibility() {
+        // Act
+        questionDtoCache.get(1L, "es", false, () -> template(1L, "Pregunta"));
+        QuestionDto english = questionDtoCache.get(1L, "en", false, () -> template(1L, "Question"));
+        QuestionDto withAnswers = questionDtoCache.get(1L, "en", true, () -> template(1L, "Question with answers"));
+
+        // Assert
+        assertThat(english.getStem()).isEqualTo("Question");
+        assertThat(withAnswers.getStem()).isEqualTo("Question with answers");
+        assertThat(questionDtoCache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateAll_ShouldForceRebuild() {
+        // Arrange
+        questionDtoCache.get(1L, "es", false, () -> template(1L, "Antes"));
+
+        // Act
+        questionDtoCache.invalidateAll();
+        QuestionDto dto = questionDtoCache.get(1L, "es", false, () -> template(1L, "Después"));
+
+        // Assert
+        assertThat(dto.getStem()).isEqualTo("Después");
+    }
+
+    @Test
+    void get_ShouldNotKeepTemplate_WhenInvalidatedWhileItWasBuilt() {
+        // Arrange - an import commits and clears the cache while the template is rendered
+        Supplier<QuestionDto> stale = () -> {
+            CompletableFuture.runAsync(questionDtoCache::invalidateAll).join();
+            return template(1L, "Antes");
+        };
+
+        // Act
+        QuestionDto dto = questionDtoCache.get(1L, "es", false, stale);
+        QuestionDto rebuilt = questionDtoCache.get(1L, "es", false, () -> template(1L, "Después"));
+
+        // Assert
+        assertThat(dto.getStem()).isEqualTo("Antes");
+        assertThat(rebuilt.getStem()).isEqualTo("Después");
+    }
+
+    private QuestionDto template(Long id, String stem) {
+        OptionDto option = new OptionDto();
+        option.setId(id * 10 + 1);
+        option.setLabel("A");
+        option.setText("Option");
+
+        QuestionDto dto = new QuestionDto();
+        dto.setId(id);
+        dto.setStem(stem);
+        dto.setOptions(List.of(option));
+        dto.setTags(List.of());
+        return dto;
+    }
+}
@@ -0,0 +1,205 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.dto.ImportProgressDto;
+import co.singularit.az104simulator.service.QuestionBatchWriter.ExistingQuestion;
+import co.singularit.az104simulator.service.QuestionBatchWriter.QuestionUpdate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionImportServiceTest {
+
+    private static final String UNCHANGED = question("Unchanged", "x");
+    private static final String RETAGGED = question("Retagged", "y");
+    private static final String NEW = question("New", "z");
+
+    @Mock
+    private QuestionBatchWriter questionBatchWriter;
+
+    @Mock
+    private QuestionStagingArea questionStagingArea;
+
+    @Mock
+    private QuestionBankSnapshot questionBankSnapshot;
+
+    @Mock
+    private QuestionEntityCache questionEntityCache;
+
+    @Mock
+    private QuestionDtoCache questionDtoCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuestionJsonReader questionJsonReader = new QuestionJsonReader(objectMapper);
+    private final List<Long> updatedIds = new ArrayList<>();
+    private QuestionImportService questionImportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        questionImportService = new QuestionImportService(questionJsonReader, questionBatchWriter,
+            questionStagingArea, questionBankSnapshot, questionEntityCache, questionDtoCache, transactionManager, 2);
+
+        // Bank: 10 matches UNCHANGED, 11 matches RETAGGED with other tags, 12 is not in the file
+        // and 13 is neither, but already deleted
+        ImportedQuestion unchanged = parse(UNCHANGED);
+        ImportedQuestion retagged = parse(RETAGGED);
+        Map<String, ExistingQuestion> existing = new HashMap<>();
+        existing.put(QuestionContentHash.of(unchanged),
+            new ExistingQuestion(10L, QuestionContentHash.metadataOf(unchanged), false));
+        existing.put(QuestionContentHash.of(retagged), new ExistingQuestion(11L, "old tags", false));
+        existing.put("removed", new ExistingQuestion(12L, "tags", false));
+        existing.put("deleted", new ExistingQuestion(13L, "tags", true));
+        lenient().when(questionBatchWriter.existingByContentHash()).thenReturn(existing);
+        // The import reuses its batch lists, so record the updates as they are written
+        lenient().doAnswer(invocation -> {
+            List<QuestionUpdate> updates = invocation.getArgument(0);
+            updates.forEach(update -> updatedIds.add(update.id()));
+            return null;
+        }).when(questionBatchWriter).update(anyList());
+        lenient().when(questionBatchWriter.insert(anyList())).thenAnswer(invocation ->
+            new long[((List<?>) invocation.getArgument(0)).size()]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        questionImportService.shutdown();
+    }
+
+    @Test
+    void syncImport_ShouldInsertNewUpdateChangedAndSoftDeleteMissing() throws Exception {
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.SYNC, UNCHANGED, RETAGGED, NEW);
+
+        assertThat(progress.getState()).isEqualTo("COMPLETED");
+        assertThat(progress.getQuestionsImported()).isEqualTo(1);
+        assertThat(progress.getQuestionsUpdated()).isEqualTo(1);
+        assertThat(progress.getQuestionsUnchanged()).isEqualTo(1);
+        assertThat(progress.getQuestionsDeleted()).isEqualTo(1);
+
+        assertThat(updatedIds).containsExactly(11L);
+        verify(questionBatchWriter).softDelete(eq(List.of(12L)), any(LocalDateTime.class));
+        verify(questionBankSnapshot).reload();
+        verify(questionEntityCache).evictAll();
+        verify(questionDtoCache).invalidateAll();
+    }
+
+    @Test
+    void appendImport_ShouldNotDeleteAnything() throws Exception {
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.APPEND, NEW);
+
+        assertThat(progress.getState()).isEqualTo("COMPLETED");
+        assertThat(progress.getQuestionsImported()).isEqualTo(1);
+        assertThat(progress.getQuestionsDeleted()).isZero();
+        verify(questionBatchWriter, never()).softDelete(anyList(), any());
+    }
+
+    @Test
+    void syncImport_ShouldSkipDeletes_WhenQuestionsAreRejected() throws Exception {
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.SYNC, UNCHANGED, question("", "x"), NEW);
+
+        assertThat(progress.getState()).isEqualTo("COMPLETED");
+        assertThat(progress.getQuestionsRejected()).isEqualTo(1);
+        assertThat(progress.getRejections()).containsExactly("#2: stem is required");
+        assertThat(progress.getDeletesSkipped()).isTrue();
+        verify(questionBatchWriter, never()).softDelete(anyList(), any());
+    }
+
+    @Test
+    void syncImport_ShouldCountDuplicatesApart_AndStillDelete() throws Exception {
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.SYNC, UNCHANGED, UNCHANGED, RETAGGED, NEW);
+
+        assertThat(progress.getState()).isEqualTo("COMPLETED");
+        assertThat(progress.getQuestionsDuplicate()).isEqualTo(1);
+        assertThat(progress.getQuestionsUnchanged()).isEqualTo(1);
+        assertThat(progress.getQuestionsRejected()).isZero();
+        assertThat(progress.getRejections()).isEmpty();
+        assertThat(progress.getDeletesSkipped()).isFalse();
+        verify(questionBatchWriter).softDelete(eq(List.of(12L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void syncImport_ShouldFail_WhenFileHasNoValidQuestions() throws Exception {
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.SYNC);
+
+        assertThat(progress.getState()).isEqualTo("FAILED");
+        verify(questionBatchWriter, never()).softDelete(anyList(), any());
+        verifyNoInteractions(questionBankSnapshot);
+    }
+
+    @Test
+    void stagedImport_ShouldLoadStagingTablesAndSwapOnce() throws Exception {
+        when(questionStagingArea.stage(anyList(), anyList(), anyList())).thenAnswer(invocation ->
+            new long[((List<?>) invocation.getArgument(0)).size()]);
+        when(questionStagingArea.swap(eq(true), any(LocalDateTime.class)))
+            .thenReturn(new QuestionStagingArea.SwapResult(1, 2, 1, 1, 7L));
+
+        ImportProgressDto progress = importAndWait(QuestionImportService.Mode.SYNC, true, UNCHANGED, RETAGGED, NEW);
+
+        assertThat(progress.getState()).isEqualTo("COMPLETED");
+        assertThat(progress.getPhase()).isEqualTo("SWAPPED");
+        assertThat(progress.getQuestionsStaged()).isEqualTo(3);
+        assertThat(progress.getQuestionsImported()).isEqualTo(1);
+        assertThat(progress.getQuestionsDeleted()).isEqualTo(1);
+        assertThat(progress.getBankVersion()).isEqualTo(7L);
+
+        // Nothing is written to the bank tables before the swap
+        verify(questionBatchWriter, never()).insert(anyList());
+        verify(questionBatchWriter, never()).update(anyList());
+        verify(questionBatchWriter, never()).softDelete(anyList(), any());
+        verify(questionStagingArea).createIndexes();
+        verify(questionStagingArea, times(2)).reset();
+        verify(questionBankSnapshot).reload();
+    }
+
+    private ImportProgressDto importAndWait(QuestionImportService.Mode mode, String... questions) throws Exception {
+        return importAndWait(mode, false, questions);
+    }
+
+    private ImportProgressDto importAndWait(QuestionImportService.Mode mode, boolean staged,
+                                            String... questions) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("questions.json"), "[" + String.join(",", questions) + "]");
+        String jobId = questionImportService.start(file, "questions.json", mode, staged).getJobId();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        ImportProgressDto progress = questionImportService.progress(jobId);
+        while ("RUNNING".equals(progress.getState()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            progress = questionImportService.progress(jobId);
+        }
+        return progress;
+    }
+
+    private ImportedQuestion parse(String json) throws Exception {
+        return questionJsonReader.parse(objectMapper.readTree(json));
+    }
+
+    private static String question(String stem, String tag) {
+        return "{\"domain\": \"COMPUTE\", \"difficulty\": \"EASY\", \"qtype\": \"SINGLE\", " +
+            "\"stem\": \"" + stem + "\", \"explanation\": \"Because\", \"tags\": [\"" + tag + "\"], " +
+            "\"options\": [{\"label\": \"A\", \"text\": \"Yes\", \"isCorrect\": true}, " +
+            "{\"label\": \"B\", \"text\": \"No\", \"isCorrect\": false}]}";
+    }
+}
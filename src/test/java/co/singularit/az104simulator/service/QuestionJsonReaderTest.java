@@ -0,0 +1,126 @@
+package co.singularit.az104simulator.service;
+
+import co.singularit.az104simulator.domain.Domain;
+import co.singularit.az104simulator.domain.QuestionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuestionJsonReaderTest {
+
+    private final QuestionJsonReader reader = new QuestionJsonReader(new ObjectMapper());
+
+    private final List<ImportedQuestion> questions = new ArrayList<>();
+    private final List<String> rejections = new ArrayList<>();
+
+    @Test
+    void read_ShouldAcceptBilingualAndMonolingualQuestions() throws IOException {
+        // Arrange
+        String json = "[" +
+            question("\"stem\": {\"en\": \"Which service?\", \"es\": \"¿Qué servicio?\"}, " +
+                "\"explanation\": {\"en\": \"Because\", \"es\": \"Porque\"}", "SINGLE", true, false) + "," +
+            question("\"stem\": \"Legacy stem\", \"explanation\": \"Legacy explanation\"", "MULTI", true, true) +
+            "]";
+
+        // Act
+        int read = reader.read(stream(json), questions::add, (position, reason) -> rejections.add(reason));
+
+        // Assert
+        assertThat(read).isEqualTo(2);
+        assertThat(rejections).isEmpty();
+        assertThat(questions).hasSize(2);
+
+        ImportedQuestion bilingual = questions.get(0);
+        assertThat(bilingual.domain()).isEqualTo(Domain.COMPUTE);
+        assertThat(bilingual.stemEn()).isEqualTo("Which service?");
+        assertThat(bilingual.stemEs()).isEqualTo("¿Qué servicio?");
+        assertThat(bilingual.stem()).isEqualTo("¿Qué servicio?");
+        assertThat(bilingual.tagsJson()).isEqualTo("[\"VMs\"]");
+        assertThat(bilingual.options()).extracting(ImportedQuestion.Option::correct).containsExactly(true, false);
+
+        ImportedQuestion legacy = questions.get(1);
+        assertThat(legacy.qtype()).isEqualTo(QuestionType.MULTI);
+        assertThat(legacy.stemEn()).isEqualTo("Legacy stem");
+        assertThat(legacy.stemEs()).isEqualTo("Legacy stem");
+    }
+
+    @Test
+    void read_ShouldSkipAndReportInvalidQuestions() throws IOException {
+        String json = "[" +
+            question("\"stem\": \"Two correct\", \"explanation\": \"x\"", "SINGLE", true, true) + "," +
+            "{\"domain\": \"NOT_A_DOMAIN\"}," +
+            question("\"stem\": \"Valid\", \"explanation\": \"x\"", "SINGLE", false, true) + "," +
+            "42" +
+            "]";
+        List<Integer> positions = new ArrayList<>();
+
+        int read = reader.read(stream(json), questions::add, (position, reason) -> {
+            positions.add(position);
+            rejections.add(reason);
+        });
+
+        assertThat(read).isEqualTo(4);
+        assertThat(questions).hasSize(1);
+        assertThat(questions.get(0).stem()).isEqualTo("Valid");
+        assertThat(positions).containsExactly(1, 2, 4);
+        assertThat(rejections.get(0)).contains("correct options");
+        assertThat(rejections.get(1)).contains("NOT_A_DOMAIN");
+    }
+
+    @Test
+    void read_ShouldFail_WhenFileIsNotAnArray() {
+        assertThatThrownBy(() -> reader.read(stream("{\"domain\": \"COMPUTE\"}"), questions::add, (p, r) -> {}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("array");
+    }
+
+    @Test
+    void read_ShouldFail_WhenJsonIsTruncated() {
+        String json = "[" + question("\"stem\": \"Valid\", \"explanation\": \"x\"", "SINGLE", true, false) + ", {\"domain\"";
+
+        assertThatThrownBy(() -> reader.read(stream(json), questions::add, (p, r) -> {}))
+            .isInstanceOf(IOException.class);
+        assertThat(questions).hasSize(1);
+    }
+
+    @Test
+    void read_ShouldAcceptAsManyOptionsAsTheAnswerKeyHoldsAndRejectMore() throws IOException {
+        String json = "[" + withOptions(AnswerKeyIndex.MAX_OPTIONS) + "," + withOptions(AnswerKeyIndex.MAX_OPTIONS + 1) + "]";
+
+        reader.read(stream(json), questions::add, (position, reason) -> rejections.add(position + ": " + reason));
+
+        assertThat(questions).hasSize(1);
+        assertThat(questions.get(0).options()).hasSize(AnswerKeyIndex.MAX_OPTIONS);
+        assertThat(rejections).containsExactly("2: at most " + AnswerKeyIndex.MAX_OPTIONS + " options are supported");
+    }
+
+    private static String withOptions(int count) {
+        StringBuilder options = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            options.append(i > 0 ? "," : "")
+                .append("{\"label\": \"O").append(i).append("\", \"text\": \"Option ").append(i)
+                .append("\", \"isCorrect\": ").append(i == 0).append('}');
+        }
+        return "{\"domain\": \"COMPUTE\", \"difficulty\": \"EASY\", \"qtype\": \"SINGLE\", " +
+            "\"stem\": \"Many options\", \"explanation\": \"x\", \"options\": [" + options + "]}";
+    }
+
+    private static String question(String texts, String qtype, boolean firstCorrect, boolean secondCorrect) {
+        return "{\"domain\": \"COMPUTE\", \"difficulty\": \"EASY\", \"qtype\": \"" + qtype + "\", " + texts + ", " +
+            "\"tags\": [\"VMs\"], \"options\": [" +
+            "{\"label\": \"A\", \"text\": {\"en\": \"Yes\", \"es\": \"Sí\"}, \"isCorrect\": " + firstCorrect + "}," +
+            "{\"label\": \"B\", \"text\": \"No\", \"isCorrect\": " + secondCorrect + "}]}";
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
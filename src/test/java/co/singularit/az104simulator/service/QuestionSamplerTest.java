@@ -0,0 +1,70 @@
+package co.singularit.az104simulator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuestionSamplerTest {
+
+    @Test
+    void sample_ShouldReturnKDistinctIdsFromThePool() {
+        // Arrange
+        long[] ids = LongStream.rangeClosed(1, 10_000).toArray();
+
+        // Act
+        long[] sample = QuestionSampler.sample(ids, 50, new SplittableRandom(42));
+
+        // Assert
+        assertThat(sample).hasSize(50);
+        assertThat(Arrays.stream(sample).distinct().count()).isEqualTo(50);
+        assertThat(sample).allMatch(id -> id >= 1 && id <= 10_000);
+    }
+
+    @Test
+    void sample_ShouldReturnWholePoolInRandomOrder_WhenKExceedsPoolSize() {
+        // Arrange
+        long[] ids = LongStream.rangeClosed(1, 30).toArray();
+
+        // Act
+        long[] sample = QuestionSampler.sample(ids, 50, new SplittableRandom(7));
+
+        // Assert
+        assertThat(sample).containsExactlyInAnyOrder(ids);
+        assertThat(ids).as("Input pool must not be modified").containsExactly(LongStream.rangeClosed(1, 30).toArray());
+    }
+
+    @Test
+    void sample_ShouldDrawFromAllPools() {
+        // Arrange
+        long[][] pools = {
+            LongStream.rangeClosed(1, 5).toArray(),
+            new long[0],
+            LongStream.rangeClosed(100, 104).toArray()
+        };
+
+        // Act
+        long[] sample = QuestionSampler.sample(pools, 10, new SplittableRandom(1));
+
+        // Assert
+        assertThat(sample).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 100, 101, 102, 103, 104);
+    }
+
+    @Test
+    void sample_ShouldBeReproducible_ForSameSeed() {
+        long[] ids = LongStream.rangeClosed(1, 1_000).toArray();
+
+        long[] first = QuestionSampler.sample(ids, 20, new SplittableRandom(123));
+        long[] second = QuestionSampler.sample(ids, 20, new SplittableRandom(123));
+
+        assertThat(second).containsExactly(first);
+    }
+
+    @Test
+    void sample_ShouldReturnEmpty_WhenKIsZero() {
+        assertThat(QuestionSampler.sample(new long[]{1, 2, 3}, 0, new SplittableRandom())).isEmpty();
+    }
+}